@@ -1,10 +1,9 @@
-import gameEngine.Match;
-import gameEngine.SplashScreen;
+import launcher.Launcher;
+
+import java.io.IOException;
 
 public class TestPartita {
-    public static void main(String[] args) {
-        SplashScreen.print();
-        Match game = new Match();
-        game.play();
+    public static void main(String[] args) throws IOException {
+        Launcher.main(args);
     }
 }
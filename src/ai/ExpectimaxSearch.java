@@ -0,0 +1,396 @@
+package ai;
+
+import gameEngine.FightResolver;
+import gameEngine.GameLogic;
+import gameEngine.PlayerController;
+import gameObjects.*;
+import general.Direction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Expectimax search over the states of a game.
+ * Every step of the current player is a decision node (the player maximizes, the opponent minimizes the value
+ * for the player who started the search), the dice thrown at the start of a turn is a chance node.
+ * The states are explored on copies of the {@link GameLogic}, fights are resolved with the closed form
+ * resolver and the root moves are searched in parallel sharing one transposition table.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class ExpectimaxSearch {
+
+    //==================== Attributes ===================
+
+    /**
+     * Value of a won game.
+     */
+    private static final double WIN = 1000;
+
+    /**
+     * Value of a coin.
+     */
+    private static final double COIN = 10;
+
+    /**
+     * Value of a potion.
+     */
+    private static final double POTION = 3;
+
+    /**
+     * Value of a gem.
+     */
+    private static final double GEM = 2;
+
+    /**
+     * Value of every cell between a player and the nearest coin.
+     */
+    private static final double DISTANCE = 0.5;
+
+    /**
+     * Number of times a fight is resolved to estimate its expected value.
+     */
+    private static final int FIGHT_SAMPLES = 8;
+
+    /**
+     * Maximum number of steps or turns distinguished by the keys.
+     */
+    private static final int MAX_DEPTH = 64;
+
+    /**
+     * Controller used in the explored states: always uses a potion, uses a gem only when losing would end the game.
+     */
+    private static final PlayerController FIGHT_POLICY = new PlayerController() {
+        @Override
+        public boolean useGem(GameLogic gameLogic, Player player) {
+            return player.getCoins() == 0;
+        }
+
+        @Override
+        public boolean usePotion(GameLogic gameLogic, Player player) {
+            return true;
+        }
+    };
+
+    /**
+     * Number of opponent turns searched after the current one.
+     */
+    private final int turns;
+
+    /**
+     * Transposition table shared by the threads.
+     */
+    private final TranspositionTable table;
+
+    /**
+     * Pool used to search the root moves in parallel.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Random generator of the search (used on the calling thread only).
+     */
+    private final SplittableRandom random;
+
+    /**
+     * Keys of the remaining steps.
+     */
+    private final long[] stepKeys = new long[MAX_DEPTH];
+
+    /**
+     * Keys of the remaining turns.
+     */
+    private final long[] turnKeys = new long[MAX_DEPTH];
+
+    /**
+     * Zobrist keys, created for the size of the last searched board.
+     */
+    private volatile ZobristHash zobrist;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor.
+     *
+     * @param turns       Number of opponent turns searched after the current one.
+     * @param ttCapacity  Maximum number of entries of the transposition table.
+     * @param parallelism Number of threads.
+     * @param seed        Seed of the hash keys and of the fights.
+     */
+    public ExpectimaxSearch(int turns, int ttCapacity, int parallelism, long seed) {
+        this.turns = Math.min(turns, MAX_DEPTH - 1);
+        this.table = new TranspositionTable(ttCapacity);
+        this.pool = new ForkJoinPool(parallelism);
+        this.random = new SplittableRandom(seed);
+        for (int i = 0; i < MAX_DEPTH; i++) {
+            stepKeys[i] = random.nextLong();
+            turnKeys[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * Constructor, one turn of lookahead and one thread per core.
+     *
+     * @param seed Seed of the hash keys and of the fights.
+     */
+    public ExpectimaxSearch(long seed) {
+        this(1, 1 << 20, Runtime.getRuntime().availableProcessors(), seed);
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Move the current player of a state one step.
+     *
+     * @param gameLogic The state (modified).
+     * @param direction Direction of the step.
+     * @return false if the step is not allowed (the player hits a rock).
+     */
+    static boolean applyStep(GameLogic gameLogic, Direction direction) {
+        GameObject obstacle = gameLogic.movePlayer(gameLogic.getCurrentPlayer(), direction);
+        return obstacle == null || gameLogic.collide(gameLogic.getCurrentPlayer(), obstacle);
+    }
+
+    /**
+     * Return the cell next to the current player in a direction.
+     *
+     * @param gameLogic The state.
+     * @param direction Direction of the step.
+     * @return The index (y * sizeX + x) of the cell.
+     */
+    private static int targetCell(GameLogic gameLogic, Direction direction) {
+        Player player = gameLogic.getCurrentPlayer();
+        int x = player.getXPosition();
+        int y = player.getYPosition();
+        switch (direction) {
+            case NORTH:
+                y = (y + gameLogic.getSizeY() - 1) % gameLogic.getSizeY();
+                break;
+            case SOUTH:
+                y = (y + 1) % gameLogic.getSizeY();
+                break;
+            case EAST:
+                x = (x + 1) % gameLogic.getSizeX();
+                break;
+            case WEST:
+                x = (x + gameLogic.getSizeX() - 1) % gameLogic.getSizeX();
+                break;
+        }
+        return y * gameLogic.getSizeX() + x;
+    }
+
+    /**
+     * Check if a step of the current player ends on the other player.
+     *
+     * @param gameLogic The state.
+     * @param direction Direction of the step.
+     * @return true if the step starts a fight.
+     */
+    private static boolean startsFight(GameLogic gameLogic, Direction direction) {
+        Player opponent = (Player) gameLogic.getGameObjects().get(1 - currentIndex(gameLogic));
+        return targetCell(gameLogic, direction) == opponent.getYPosition() * gameLogic.getSizeX() + opponent.getXPosition();
+    }
+
+    /**
+     * Return the index of the current player.
+     *
+     * @param gameLogic The state.
+     * @return The index of the current player.
+     */
+    private static int currentIndex(GameLogic gameLogic) {
+        return gameLogic.getGameObjects().indexOf(gameLogic.getCurrentPlayer());
+    }
+
+    /**
+     * Distance on the wrap-around board between a player and the nearest coin.
+     *
+     * @param gameLogic The state.
+     * @param player    The player.
+     * @return The distance, 0 if there are no coins.
+     */
+    private static int nearestCoin(GameLogic gameLogic, Player player) {
+        int best = 0;
+        for (GameObject gameObject : gameLogic.getGameObjects()) {
+            if (gameObject instanceof Coin) {
+                int dx = Math.abs(gameObject.getXPosition() - player.getXPosition());
+                int dy = Math.abs(gameObject.getYPosition() - player.getYPosition());
+                int distance = Math.min(dx, gameLogic.getSizeX() - dx) + Math.min(dy, gameLogic.getSizeY() - dy);
+                if (best == 0 || distance < best) {
+                    best = distance;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Static evaluation of a state.
+     *
+     * @param gameLogic The state.
+     * @param root      Index of the player who started the search.
+     * @return The value of the state for the root player.
+     */
+    private static double evaluate(GameLogic gameLogic, int root) {
+        Player me = (Player) gameLogic.getGameObjects().get(root);
+        Player opponent = (Player) gameLogic.getGameObjects().get(1 - root);
+        double value = COIN * (me.getCoins() - opponent.getCoins());
+        if (gameLogic.isGameOver()) {
+            return value + (gameLogic.getWinner() == me ? WIN : -WIN);
+        }
+        value += POTION * (me.getPotions() - opponent.getPotions());
+        value += GEM * (me.getGems() - opponent.getGems());
+        value -= DISTANCE * (nearestCoin(gameLogic, me) - nearestCoin(gameLogic, opponent));
+        return value;
+    }
+
+    /**
+     * Compute the value of a step of the current player. A step that starts a fight is a chance node,
+     * its value is the mean of some resolutions of the fight.
+     * A step only changes the players and the object of the cell it goes to, so the hash of the child is the hash
+     * of the state with the keys of those parts xored before and after the step.
+     *
+     * @param gameLogic The state (not modified).
+     * @param hash      Zobrist hash of the state.
+     * @param direction Direction of the step.
+     * @param stepsLeft Steps left to the current player after this step.
+     * @param turnsLeft Turns left after the current one.
+     * @param root      Index of the player who started the search.
+     * @return The value of the step for the root player, NaN if the step is not allowed.
+     */
+    private double stepValue(GameLogic gameLogic, long hash, Direction direction, int stepsLeft, int turnsLeft,
+            int root) {
+        ZobristHash keys = zobrist;
+        int cell = targetCell(gameLogic, direction);
+        int x = cell % gameLogic.getSizeX();
+        int y = cell / gameLogic.getSizeX();
+        long before = keys.players(gameLogic) ^ keys.cell(gameLogic, x, y);
+        int samples = startsFight(gameLogic, direction) ? FIGHT_SAMPLES : 1;
+        double value = 0;
+        for (int i = 0; i < samples; i++) {
+            GameLogic child = gameLogic.copy();
+            if (!applyStep(child, direction)) {
+                return Double.NaN;
+            }
+            long childHash = hash ^ before ^ keys.players(child) ^ keys.cell(child, x, y);
+            value += value(child, childHash, stepsLeft, turnsLeft, root) / samples;
+        }
+        return value;
+    }
+
+    /**
+     * Compute the value of a state.
+     *
+     * @param gameLogic The state (not modified).
+     * @param hash      Zobrist hash of the state.
+     * @param stepsLeft Steps left to the current player.
+     * @param turnsLeft Turns left after the current one.
+     * @param root      Index of the player who started the search.
+     * @return The value of the state for the root player.
+     */
+    private double value(GameLogic gameLogic, long hash, int stepsLeft, int turnsLeft, int root) {
+        if (gameLogic.isGameOver()) {
+            return evaluate(gameLogic, root);
+        }
+        int sides = gameLogic.getRules().getDiceSides();
+        long key = hash ^ stepKeys[stepsLeft] ^ turnKeys[turnsLeft];
+        int depth = turnsLeft * (sides + 1) + stepsLeft;
+        double value = table.probe(key, depth);
+        if (!Double.isNaN(value)) {
+            return value;
+        }
+
+        if (stepsLeft == 0) {
+            if (turnsLeft == 0) {
+                value = evaluate(gameLogic, root);
+            } else {
+                GameLogic next = gameLogic.copy();
+                next.nextTurn();
+                // The monsters may all have moved, the hash is computed again once for all the rolls
+                long nextHash = zobrist.hash(next);
+                value = 0;
+                for (int roll = 1; roll <= sides; roll++) {
+                    value += value(next, nextHash, Math.min(roll, MAX_DEPTH - 1), turnsLeft - 1, root) / sides;
+                }
+            }
+        } else {
+            boolean maximize = currentIndex(gameLogic) == root;
+            boolean moved = false;
+            value = maximize ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+            for (Direction direction : Direction.values()) {
+                double childValue = stepValue(gameLogic, hash, direction, stepsLeft - 1, turnsLeft, root);
+                if (Double.isNaN(childValue)) {
+                    continue;
+                }
+                moved = true;
+                value = maximize ? Math.max(value, childValue) : Math.min(value, childValue);
+            }
+            if (!moved) {
+                value = value(gameLogic, hash, 0, turnsLeft, root);
+            }
+        }
+        table.store(key, depth, value);
+        return value;
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Search the best next step for the current player.
+     *
+     * @param state     The state of the game (not modified).
+     * @param stepsLeft Steps left to the current player in this turn (at least 1).
+     * @return The best step.
+     */
+    public SearchResult search(GameLogic state, int stepsLeft) {
+        ZobristHash keys = zobrist;
+        if (keys == null || !keys.fits(state.getSizeX(), state.getSizeY())) {
+            zobrist = new ZobristHash(state.getSizeX(), state.getSizeY(), random.nextLong());
+            table.clear();
+        }
+        table.newSearch();
+        int root = currentIndex(state);
+        int steps = Math.max(1, Math.min(stepsLeft, MAX_DEPTH - 1));
+
+        List<Callable<Double>> tasks = new ArrayList<>();
+        long hash = zobrist.hash(state);
+        for (Direction direction : Direction.values()) {
+            GameLogic base = state.copy(random.split());
+            base.setFightResolver(new FightResolver(FightResolver.Mode.CLOSED_FORM, random.split()));
+            for (int i = 0; i < GameLogic.NUMBER_OF_PLAYERS; i++) {
+                base.setController(i, FIGHT_POLICY);
+            }
+            tasks.add(() -> stepValue(base, hash, direction, steps - 1, turns, root));
+        }
+
+        Direction best = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        try {
+            List<Future<Double>> results = pool.invokeAll(tasks);
+            for (int i = 0; i < results.size(); i++) {
+                double value = results.get(i).get();
+                if (!Double.isNaN(value) && (best == null || value > bestValue)) {
+                    best = Direction.values()[i];
+                    bestValue = value;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search failed", e.getCause());
+        }
+        return new SearchResult(best, best == null ? evaluate(state, root) : bestValue);
+    }
+
+    /**
+     * Stop the threads of the search.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
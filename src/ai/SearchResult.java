@@ -0,0 +1,67 @@
+package ai;
+
+import general.Direction;
+
+/**
+ * Best move found by a search.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class SearchResult {
+
+    //==================== Attributes ===================
+
+    /**
+     * Best direction, null if the player can't move.
+     */
+    private final Direction direction;
+
+    /**
+     * Expected value of the best direction for the player.
+     */
+    private final double value;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor.
+     *
+     * @param direction Best direction.
+     * @param value     Expected value of the direction.
+     */
+    SearchResult(Direction direction, double value) {
+        this.direction = direction;
+        this.value = value;
+    }
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Get the best direction.
+     *
+     * @return The best direction, null if the player can't move.
+     */
+    public Direction getDirection() {
+        return direction;
+    }
+
+    /**
+     * Get the expected value of the best direction.
+     *
+     * @return The expected value.
+     */
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * Return a string representation of the result.
+     *
+     * @return A string representation of the result.
+     */
+    @Override
+    public String toString() {
+        return direction + " (" + value + ")";
+    }
+}
@@ -0,0 +1,119 @@
+package ai;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded transposition table shared by the search threads.
+ * Every slot stores the key xored with the data, so a slot torn by two concurrent writes is seen as a miss
+ * instead of a wrong value, without any lock. When two states fall in the same slot the deeper
+ * (more expensive) result is kept, unless the stored one belongs to an older search.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class TranspositionTable {
+
+    //==================== Attributes ===================
+
+    /**
+     * Value returned by {@link #probe(long, int)} on a miss.
+     */
+    public static final double MISS = Double.NaN;
+
+    /**
+     * Keys xored with the data, two longs per slot.
+     */
+    private final AtomicLongArray slots;
+
+    /**
+     * Mask used to turn a hash into a slot index.
+     */
+    private final int mask;
+
+    /**
+     * Generation of the current search, used to evict the results of older searches.
+     */
+    private volatile int generation;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor.
+     *
+     * @param capacity Maximum number of entries, rounded up to a power of two.
+     */
+    public TranspositionTable(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        slots = new AtomicLongArray(size * 2);
+        mask = size - 1;
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Pack the data of an entry.
+     *
+     * @param value      The value.
+     * @param depth      The depth of the search that produced the value.
+     * @param generation The generation of the search.
+     * @return The packed data.
+     */
+    private static long pack(double value, int depth, int generation) {
+        return ((long) Float.floatToIntBits((float) value) << 32) | ((depth & 0xFFFFL) << 16) | (generation & 0xFFFFL);
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Start a new search: the entries stored until now can be replaced by any new entry.
+     */
+    public void newSearch() {
+        generation++;
+    }
+
+    /**
+     * Look for the value of a state.
+     *
+     * @param key   Hash of the state.
+     * @param depth Depth of the search required.
+     * @return The value, or {@link #MISS} if it is not stored for exactly this depth.
+     */
+    public double probe(long key, int depth) {
+        int index = ((int) key & mask) << 1;
+        long data = slots.get(index + 1);
+        if ((slots.get(index) ^ data) != key || ((data >>> 16) & 0xFFFF) != depth) {
+            return MISS;
+        }
+        return Float.intBitsToFloat((int) (data >>> 32));
+    }
+
+    /**
+     * Store the value of a state.
+     *
+     * @param key   Hash of the state.
+     * @param depth Depth of the search that produced the value.
+     * @param value The value.
+     */
+    public void store(long key, int depth, double value) {
+        int index = ((int) key & mask) << 1;
+        long old = slots.get(index + 1);
+        int oldDepth = (int) ((old >>> 16) & 0xFFFF);
+        int oldGeneration = (int) (old & 0xFFFF);
+        int current = generation & 0xFFFF;
+        if (old != 0 && oldGeneration == current && oldDepth > depth) {
+            return;
+        }
+        long data = pack(value, depth, current);
+        slots.set(index, key ^ data);
+        slots.set(index + 1, data);
+    }
+
+    /**
+     * Remove all the entries.
+     */
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, 0);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package ai;
+
+import gameEngine.GameLogic;
+import gameObjects.*;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist hashing of the state of a game: every (cell, object) pair and every player statistic has a random key,
+ * the hash of a state is the xor of the keys of what it contains.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class ZobristHash {
+
+    //==================== Attributes ===================
+
+    /**
+     * Number of distinct values hashed for a statistic of a player (bigger values share the last key).
+     */
+    private static final int STAT_VALUES = 64;
+
+    /**
+     * Number of object kinds hashed for a cell: one per ObjectName, plus one per player and per tree health.
+     */
+    private static final int KINDS = ObjectName.values().length + GameLogic.NUMBER_OF_PLAYERS + STAT_VALUES;
+
+    /**
+     * Board width.
+     */
+    private final int sizeX;
+
+    /**
+     * Board height.
+     */
+    private final int sizeY;
+
+    /**
+     * Keys of the objects, indexed by cell * KINDS + kind.
+     */
+    private final long[] cellKeys;
+
+    /**
+     * Keys of the statistics of the players, indexed by (player * 3 + statistic) * STAT_VALUES + value.
+     */
+    private final long[] statKeys;
+
+    /**
+     * Keys of the current player.
+     */
+    private final long[] turnKeys;
+
+    /**
+     * Key xored when the game is over.
+     */
+    private final long gameOverKey;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor.
+     *
+     * @param sizeX Board width.
+     * @param sizeY Board height.
+     * @param seed  Seed of the keys.
+     */
+    public ZobristHash(int sizeX, int sizeY, long seed) {
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        SplittableRandom random = new SplittableRandom(seed);
+        cellKeys = new long[sizeX * sizeY * KINDS];
+        for (int i = 0; i < cellKeys.length; i++) {
+            cellKeys[i] = random.nextLong();
+        }
+        statKeys = new long[GameLogic.NUMBER_OF_PLAYERS * 3 * STAT_VALUES];
+        for (int i = 0; i < statKeys.length; i++) {
+            statKeys[i] = random.nextLong();
+        }
+        turnKeys = new long[GameLogic.NUMBER_OF_PLAYERS];
+        for (int i = 0; i < turnKeys.length; i++) {
+            turnKeys[i] = random.nextLong();
+        }
+        gameOverKey = random.nextLong();
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Return the key of a statistic of a player.
+     *
+     * @param player    Index of the player.
+     * @param statistic Index of the statistic (coins, gems, potions).
+     * @param value     Value of the statistic.
+     * @return The key.
+     */
+    private long statKey(int player, int statistic, int value) {
+        return statKeys[(player * 3 + statistic) * STAT_VALUES + Math.min(value, STAT_VALUES - 1)];
+    }
+
+    /**
+     * Return the key of an object that is not a player.
+     *
+     * @param gameObject The object.
+     * @return The key of the object in its cell.
+     */
+    private long itemKey(GameObject gameObject) {
+        int cell = gameObject.getYPosition() * sizeX + gameObject.getXPosition();
+        int kind = gameObject.getType().ordinal();
+        if (gameObject instanceof Tree) {
+            kind = ObjectName.values().length + GameLogic.NUMBER_OF_PLAYERS
+                    + Math.min(((Tree) gameObject).getHealth(), STAT_VALUES - 1);
+        }
+        return cellKeys[cell * KINDS + kind];
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Compute the hash of a state from scratch.
+     *
+     * @param gameLogic The state to hash.
+     * @return The hash.
+     */
+    public long hash(GameLogic gameLogic) {
+        long hash = players(gameLogic);
+        for (int i = GameLogic.NUMBER_OF_PLAYERS; i < gameLogic.getGameObjects().size(); i++) {
+            hash ^= itemKey(gameLogic.getGameObjects().get(i));
+        }
+        return hash;
+    }
+
+    /**
+     * Compute the part of the hash given by the players (cells, statistics and turn) and by the end of the game.
+     * With {@link #cell(GameLogic, int, int)} it is all a step of a player can change, so the hash can be updated
+     * by xoring these parts before and after the step.
+     *
+     * @param gameLogic The state.
+     * @return The keys of the players and of the end of the game.
+     */
+    public long players(GameLogic gameLogic) {
+        long hash = gameLogic.isGameOver() ? gameOverKey : 0;
+        for (int i = 0; i < GameLogic.NUMBER_OF_PLAYERS; i++) {
+            Player player = (Player) gameLogic.getGameObjects().get(i);
+            int cell = player.getYPosition() * sizeX + player.getXPosition();
+            hash ^= cellKeys[cell * KINDS + ObjectName.values().length + i];
+            hash ^= statKey(i, 0, player.getCoins());
+            hash ^= statKey(i, 1, player.getGems());
+            hash ^= statKey(i, 2, player.getPotions());
+            if (player == gameLogic.getCurrentPlayer()) {
+                hash ^= turnKeys[i];
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Return the key of the object (not a player) in a cell.
+     *
+     * @param gameLogic The state.
+     * @param x         Column of the cell.
+     * @param y         Row of the cell.
+     * @return The key, 0 if the cell has no object.
+     */
+    public long cell(GameLogic gameLogic, int x, int y) {
+        GameObject gameObject = gameLogic.getSpatialIndex().getItemAt(x, y);
+        return gameObject == null ? 0 : itemKey(gameObject);
+    }
+
+    /**
+     * Check if the keys can hash a board of the given size.
+     *
+     * @param sizeX Board width.
+     * @param sizeY Board height.
+     * @return true if the size matches.
+     */
+    public boolean fits(int sizeX, int sizeY) {
+        return this.sizeX == sizeX && this.sizeY == sizeY;
+    }
+}
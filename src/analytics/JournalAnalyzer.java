@@ -0,0 +1,211 @@
+package analytics;
+
+import gameEngine.JournalReader;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Computes the {@link MatchStatistics} of many match journals. The files are read in parallel by a fixed number
+ * of threads, each one taking the next file from a shared iterator and reading it as a stream into its own
+ * statistics; the memory used doesn't depend on the number of files. The statistics are merged at the end.
+ * <p>
+ * Usage: {@code java analytics.JournalAnalyzer [--json] [--threads n] <journal files or directories>...},
+ * the report is written to the standard output as CSV, or as JSON with {@code --json}.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class JournalAnalyzer {
+
+    //==================== Attributes ===================
+
+    /**
+     * Extension of the journal files searched in the directories.
+     */
+    public static final String JOURNAL_EXTENSION = ".journal";
+
+    /**
+     * Number of threads.
+     */
+    private final int threads;
+
+    /**
+     * Number of files that couldn't be read.
+     */
+    private final AtomicLong failedFiles = new AtomicLong();
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor.
+     *
+     * @param threads Number of threads.
+     */
+    public JournalAnalyzer(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid number of threads: " + threads);
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Constructor with a thread for every processor.
+     */
+    public JournalAnalyzer() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Get the number of files that couldn't be read by the last analysis.
+     *
+     * @return The number of files.
+     */
+    public long getFailedFiles() {
+        return failedFiles.get();
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Take the next file from the shared iterator.
+     *
+     * @param files The files.
+     * @return The next file, null when there are no more.
+     */
+    private static Path nextFile(Iterator<Path> files) {
+        synchronized (files) {
+            return files.hasNext() ? files.next() : null;
+        }
+    }
+
+    /**
+     * Loop of a thread: read files until there are no more. A file that can't be read or whose content is not
+     * valid is counted as failed and adds nothing to the statistics.
+     *
+     * @param files      The files.
+     * @param statistics The statistics of the thread.
+     */
+    private void work(Iterator<Path> files, MatchStatistics statistics) {
+        Path file;
+        while ((file = nextFile(files)) != null) {
+            try (InputStream in = Files.newInputStream(file)) {
+                new JournalReader(in).readAll(statistics.newMatch());
+            } catch (IOException | RuntimeException e) {
+                failedFiles.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Return the journal files of a path, searching the directories.
+     *
+     * @param path A file or a directory.
+     * @return The files, read lazily.
+     */
+    private static Stream<Path> journalsOf(Path path) {
+        if (!Files.isDirectory(path)) {
+            return Stream.of(path);
+        }
+        try {
+            return Files.walk(path)
+                    .filter(p -> Files.isRegularFile(p) && p.getFileName().toString().endsWith(JOURNAL_EXTENSION));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Compute the statistics of the journals.
+     *
+     * @param files The journal files, taken one at a time (the iterator may be lazy).
+     * @return The statistics of all the journals that could be read.
+     * @throws InterruptedException  If the calling thread is interrupted while waiting for the threads.
+     * @throws IllegalStateException If a thread died, so some journals were not read.
+     */
+    public MatchStatistics analyze(Iterator<Path> files) throws InterruptedException {
+        failedFiles.set(0);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> workers = new ArrayList<>(threads);
+        List<MatchStatistics> partials = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            MatchStatistics partial = new MatchStatistics();
+            partials.add(partial);
+            Thread worker = new Thread(() -> work(files, partial), "journal-analyzer-" + i);
+            worker.setUncaughtExceptionHandler((thread, e) -> failure.compareAndSet(null, e));
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (failure.get() != null) {
+            throw new IllegalStateException("The analysis of the journals failed", failure.get());
+        }
+        MatchStatistics total = new MatchStatistics();
+        for (MatchStatistics partial : partials) {
+            total.merge(partial);
+        }
+        return total;
+    }
+
+    /**
+     * Analyze the journals given on the command line and write the report to the standard output.
+     *
+     * @param args Options and paths of journal files or directories.
+     * @throws IOException          If the report can't be written.
+     * @throws InterruptedException If the analysis is interrupted.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        boolean json = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<Path> paths = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("--json".equals(args[i])) {
+                json = true;
+            } else if ("--threads".equals(args[i]) && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else {
+                paths.add(Paths.get(args[i]));
+            }
+        }
+        if (paths.isEmpty()) {
+            System.err.println("Usage: JournalAnalyzer [--json] [--threads n] <journal files or directories>...");
+            return;
+        }
+        JournalAnalyzer analyzer = new JournalAnalyzer(threads);
+        MatchStatistics statistics;
+        try (Stream<Path> files = paths.stream().flatMap(JournalAnalyzer::journalsOf)) {
+            statistics = analyzer.analyze(files.iterator());
+        }
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        if (json) {
+            out.write(statistics.toJson());
+            out.write('\n');
+        } else {
+            statistics.writeCsv(out);
+        }
+        out.flush();
+        if (analyzer.getFailedFiles() > 0) {
+            System.err.println(analyzer.getFailedFiles() + " journals couldn't be read");
+        }
+    }
+}
@@ -0,0 +1,504 @@
+package analytics;
+
+import gameEngine.BoardSnapshot;
+import gameEngine.JournalReader;
+import gameEngine.MatchJournal;
+import gameObjects.ObjectName;
+
+import java.io.IOException;
+
+/**
+ * Aggregated statistics of many matches, computed incrementally while the journals are read: length of the matches,
+ * fights won by the potion holder, turns until the coins of the board run out, pickups per turn and positions
+ * of the players. Every thread of the analyzer fills its own statistics, merged at the end.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class MatchStatistics {
+
+    //==================== Attributes ===================
+
+    /**
+     * Turns of a bin of the histogram of the match lengths.
+     */
+    public static final int TURN_BIN = 10;
+
+    /**
+     * Number of bins of the histogram of the match lengths, the last one counts the longer matches.
+     */
+    public static final int TURN_BINS = 100;
+
+    /**
+     * Turns of a bin of the pickup timeline.
+     */
+    public static final int TIMELINE_BIN = 10;
+
+    /**
+     * Number of bins of the pickup timeline, the last one counts the later pickups.
+     */
+    public static final int TIMELINE_BINS = 50;
+
+    /**
+     * Number of read matches.
+     */
+    private long matches;
+
+    /**
+     * Number of matches ended with a winner.
+     */
+    private long finishedMatches;
+
+    /**
+     * Sum of the turns of the finished matches.
+     */
+    private long finishedTurns;
+
+    /**
+     * Number of matches by length (finished or stopped).
+     */
+    private final long[] turnHistogram = new long[TURN_BINS];
+
+    /**
+     * Number of fights.
+     */
+    private long fights;
+
+    /**
+     * Number of fights against a monster.
+     */
+    private long monsterFights;
+
+    /**
+     * Number of fights ended by a gem.
+     */
+    private long escapes;
+
+    /**
+     * Number of fights won with a potion.
+     */
+    private long potionWins;
+
+    /**
+     * Number of fights (not escaped) where only one side held a potion.
+     */
+    private long holderFights;
+
+    /**
+     * Number of those fights won by the potion holder.
+     */
+    private long holderWins;
+
+    /**
+     * Number of matches where all the coins of the board were picked up.
+     */
+    private long coinsRunOut;
+
+    /**
+     * Sum of the turns at which the coins ran out.
+     */
+    private long coinsRunOutTurns;
+
+    /**
+     * Pickups by type of item and bin of turns.
+     */
+    private final long[][] pickupTimeline = new long[ObjectName.values().length][TIMELINE_BINS];
+
+    /**
+     * Board width of the heatmap, 0 before the first match.
+     */
+    private int heatmapX;
+
+    /**
+     * Board height of the heatmap.
+     */
+    private int heatmapY;
+
+    /**
+     * Number of times a player entered every cell, for the matches on a board of the heatmap size.
+     */
+    private long[] heatmap;
+
+    /**
+     * Number of matches (or heatmaps of other threads) left out of the heatmap because of a different board size.
+     */
+    private long heatmapSkipped;
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Get the number of read matches.
+     *
+     * @return The number of matches.
+     */
+    public long getMatches() {
+        return matches;
+    }
+
+    /**
+     * Get the number of matches ended with a winner.
+     *
+     * @return The number of finished matches.
+     */
+    public long getFinishedMatches() {
+        return finishedMatches;
+    }
+
+    /**
+     * Get the average number of turns of the finished matches.
+     *
+     * @return The average, NaN if no match finished.
+     */
+    public double getAverageTurns() {
+        return finishedMatches == 0 ? Double.NaN : (double) finishedTurns / finishedMatches;
+    }
+
+    /**
+     * Get the number of fights.
+     *
+     * @return The number of fights.
+     */
+    public long getFights() {
+        return fights;
+    }
+
+    /**
+     * Get how often the only side holding a potion wins the fight.
+     *
+     * @return The rate, NaN if there were no such fights.
+     */
+    public double getPotionHolderWinRate() {
+        return holderFights == 0 ? Double.NaN : (double) holderWins / holderFights;
+    }
+
+    /**
+     * Get the average turn at which the coins of the board ran out, over the matches where they did.
+     *
+     * @return The average, NaN if the coins never ran out.
+     */
+    public double getAverageTurnsUntilCoinsRunOut() {
+        return coinsRunOut == 0 ? Double.NaN : (double) coinsRunOutTurns / coinsRunOut;
+    }
+
+    /**
+     * Get the number of times the players entered a cell.
+     *
+     * @param x Column of the cell.
+     * @param y Row of the cell.
+     * @return The count, 0 outside the heatmap.
+     */
+    public long getHeat(int x, int y) {
+        if (heatmap == null || x < 0 || y < 0 || x >= heatmapX || y >= heatmapY) {
+            return 0;
+        }
+        return heatmap[y * heatmapX + x];
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Return the bin of a value.
+     *
+     * @param value The value.
+     * @param width Width of a bin.
+     * @param bins  Number of bins.
+     * @return The index of the bin.
+     */
+    private static int bin(int value, int width, int bins) {
+        return Math.min(value / width, bins - 1);
+    }
+
+    /**
+     * Append a row of the CSV report.
+     *
+     * @param out     The destination.
+     * @param section Section of the row.
+     * @param key     Key of the row.
+     * @param value   The value.
+     * @throws IOException If the destination can't be written.
+     */
+    private static void row(Appendable out, String section, String key, Object value) throws IOException {
+        out.append(section).append(',').append(key).append(',').append(String.valueOf(value)).append('\n');
+    }
+
+    /**
+     * Append a number as JSON (null if it is not finite).
+     *
+     * @param sb    The builder.
+     * @param value The number.
+     */
+    private static void appendNumber(StringBuilder sb, double value) {
+        sb.append(Double.isNaN(value) || Double.isInfinite(value) ? "null" : String.valueOf(value));
+    }
+
+    /**
+     * Append an array as JSON.
+     *
+     * @param sb     The builder.
+     * @param values The values.
+     */
+    private static void appendArray(StringBuilder sb, long[] values) {
+        sb.append('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(values[i]);
+        }
+        sb.append(']');
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Create the handler that adds a journal to the statistics. The statistics of the match are collected apart
+     * and added when its end is read, so a journal that can't be read to the end adds nothing.
+     *
+     * @return The handler, to be used for one journal.
+     */
+    public JournalReader.Handler newMatch() {
+        return new MatchScan();
+    }
+
+    /**
+     * Add the statistics of another thread.
+     *
+     * @param other The statistics to add.
+     */
+    public void merge(MatchStatistics other) {
+        matches += other.matches;
+        finishedMatches += other.finishedMatches;
+        finishedTurns += other.finishedTurns;
+        for (int i = 0; i < TURN_BINS; i++) {
+            turnHistogram[i] += other.turnHistogram[i];
+        }
+        fights += other.fights;
+        monsterFights += other.monsterFights;
+        escapes += other.escapes;
+        potionWins += other.potionWins;
+        holderFights += other.holderFights;
+        holderWins += other.holderWins;
+        coinsRunOut += other.coinsRunOut;
+        coinsRunOutTurns += other.coinsRunOutTurns;
+        for (int t = 0; t < pickupTimeline.length; t++) {
+            for (int i = 0; i < TIMELINE_BINS; i++) {
+                pickupTimeline[t][i] += other.pickupTimeline[t][i];
+            }
+        }
+        heatmapSkipped += other.heatmapSkipped;
+        if (other.heatmap == null) {
+            return;
+        }
+        if (heatmap == null) {
+            heatmapX = other.heatmapX;
+            heatmapY = other.heatmapY;
+            heatmap = other.heatmap.clone();
+        } else if (heatmapX == other.heatmapX && heatmapY == other.heatmapY) {
+            for (int i = 0; i < heatmap.length; i++) {
+                heatmap[i] += other.heatmap[i];
+            }
+        } else {
+            heatmapSkipped++;
+        }
+    }
+
+    /**
+     * Write the statistics as CSV rows: section, key, value. The heatmap has a row for every board row, with
+     * the counts separated by spaces.
+     *
+     * @param out The destination.
+     * @throws IOException If the destination can't be written.
+     */
+    public void writeCsv(Appendable out) throws IOException {
+        out.append("section,key,value\n");
+        row(out, "summary", "matches", matches);
+        row(out, "summary", "finished", finishedMatches);
+        row(out, "summary", "averageTurns", getAverageTurns());
+        row(out, "summary", "fights", fights);
+        row(out, "summary", "monsterFights", monsterFights);
+        row(out, "summary", "escapes", escapes);
+        row(out, "summary", "potionWins", potionWins);
+        row(out, "summary", "potionHolderFights", holderFights);
+        row(out, "summary", "potionHolderWinRate", getPotionHolderWinRate());
+        row(out, "summary", "coinsRunOut", coinsRunOut);
+        row(out, "summary", "averageTurnsUntilCoinsRunOut", getAverageTurnsUntilCoinsRunOut());
+        for (int i = 0; i < TURN_BINS; i++) {
+            row(out, "turns", (i * TURN_BIN) + "-" + ((i + 1) * TURN_BIN - 1), turnHistogram[i]);
+        }
+        for (ObjectName name : ObjectName.values()) {
+            for (int i = 0; i < TIMELINE_BINS; i++) {
+                if (pickupTimeline[name.ordinal()][i] > 0) {
+                    row(out, "pickups" + name, (i * TIMELINE_BIN) + "-" + ((i + 1) * TIMELINE_BIN - 1),
+                            pickupTimeline[name.ordinal()][i]);
+                }
+            }
+        }
+        if (heatmap != null) {
+            for (int y = 0; y < heatmapY; y++) {
+                StringBuilder sb = new StringBuilder(heatmapX * 4);
+                for (int x = 0; x < heatmapX; x++) {
+                    if (x > 0) {
+                        sb.append(' ');
+                    }
+                    sb.append(heatmap[y * heatmapX + x]);
+                }
+                row(out, "heatmap", String.valueOf(y), sb);
+            }
+        }
+    }
+
+    /**
+     * Return the statistics as a JSON object.
+     *
+     * @return The JSON text.
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder(1024 + (heatmap == null ? 0 : heatmap.length * 4));
+        sb.append("{\"matches\":").append(matches)
+                .append(",\"finished\":").append(finishedMatches)
+                .append(",\"averageTurns\":");
+        appendNumber(sb, getAverageTurns());
+        sb.append(",\"fights\":").append(fights)
+                .append(",\"monsterFights\":").append(monsterFights)
+                .append(",\"escapes\":").append(escapes)
+                .append(",\"potionWins\":").append(potionWins)
+                .append(",\"potionHolderFights\":").append(holderFights)
+                .append(",\"potionHolderWinRate\":");
+        appendNumber(sb, getPotionHolderWinRate());
+        sb.append(",\"coinsRunOut\":").append(coinsRunOut).append(",\"averageTurnsUntilCoinsRunOut\":");
+        appendNumber(sb, getAverageTurnsUntilCoinsRunOut());
+        sb.append(",\"turnBin\":").append(TURN_BIN).append(",\"turns\":");
+        appendArray(sb, turnHistogram);
+        sb.append(",\"timelineBin\":").append(TIMELINE_BIN).append(",\"pickups\":{");
+        boolean first = true;
+        for (ObjectName name : ObjectName.values()) {
+            if (name == ObjectName.Player || name == ObjectName.Monster) {
+                continue;
+            }
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            sb.append('"').append(name).append("\":");
+            appendArray(sb, pickupTimeline[name.ordinal()]);
+        }
+        sb.append('}');
+        if (heatmap != null) {
+            sb.append(",\"heatmap\":{\"sizeX\":").append(heatmapX).append(",\"sizeY\":").append(heatmapY)
+                    .append(",\"skipped\":").append(heatmapSkipped).append(",\"cells\":");
+            appendArray(sb, heatmap);
+            sb.append('}');
+        }
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Reads one journal into the statistics.
+     */
+    private final class MatchScan implements JournalReader.Handler {
+
+        /**
+         * Statistics of this match alone, added to the total when its end is read.
+         */
+        private final MatchStatistics match = new MatchStatistics();
+
+        /**
+         * State of the board before the current step.
+         */
+        private BoardSnapshot board;
+
+        /**
+         * Current turn.
+         */
+        private int turn;
+
+        /**
+         * Coins left on the board.
+         */
+        private int coins = -1;
+
+        /**
+         * Turn at which the coins ran out, -1 if they didn't.
+         */
+        private int coinsOutTurn = -1;
+
+        @Override
+        public void onFrame(BoardSnapshot snapshot) {
+            if (board == null) {
+                coins = 0;
+                for (int i = 0; i < snapshot.getCellCount(); i++) {
+                    if (BoardSnapshot.typeOf(snapshot.getCell(i)) == ObjectName.Coin) {
+                        coins++;
+                    }
+                }
+                match.heatmapX = snapshot.getSizeX();
+                match.heatmapY = snapshot.getSizeY();
+                match.heatmap = new long[match.heatmapX * match.heatmapY];
+            }
+            if (match.heatmapX == snapshot.getSizeX() && match.heatmapY == snapshot.getSizeY()) {
+                for (int p = 0; p < snapshot.getPlayerCount(); p++) {
+                    int x = snapshot.getPlayerField(p, 0);
+                    int y = snapshot.getPlayerField(p, 1);
+                    if (board == null || board.getPlayerField(p, 0) != x || board.getPlayerField(p, 1) != y) {
+                        match.heatmap[y * match.heatmapX + x]++;
+                    }
+                }
+            }
+            board = snapshot;
+        }
+
+        @Override
+        public void onTurn(int turn, int player) {
+            this.turn = turn;
+        }
+
+        @Override
+        public void onFight(int attacker, int defender, int outcome, boolean potionUsed, int rounds) {
+            match.fights++;
+            if (defender < 0) {
+                match.monsterFights++;
+            }
+            if (outcome == MatchJournal.ESCAPED) {
+                match.escapes++;
+                return;
+            }
+            if (potionUsed) {
+                match.potionWins++;
+            }
+            if (board == null) {
+                return;
+            }
+            boolean attackerHolds = board.getPlayerField(attacker, 4) > 0;
+            boolean defenderHolds = defender >= 0 && board.getPlayerField(defender, 4) > 0;
+            if (attackerHolds != defenderHolds) {
+                match.holderFights++;
+                if (attackerHolds == (outcome == MatchJournal.ATTACKER_WON)) {
+                    match.holderWins++;
+                }
+            }
+        }
+
+        @Override
+        public void onPickUp(int player, ObjectName item, int x, int y) {
+            match.pickupTimeline[item.ordinal()][bin(turn, TIMELINE_BIN, TIMELINE_BINS)]++;
+            if (item == ObjectName.Coin && --coins == 0 && coinsOutTurn < 0) {
+                coinsOutTurn = turn;
+            }
+        }
+
+        @Override
+        public void onEnd(int turns, int winner) {
+            match.matches++;
+            match.turnHistogram[bin(turns, TURN_BIN, TURN_BINS)]++;
+            if (winner >= 0) {
+                match.finishedMatches++;
+                match.finishedTurns += turns;
+            }
+            if (coinsOutTurn >= 0) {
+                match.coinsRunOut++;
+                match.coinsRunOutTurns += coinsOutTurn;
+            }
+            merge(match);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package analytics;
+
+import gameEngine.GameRules;
+import gameEngine.HeadlessMatch;
+import gameEngine.HeatmapCollector;
+import gameEngine.JournalReader;
+import gameEngine.MatchJournal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Plays many headless matches on a number of threads and computes their {@link MatchStatistics}, with a result
+ * that doesn't depend on the number of threads or on their scheduling:
+ * <ul>
+ * <li>the seed of every match depends only on the global seed and on the index of the match
+ * ({@link #matchSeed(long, long)}), so a match is the same whichever thread plays it;</li>
+ * <li>the matches are split in blocks of consecutive indices, the statistics of a block are filled in the order
+ * of its matches and the blocks are merged in their order at the end.</li>
+ * </ul>
+ * A run with 64 threads gives the same statistics, bit for bit, as a run with one thread.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class ParallelSimulation {
+
+    //==================== Attributes ===================
+
+    /**
+     * Default number of matches of a block.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 16;
+
+    /**
+     * Increment of the SplitMix64 generator (the one of {@link java.util.SplittableRandom}).
+     */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Rules of the matches.
+     */
+    private final GameRules rules;
+
+    /**
+     * Global seed of the run.
+     */
+    private final long seed;
+
+    /**
+     * Maximum number of turns of a match.
+     */
+    private final int maxTurns;
+
+    /**
+     * Number of matches of a block.
+     */
+    private int blockSize = DEFAULT_BLOCK_SIZE;
+
+    /**
+     * Directory where the journals are kept, null to discard them.
+     */
+    private Path journals;
+
+    /**
+     * Collector of the counts of every cell, null for none.
+     */
+    private HeatmapCollector heatmap;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor.
+     *
+     * @param rules    Rules of the matches.
+     * @param seed     Global seed of the run.
+     * @param maxTurns Maximum number of turns of a match.
+     */
+    public ParallelSimulation(GameRules rules, long seed, int maxTurns) {
+        if (maxTurns < 1) {
+            throw new IllegalArgumentException("Invalid number of turns: " + maxTurns);
+        }
+        this.rules = rules;
+        this.seed = seed;
+        this.maxTurns = maxTurns;
+    }
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Get the global seed of the run.
+     *
+     * @return The seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Set the number of matches of a block. It changes only how the work is shared, not the statistics.
+     *
+     * @param blockSize The number of matches.
+     */
+    public void setBlockSize(int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Invalid block size: " + blockSize);
+        }
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Set the directory where the journals are kept, as {@code match-<index>.journal}.
+     *
+     * @param journals The directory, null to discard the journals.
+     */
+    public void setJournals(Path journals) {
+        this.journals = journals;
+    }
+
+    /**
+     * Set the collector that counts the visits, pickups and fights of every cell of the matches.
+     * All the threads share it, each one counting in its own grids.
+     *
+     * @param heatmap The collector, null for none.
+     * @throws IllegalArgumentException If the collector is not for the board of the rules.
+     */
+    public void setHeatmap(HeatmapCollector heatmap) {
+        if (heatmap != null && (heatmap.getSizeX() != rules.getColumns() || heatmap.getSizeY() != rules.getRows())) {
+            throw new IllegalArgumentException("Heatmap of a different board size");
+        }
+        this.heatmap = heatmap;
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Play a match and add it to the statistics of its block.
+     *
+     * @param index      Index of the match.
+     * @param statistics Statistics of the block.
+     * @throws IOException If the journal can't be written.
+     */
+    private void play(int index, MatchStatistics statistics) throws IOException {
+        long matchSeed = matchSeed(seed, index);
+        HeadlessMatch match = new HeadlessMatch(rules, matchSeed, maxTurns);
+        match.getGameLogic().setHeatmapCollector(heatmap);
+        ByteArrayOutputStream journal = new ByteArrayOutputStream(16 * 1024);
+        try (MatchJournal writer = new MatchJournal(journal, matchSeed)) {
+            match.play(writer);
+        }
+        byte[] bytes = journal.toByteArray();
+        new JournalReader(new ByteArrayInputStream(bytes)).readAll(statistics.newMatch());
+        if (journals != null) {
+            try (OutputStream out = Files.newOutputStream(journals.resolve("match-" + index + ".journal"))) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Loop of a thread: play blocks until there are no more.
+     *
+     * @param next    Index of the next block to play.
+     * @param matches Number of matches.
+     * @param blocks  Statistics of the blocks.
+     * @param error   First error of the threads.
+     */
+    private void work(AtomicInteger next, int matches, MatchStatistics[] blocks, AtomicReference<IOException> error) {
+        int block;
+        while (error.get() == null && (block = next.getAndIncrement()) < blocks.length) {
+            MatchStatistics statistics = new MatchStatistics();
+            try {
+                for (int i = block * blockSize; i < Math.min(matches, (block + 1) * blockSize); i++) {
+                    play(i, statistics);
+                }
+            } catch (IOException e) {
+                error.compareAndSet(null, e);
+                return;
+            }
+            blocks[block] = statistics;
+        }
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Return the seed of a match: the value of index {@code index} of a SplitMix64 generator started from the
+     * global seed, i.e. the {@code index + 1}-th {@code nextLong()} of {@code new SplittableRandom(seed)},
+     * computed without playing the values before it.
+     *
+     * @param seed  Global seed of the run.
+     * @param index Index of the match.
+     * @return The seed of the match.
+     */
+    public static long matchSeed(long seed, long index) {
+        long z = seed + (index + 1) * GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Play the matches and compute their statistics.
+     *
+     * @param matches Number of matches.
+     * @param threads Number of threads.
+     * @return The statistics of the matches.
+     * @throws IOException          If a journal can't be written.
+     * @throws InterruptedException If the calling thread is interrupted while waiting for the threads.
+     */
+    public MatchStatistics run(int matches, int threads) throws IOException, InterruptedException {
+        if (matches < 0 || threads < 1) {
+            throw new IllegalArgumentException("Invalid number of matches or threads: " + matches + ", " + threads);
+        }
+        MatchStatistics[] blocks = new MatchStatistics[(matches + blockSize - 1) / blockSize];
+        AtomicInteger next = new AtomicInteger();
+        AtomicReference<IOException> error = new AtomicReference<>();
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int i = 0; i < Math.min(threads, Math.max(1, blocks.length)); i++) {
+            Thread worker = new Thread(() -> work(next, matches, blocks, error), "simulation-" + i);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (error.get() != null) {
+            throw error.get();
+        }
+        MatchStatistics total = new MatchStatistics();
+        for (MatchStatistics block : blocks) {
+            if (block == null) {
+                throw new IllegalStateException("A simulation thread failed");
+            }
+            total.merge(block);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,220 @@
+package gameEngine;
+
+import java.util.Arrays;
+
+/**
+ * Changes between two snapshots of the same game: the cells whose content changed, the players whose position
+ * or items changed, the current player and the end of the game.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public final class BoardDelta {
+
+    //==================== Attributes ===================
+
+    /**
+     * Indexes of the changed cells.
+     */
+    private final int[] cellIndexes;
+
+    /**
+     * New codes of the changed cells.
+     */
+    private final int[] cellCodes;
+
+    /**
+     * Indexes of the changed players.
+     */
+    private final int[] playerIndexes;
+
+    /**
+     * Snapshot after the changes.
+     */
+    private final BoardSnapshot to;
+
+    /**
+     * True if the current player changed.
+     */
+    private final boolean turnChanged;
+
+    /**
+     * True if the end of the game changed.
+     */
+    private final boolean gameOverChanged;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor.
+     *
+     * @param cellIndexes     Indexes of the changed cells.
+     * @param cellCodes       New codes of the changed cells.
+     * @param playerIndexes   Indexes of the changed players.
+     * @param to              Snapshot after the changes.
+     * @param turnChanged     True if the current player changed.
+     * @param gameOverChanged True if the end of the game changed.
+     */
+    private BoardDelta(int[] cellIndexes, int[] cellCodes, int[] playerIndexes, BoardSnapshot to,
+            boolean turnChanged, boolean gameOverChanged) {
+        this.cellIndexes = cellIndexes;
+        this.cellCodes = cellCodes;
+        this.playerIndexes = playerIndexes;
+        this.to = to;
+        this.turnChanged = turnChanged;
+        this.gameOverChanged = gameOverChanged;
+    }
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Get the number of changed cells.
+     *
+     * @return The number of changed cells.
+     */
+    public int getCellCount() {
+        return cellIndexes.length;
+    }
+
+    /**
+     * Get the index of a changed cell.
+     *
+     * @param i Position in the list of changed cells.
+     * @return The index of the cell (y * sizeX + x).
+     */
+    public int getCellIndex(int i) {
+        return cellIndexes[i];
+    }
+
+    /**
+     * Get the new code of a changed cell.
+     *
+     * @param i Position in the list of changed cells.
+     * @return The code of the cell.
+     */
+    public int getCellCode(int i) {
+        return cellCodes[i];
+    }
+
+    /**
+     * Get the number of changed players.
+     *
+     * @return The number of changed players.
+     */
+    public int getPlayerCount() {
+        return playerIndexes.length;
+    }
+
+    /**
+     * Get the index of a changed player.
+     *
+     * @param i Position in the list of changed players.
+     * @return The index of the player.
+     */
+    public int getPlayerIndex(int i) {
+        return playerIndexes[i];
+    }
+
+    /**
+     * Get the snapshot after the changes.
+     *
+     * @return The snapshot.
+     */
+    public BoardSnapshot getTo() {
+        return to;
+    }
+
+    /**
+     * Check if the current player changed.
+     *
+     * @return true if the current player changed.
+     */
+    public boolean isTurnChanged() {
+        return turnChanged;
+    }
+
+    /**
+     * Check if the end of the game changed.
+     *
+     * @return true if the game ended.
+     */
+    public boolean isGameOverChanged() {
+        return gameOverChanged;
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Compute the changes between two snapshots of a game.
+     *
+     * @param from The old snapshot.
+     * @param to   The new snapshot.
+     * @return The changes.
+     */
+    public static BoardDelta between(BoardSnapshot from, BoardSnapshot to) {
+        if (from.getCellCount() != to.getCellCount() || from.getPlayerCount() != to.getPlayerCount()) {
+            throw new IllegalArgumentException("Snapshots of different games");
+        }
+        int[] indexes = new int[8];
+        int[] codes = new int[8];
+        int count = 0;
+        for (int i = 0; i < to.getCellCount(); i++) {
+            if (from.getCell(i) != to.getCell(i)) {
+                if (count == indexes.length) {
+                    indexes = Arrays.copyOf(indexes, count * 2);
+                    codes = Arrays.copyOf(codes, count * 2);
+                }
+                indexes[count] = i;
+                codes[count++] = to.getCell(i);
+            }
+        }
+        int[] players = new int[to.getPlayerCount()];
+        int playerCount = 0;
+        for (int p = 0; p < to.getPlayerCount(); p++) {
+            for (int f = 0; f < BoardSnapshot.PLAYER_FIELDS; f++) {
+                if (from.getPlayerField(p, f) != to.getPlayerField(p, f)) {
+                    players[playerCount++] = p;
+                    break;
+                }
+            }
+        }
+        return new BoardDelta(Arrays.copyOf(indexes, count), Arrays.copyOf(codes, count),
+                Arrays.copyOf(players, playerCount), to, from.getCurrentPlayer() != to.getCurrentPlayer(),
+                from.isGameOver() != to.isGameOver());
+    }
+
+    /**
+     * Check if nothing changed.
+     *
+     * @return true if there are no changes.
+     */
+    public boolean isEmpty() {
+        return cellIndexes.length == 0 && playerIndexes.length == 0 && !turnChanged && !gameOverChanged;
+    }
+
+    /**
+     * Return the changes as a JSON object.
+     *
+     * @return The JSON text.
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder(64 + cellIndexes.length * 12);
+        sb.append("{\"cells\":[");
+        for (int i = 0; i < cellIndexes.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append('[').append(cellIndexes[i]).append(',').append(cellCodes[i]).append(']');
+        }
+        sb.append("],\"players\":[");
+        for (int i = 0; i < playerIndexes.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            to.appendPlayerJson(sb, playerIndexes[i]);
+        }
+        sb.append("],\"current\":").append(to.getCurrentPlayer())
+                .append(",\"gameOver\":").append(to.isGameOver()).append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,390 @@
+package gameEngine;
+
+import gameObjects.ObjectName;
+import general.BitGrid;
+import general.Point;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Generates board layouts from a seed. Items are placed at random and a layout is accepted only if
+ * every coin and the opponent can be reached from both starting cells without crossing rocks or trees,
+ * coins keep a minimum distance between each other and the coins are about as far from one player as from the other.
+ * When no layout meets the constraints (e.g. too many rocks for the board), the layout closest to them is used,
+ * so any valid rules give a board.
+ * A generator reuses its buffers, so it must be used by one thread at a time.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class BoardGenerator {
+
+    //==================== Attributes ===================
+
+    /**
+     * Default maximum number of layouts tried for a seed.
+     */
+    public static final int DEFAULT_MAX_ATTEMPTS = 1000;
+
+    /**
+     * Order in which the items are placed.
+     */
+    private static final ObjectName[] ITEMS = {
+            ObjectName.Coin, ObjectName.Gem, ObjectName.Rock, ObjectName.Potion, ObjectName.Tree, ObjectName.Monster
+    };
+
+    /**
+     * Number of random cells tried for an item before looking for a free cell in order.
+     */
+    private static final int CELL_ATTEMPTS = 64;
+
+    /**
+     * Board width.
+     */
+    private final int sizeX;
+
+    /**
+     * Board height.
+     */
+    private final int sizeY;
+
+    /**
+     * Number of items to place, indexed by the ordinal of the ObjectName.
+     */
+    private final int[] counts;
+
+    /**
+     * Minimum distance between two coins (1 means any two different cells).
+     */
+    private int minCoinSpacing = 1;
+
+    /**
+     * Maximum relative difference between the distances of the coins from the two starting cells.
+     */
+    private double fairnessTolerance = 0.5;
+
+    /**
+     * Maximum number of layouts tried for a seed.
+     */
+    private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+
+    /**
+     * Content of the cells of the layout being generated.
+     */
+    private final byte[] cells;
+
+    /**
+     * Cells occupied in the layout being generated.
+     */
+    private final BitGrid occupied;
+
+    /**
+     * Cells that can be crossed in the layout being generated.
+     */
+    private final BitGrid passable;
+
+    /**
+     * Cells with a coin in the layout being generated.
+     */
+    private final BitGrid coins;
+
+    /**
+     * Number of coins not reached by the last {@link #coinDistance(Point)}.
+     */
+    private int unreached;
+
+    /**
+     * Cells reached by the flood fill.
+     */
+    private final BitGrid reached;
+
+    /**
+     * Work area of the flood fill.
+     */
+    private final BitGrid buffer;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor.
+     *
+     * @param rules Rules with the number of items.
+     * @param sizeX Board width.
+     * @param sizeY Board height.
+     */
+    public BoardGenerator(GameRules rules, int sizeX, int sizeY) {
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        counts = new int[ObjectName.values().length];
+        for (ObjectName name : ITEMS) {
+            counts[name.ordinal()] = rules.getItemCount(name, sizeX, sizeY);
+        }
+        cells = new byte[sizeX * sizeY];
+        occupied = new BitGrid(sizeX, sizeY);
+        passable = new BitGrid(sizeX, sizeY);
+        coins = new BitGrid(sizeX, sizeY);
+        reached = new BitGrid(sizeX, sizeY);
+        buffer = new BitGrid(sizeX, sizeY);
+    }
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Set the minimum distance (steps on the wrap-around board) between two coins.
+     *
+     * @param minCoinSpacing The minimum distance, 1 for no constraint.
+     * @return This generator.
+     */
+    public BoardGenerator setMinCoinSpacing(int minCoinSpacing) {
+        this.minCoinSpacing = Math.max(1, minCoinSpacing);
+        return this;
+    }
+
+    /**
+     * Set the maximum relative difference between the total distance of the coins from the two starting cells.
+     *
+     * @param fairnessTolerance The tolerance (0 requires the same distance, 1 disables the check).
+     * @return This generator.
+     */
+    public BoardGenerator setFairnessTolerance(double fairnessTolerance) {
+        this.fairnessTolerance = fairnessTolerance;
+        return this;
+    }
+
+    /**
+     * Set the maximum number of layouts tried for a seed.
+     *
+     * @param maxAttempts The maximum number of attempts.
+     * @return This generator.
+     */
+    public BoardGenerator setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    /**
+     * Get a fingerprint of everything the layouts depend on besides the seed: the board size, the number of every
+     * item and the constraints. Two generators with the same fingerprint give the same layout for a seed.
+     *
+     * @return The fingerprint.
+     */
+    public long getFingerprint() {
+        long hash = mix(sizeX * 31L + sizeY);
+        for (ObjectName name : ITEMS) {
+            hash = mix(hash ^ (name.ordinal() * 0x10000L + counts[name.ordinal()]));
+        }
+        hash = mix(hash ^ minCoinSpacing);
+        hash = mix(hash ^ Double.doubleToLongBits(fairnessTolerance));
+        return mix(hash ^ maxAttempts);
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Mix the bits of a number (finalizer of SplitMix64).
+     *
+     * @param z The number.
+     * @return The mixed number.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Distance between two cells on the wrap-around board.
+     *
+     * @param a Index of the first cell.
+     * @param b Index of the second cell.
+     * @return The number of steps between the cells.
+     */
+    private int distance(int a, int b) {
+        int dx = Math.abs(a % sizeX - b % sizeX);
+        int dy = Math.abs(a / sizeX - b / sizeX);
+        return Math.min(dx, sizeX - dx) + Math.min(dy, sizeY - dy);
+    }
+
+    /**
+     * Check if a coin can be placed in a cell without being too close to the other coins.
+     *
+     * @param cell Index of the cell.
+     * @return true if the coin is far enough from the other coins.
+     */
+    private boolean isSpaced(int cell) {
+        if (minCoinSpacing <= 1) {
+            return true;
+        }
+        for (int other = coins.nextSetBit(0); other >= 0; other = coins.nextSetBit(other + 1)) {
+            if (distance(cell, other) < minCoinSpacing) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check if an item can be placed in a cell.
+     *
+     * @param name Type of the item.
+     * @param cell Index of the cell.
+     * @return true if the cell is free (and far enough from the other coins for a coin).
+     */
+    private boolean canPlace(ObjectName name, int cell) {
+        return !occupied.get(cell % sizeX, cell / sizeX) && (name != ObjectName.Coin || isSpaced(cell));
+    }
+
+    /**
+     * Place all the items at random.
+     *
+     * @param random The random generator.
+     * @return false if an item can't be placed.
+     */
+    private boolean place(SplittableRandom random) {
+        Arrays.fill(cells, BoardLayout.EMPTY);
+        occupied.clearAll();
+        coins.clearAll();
+        for (int i = 0; i < GameLogic.NUMBER_OF_PLAYERS; i++) {
+            Point spawn = GameLogic.getSpawn(i, sizeX, sizeY);
+            occupied.set(spawn.getX(), spawn.getY());
+        }
+        for (ObjectName name : ITEMS) {
+            for (int n = 0; n < counts[name.ordinal()]; n++) {
+                int cell = -1;
+                for (int attempt = 0; attempt < CELL_ATTEMPTS && cell < 0; attempt++) {
+                    int candidate = random.nextInt(cells.length);
+                    if (canPlace(name, candidate)) {
+                        cell = candidate;
+                    }
+                }
+                if (cell < 0) {
+                    int start = random.nextInt(cells.length);
+                    for (int i = 0; i < cells.length && cell < 0; i++) {
+                        int candidate = (start + i) % cells.length;
+                        if (canPlace(name, candidate)) {
+                            cell = candidate;
+                        }
+                    }
+                }
+                if (cell < 0) {
+                    return false;
+                }
+                cells[cell] = (byte) (name.ordinal() + 1);
+                occupied.set(cell % sizeX, cell / sizeX);
+                if (name == ObjectName.Coin) {
+                    coins.set(cell % sizeX, cell / sizeX);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sum of the distances of the coins from a starting cell (breadth first search done by dilating the layer).
+     * The coins that can't be reached are counted in {@link #unreached}.
+     *
+     * @param spawn The starting cell.
+     * @return The sum of the distances of the coins reached.
+     */
+    private long coinDistance(Point spawn) {
+        int total = coins.cardinality();
+        reached.clearAll();
+        reached.set(spawn.getX(), spawn.getY());
+        int size = 1;
+        int found = 0;
+        long sum = 0;
+        for (int steps = 1; found < total; steps++) {
+            reached.dilate(buffer);
+            reached.and(passable);
+            int nextSize = reached.cardinality();
+            if (nextSize == size) {
+                break;
+            }
+            size = nextSize;
+            int nextFound = reached.andCardinality(coins);
+            sum += (long) steps * (nextFound - found);
+            found = nextFound;
+        }
+        unreached = total - found;
+        return sum;
+    }
+
+    /**
+     * Measure how far the placed items are from the constraints.
+     *
+     * @return 0 if the layout is valid; otherwise a positive number, bigger for every coin or player that can't
+     * be reached than for any unfairness.
+     */
+    private double penalty() {
+        passable.setAll();
+        for (int cell = 0; cell < cells.length; cell++) {
+            if (cells[cell] == ObjectName.Rock.ordinal() + 1 || cells[cell] == ObjectName.Tree.ordinal() + 1) {
+                passable.clear(cell % sizeX, cell / sizeX);
+            }
+        }
+        Point first = GameLogic.getSpawn(0, sizeX, sizeY);
+        Point second = GameLogic.getSpawn(1, sizeX, sizeY);
+        double penalty = 0;
+        long firstDistance = coinDistance(first);
+        penalty += unreached;
+        if (!reached.get(second.getX(), second.getY())) {
+            reached.fill(passable, buffer);
+            if (!reached.get(second.getX(), second.getY())) {
+                penalty++;
+            }
+        }
+        long secondDistance = coinDistance(second);
+        penalty += unreached;
+        long max = Math.max(firstDistance, secondDistance);
+        if (max > 0) {
+            // Below 1, so an unreachable coin always weighs more
+            double unfairness = (double) Math.abs(firstDistance - secondDistance) / max - fairnessTolerance;
+            if (unfairness > 0) {
+                penalty += unfairness / 2;
+            }
+        }
+        return penalty;
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Generate a layout. The same seed always gives the same layout.
+     * If no valid layout is found in the maximum number of attempts, the one closest to the constraints is returned;
+     * if the coins can't even be placed far enough from each other, they are placed without the spacing.
+     *
+     * @param seed The seed.
+     * @return The layout.
+     */
+    public BoardLayout generate(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        byte[] best = null;
+        double bestPenalty = Double.POSITIVE_INFINITY;
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            if (!place(random)) {
+                continue;
+            }
+            double penalty = penalty();
+            if (penalty == 0) {
+                return new BoardLayout(sizeX, sizeY, seed, cells);
+            }
+            if (penalty < bestPenalty) {
+                bestPenalty = penalty;
+                best = cells.clone();
+            }
+        }
+        if (best == null) {
+            int spacing = minCoinSpacing;
+            minCoinSpacing = 1;
+            try {
+                // With the spacing disabled the items always fit, since the rules don't allow more items than cells
+                place(random);
+                best = cells.clone();
+            } finally {
+                minCoinSpacing = spacing;
+            }
+        }
+        return new BoardLayout(sizeX, sizeY, seed, best);
+    }
+}
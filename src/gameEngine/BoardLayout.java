@@ -0,0 +1,169 @@
+package gameEngine;
+
+import gameObjects.ObjectName;
+
+import java.util.Arrays;
+
+/**
+ * Immutable placement of the items of a board (the players always start in their corners).
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public final class BoardLayout {
+
+    //==================== Attributes ===================
+
+    /**
+     * Code of an empty cell.
+     */
+    public static final byte EMPTY = 0;
+
+    /**
+     * Board width.
+     */
+    private final int sizeX;
+
+    /**
+     * Board height.
+     */
+    private final int sizeY;
+
+    /**
+     * Seed used to generate the layout.
+     */
+    private final long seed;
+
+    /**
+     * Content of the cells, row by row: {@link #EMPTY} or the ordinal of the ObjectName plus one.
+     */
+    private final byte[] cells;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor.
+     *
+     * @param sizeX Board width.
+     * @param sizeY Board height.
+     * @param seed  Seed used to generate the layout.
+     * @param cells Content of the cells (copied).
+     */
+    public BoardLayout(int sizeX, int sizeY, long seed, byte[] cells) {
+        if (cells.length != sizeX * sizeY) {
+            throw new IllegalArgumentException("Expected " + sizeX * sizeY + " cells, found " + cells.length);
+        }
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.seed = seed;
+        this.cells = cells.clone();
+    }
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Get the board width.
+     *
+     * @return The board width.
+     */
+    public int getSizeX() {
+        return sizeX;
+    }
+
+    /**
+     * Get the board height.
+     *
+     * @return The board height.
+     */
+    public int getSizeY() {
+        return sizeY;
+    }
+
+    /**
+     * Get the seed used to generate the layout.
+     *
+     * @return The seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Get the code of a cell.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return {@link #EMPTY} or the ordinal of the ObjectName plus one.
+     */
+    public byte getCode(int x, int y) {
+        return cells[y * sizeX + x];
+    }
+
+    /**
+     * Get the type of the item in a cell.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return The type of the item, null if the cell is empty.
+     */
+    public ObjectName getType(int x, int y) {
+        byte code = cells[y * sizeX + x];
+        return code == EMPTY ? null : ObjectName.values()[code - 1];
+    }
+
+    /**
+     * Get a copy of the content of the cells.
+     *
+     * @return The content of the cells, row by row.
+     */
+    public byte[] getCells() {
+        return cells.clone();
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Count the items of a type.
+     *
+     * @param name Type of the item.
+     * @return The number of items.
+     */
+    public int count(ObjectName name) {
+        int count = 0;
+        byte code = (byte) (name.ordinal() + 1);
+        for (byte cell : cells) {
+            if (cell == code) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Check if two layouts place the same items.
+     *
+     * @param o The object to compare.
+     * @return true if the layouts are equal.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BoardLayout)) {
+            return false;
+        }
+        BoardLayout other = (BoardLayout) o;
+        return sizeX == other.sizeX && sizeY == other.sizeY && Arrays.equals(cells, other.cells);
+    }
+
+    /**
+     * Hash code of the layout.
+     *
+     * @return The hash code.
+     */
+    @Override
+    public int hashCode() {
+        return 31 * (31 * sizeX + sizeY) + Arrays.hashCode(cells);
+    }
+}
@@ -0,0 +1,362 @@
+package gameEngine;
+
+import gameObjects.ObjectName;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Library of generated boards, keyed by (rules, size, seed).
+ * Boards are kept in a bounded in-memory cache (least recently used boards are evicted) and, optionally,
+ * in a directory with one small file per board, so a board is generated only the first time it is needed.
+ * A file records the seed and the fingerprint of the generator ({@link BoardGenerator#getFingerprint()}) and is
+ * used only if both match; a file that can't be used or written is counted in {@link #getDiskErrors()}.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class BoardLibrary {
+
+    //==================== Attributes ===================
+
+    /**
+     * First bytes of a board file.
+     */
+    private static final int MAGIC = 0x47424C32;
+
+    /**
+     * Directory of the board files, null to keep the boards in memory only.
+     */
+    private final Path directory;
+
+    /**
+     * Boards in memory, in access order.
+     */
+    private final Map<Key, BoardLayout> cache;
+
+    /**
+     * Number of boards found in memory.
+     */
+    private long hits;
+
+    /**
+     * Number of boards read from disk or generated.
+     */
+    private long misses;
+
+    /**
+     * Number of board files that couldn't be read or written.
+     */
+    private long diskErrors;
+
+    /**
+     * Last error on a board file, null if none.
+     */
+    private IOException lastDiskError;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor.
+     *
+     * @param directory Directory of the board files, null to keep the boards in memory only.
+     * @param capacity  Maximum number of boards kept in memory.
+     */
+    public BoardLibrary(Path directory, int capacity) {
+        this.directory = directory;
+        this.cache = new LinkedHashMap<Key, BoardLayout>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, BoardLayout> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Get the number of boards found in memory.
+     *
+     * @return The number of cache hits.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Get the number of boards read from disk or generated.
+     *
+     * @return The number of cache misses.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Get the number of board files that couldn't be read (damaged or of other rules) or written;
+     * their boards were generated again.
+     *
+     * @return The number of errors.
+     */
+    public synchronized long getDiskErrors() {
+        return diskErrors;
+    }
+
+    /**
+     * Get the last error on a board file.
+     *
+     * @return The error, null if none.
+     */
+    public synchronized IOException getLastDiskError() {
+        return lastDiskError;
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Return the file of a board.
+     *
+     * @param key         The key of the board.
+     * @param fingerprint Fingerprint of the generator of the board.
+     * @return The file.
+     */
+    private Path fileOf(Key key, long fingerprint) {
+        return directory.resolve(key.sizeX + "x" + key.sizeY + "-" + Long.toHexString(fingerprint)
+                + "-" + Long.toHexString(key.seed) + ".board");
+    }
+
+    /**
+     * Record an error on a board file.
+     *
+     * @param e The error.
+     */
+    private synchronized void diskError(IOException e) {
+        diskErrors++;
+        lastDiskError = e;
+    }
+
+    /**
+     * Read a board from disk or generate it (and save it).
+     *
+     * @param key The key of the board.
+     * @return The board.
+     */
+    private BoardLayout load(Key key) {
+        BoardGenerator generator = new BoardGenerator(key.rules, key.sizeX, key.sizeY);
+        long fingerprint = generator.getFingerprint();
+        Path file = directory != null ? fileOf(key, fingerprint) : null;
+        if (file != null && Files.isRegularFile(file)) {
+            try {
+                return read(file, key.seed, fingerprint);
+            } catch (IOException e) {
+                // The board is generated again and the file rewritten
+                diskError(e);
+            }
+        }
+        BoardLayout layout = generator.generate(key.seed);
+        if (file != null) {
+            try {
+                Files.createDirectories(directory);
+                write(layout, fingerprint, file);
+            } catch (IOException e) {
+                // The library keeps working in memory
+                diskError(e);
+            }
+        }
+        return layout;
+    }
+
+    /**
+     * Check the code of a cell read from a file.
+     *
+     * @param code The code.
+     * @param file The file, for the message.
+     * @return The code.
+     * @throws IOException If the code is not {@link BoardLayout#EMPTY} or an item.
+     */
+    private static byte cellCode(int code, Path file) throws IOException {
+        if (code > ObjectName.values().length || code == ObjectName.Player.ordinal() + 1) {
+            throw new IOException("Unknown cell code " + code + " in " + file);
+        }
+        return (byte) code;
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Get a board, generating it if it is not in the library.
+     *
+     * @param rules Rules of the match.
+     * @param sizeX Board width.
+     * @param sizeY Board height.
+     * @param seed  Seed of the board.
+     * @return The board.
+     */
+    public BoardLayout get(GameRules rules, int sizeX, int sizeY, long seed) {
+        Key key = new Key(rules, sizeX, sizeY, seed);
+        synchronized (this) {
+            BoardLayout layout = cache.get(key);
+            if (layout != null) {
+                hits++;
+                return layout;
+            }
+            misses++;
+        }
+        BoardLayout layout = load(key);
+        synchronized (this) {
+            cache.put(key, layout);
+        }
+        return layout;
+    }
+
+    /**
+     * Create a new game on a board of the library, equal to {@code new GameLogic(columns, rows, useEmoji, rules, seed)}.
+     *
+     * @param rules    Rules of the match.
+     * @param seed     Seed of the match.
+     * @param useEmoji True when the player wants to use emoji.
+     * @return The new game.
+     */
+    public GameLogic newGame(GameRules rules, long seed, boolean useEmoji) {
+        BoardLayout layout = get(rules, rules.getColumns(), rules.getRows(), GameLogic.getBoardSeed(seed));
+        return new GameLogic(layout, useEmoji, rules, seed);
+    }
+
+    /**
+     * Generate a range of boards in advance.
+     *
+     * @param rules     Rules of the match.
+     * @param sizeX     Board width.
+     * @param sizeY     Board height.
+     * @param firstSeed First seed.
+     * @param count     Number of boards.
+     */
+    public void preload(GameRules rules, int sizeX, int sizeY, long firstSeed, int count) {
+        for (int i = 0; i < count; i++) {
+            get(rules, sizeX, sizeY, firstSeed + i);
+        }
+    }
+
+    /**
+     * Write a board to a file: a header (size, seed and fingerprint of the generator) followed by the cells,
+     * two cells per byte.
+     *
+     * @param layout      The board.
+     * @param fingerprint Fingerprint of the generator of the board.
+     * @param file        The file.
+     * @throws IOException If the file can't be written.
+     */
+    public static void write(BoardLayout layout, long fingerprint, Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(layout.getSizeX());
+            out.writeInt(layout.getSizeY());
+            out.writeLong(layout.getSeed());
+            out.writeLong(fingerprint);
+            byte[] cells = layout.getCells();
+            for (int i = 0; i < cells.length; i += 2) {
+                int high = i + 1 < cells.length ? cells[i + 1] : 0;
+                out.writeByte(cells[i] | (high << 4));
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Read a board written by {@link #write(BoardLayout, long, Path)}, checking that it is the expected one.
+     *
+     * @param file        The file.
+     * @param seed        Expected seed of the board.
+     * @param fingerprint Expected fingerprint of the generator.
+     * @return The board.
+     * @throws IOException If the file can't be read, is not a board, is of another seed or generator, or has a
+     *                     cell with an unknown code.
+     */
+    public static BoardLayout read(Path file, long seed, long fingerprint) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a board file: " + file);
+            }
+            int sizeX = in.readInt();
+            int sizeY = in.readInt();
+            if (sizeX <= 0 || sizeY <= 0 || (long) sizeX * sizeY > Integer.MAX_VALUE) {
+                throw new IOException("Invalid board size in " + file);
+            }
+            if (in.readLong() != seed || in.readLong() != fingerprint) {
+                throw new IOException("Board of another seed or other rules in " + file);
+            }
+            byte[] cells = new byte[sizeX * sizeY];
+            for (int i = 0; i < cells.length; i += 2) {
+                int packed = in.readUnsignedByte();
+                cells[i] = cellCode(packed & 0x0F, file);
+                if (i + 1 < cells.length) {
+                    cells[i + 1] = cellCode(packed >>> 4, file);
+                }
+            }
+            if (in.read() >= 0) {
+                throw new IOException("Unexpected data after the cells in " + file);
+            }
+            return new BoardLayout(sizeX, sizeY, seed, cells);
+        }
+    }
+
+    /**
+     * Key of a board in the library.
+     */
+    private static final class Key {
+
+        /**
+         * Rules of the board.
+         */
+        private final GameRules rules;
+
+        /**
+         * Board width.
+         */
+        private final int sizeX;
+
+        /**
+         * Board height.
+         */
+        private final int sizeY;
+
+        /**
+         * Seed of the board.
+         */
+        private final long seed;
+
+        /**
+         * Constructor.
+         *
+         * @param rules Rules of the board.
+         * @param sizeX Board width.
+         * @param sizeY Board height.
+         * @param seed  Seed of the board.
+         */
+        private Key(GameRules rules, int sizeX, int sizeY, long seed) {
+            this.rules = rules;
+            this.sizeX = sizeX;
+            this.sizeY = sizeY;
+            this.seed = seed;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return sizeX == other.sizeX && sizeY == other.sizeY && seed == other.seed && rules.equals(other.rules);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * (31 * rules.hashCode() + sizeX) + sizeY) + Long.hashCode(seed);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package gameEngine;
+
+import gameObjects.*;
+
+/**
+ * Immutable copy of the visible state of a game: the items of the board, the players and the turn.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public final class BoardSnapshot {
+
+    //==================== Attributes ===================
+
+    /**
+     * Number of values stored for every player: x, y, coins, gems, potions.
+     */
+    public static final int PLAYER_FIELDS = 5;
+
+    /**
+     * Board width.
+     */
+    private final int sizeX;
+
+    /**
+     * Board height.
+     */
+    private final int sizeY;
+
+    /**
+     * Content of the cells, row by row: the ordinal of the ObjectName plus one (0 for an empty cell)
+     * in the low 4 bits, the number of hits that remove the object (e.g. the health of a tree) in the other bits.
+     */
+    private final int[] cells;
+
+    /**
+     * Values of the players, {@link #PLAYER_FIELDS} for every player.
+     */
+    private final int[] players;
+
+    /**
+     * Index of the current player.
+     */
+    private final int currentPlayer;
+
+    /**
+     * True if the game is over.
+     */
+    private final boolean gameOver;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor, the arrays are not copied.
+     *
+     * @param sizeX         Board width.
+     * @param sizeY         Board height.
+     * @param cells         Content of the cells.
+     * @param players       Values of the players.
+     * @param currentPlayer Index of the current player.
+     * @param gameOver      True if the game is over.
+     */
+    BoardSnapshot(int sizeX, int sizeY, int[] cells, int[] players, int currentPlayer, boolean gameOver) {
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.cells = cells;
+        this.players = players;
+        this.currentPlayer = currentPlayer;
+        this.gameOver = gameOver;
+    }
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Get the board width.
+     *
+     * @return The board width.
+     */
+    public int getSizeX() {
+        return sizeX;
+    }
+
+    /**
+     * Get the board height.
+     *
+     * @return The board height.
+     */
+    public int getSizeY() {
+        return sizeY;
+    }
+
+    /**
+     * Get the code of a cell.
+     *
+     * @param index Index of the cell (y * sizeX + x).
+     * @return The code of the cell.
+     */
+    public int getCell(int index) {
+        return cells[index];
+    }
+
+    /**
+     * Get the number of cells.
+     *
+     * @return The number of cells.
+     */
+    public int getCellCount() {
+        return cells.length;
+    }
+
+    /**
+     * Get the number of players.
+     *
+     * @return The number of players.
+     */
+    public int getPlayerCount() {
+        return players.length / PLAYER_FIELDS;
+    }
+
+    /**
+     * Get a value of a player.
+     *
+     * @param player Index of the player.
+     * @param field  Index of the value (0 x, 1 y, 2 coins, 3 gems, 4 potions).
+     * @return The value.
+     */
+    public int getPlayerField(int player, int field) {
+        return players[player * PLAYER_FIELDS + field];
+    }
+
+    /**
+     * Get the index of the current player.
+     *
+     * @return The index of the current player.
+     */
+    public int getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    /**
+     * Check if the game is over.
+     *
+     * @return true if the game is over.
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Return the code of an object.
+     *
+     * @param gameObject The object.
+     * @param registry   The kinds of objects of the game.
+     * @return The code stored in a cell.
+     */
+    public static int codeOf(GameObject gameObject, EntityRegistry registry) {
+        return (gameObject.getType().ordinal() + 1) | registry.get(gameObject.getType()).hitsToRemove(gameObject) << 4;
+    }
+
+    /**
+     * Get the type stored in a cell code.
+     *
+     * @param code The code.
+     * @return The type, null for an empty cell.
+     */
+    public static ObjectName typeOf(int code) {
+        return (code & 0x0F) == 0 ? null : ObjectName.values()[(code & 0x0F) - 1];
+    }
+
+    /**
+     * Take a snapshot of a game.
+     *
+     * @param gameLogic The game.
+     * @return The snapshot.
+     */
+    public static BoardSnapshot of(GameLogic gameLogic) {
+        int[] cells = new int[gameLogic.getSizeX() * gameLogic.getSizeY()];
+        int[] players = new int[GameLogic.NUMBER_OF_PLAYERS * PLAYER_FIELDS];
+        int playerIndex = 0;
+        int current = 0;
+        for (GameObject gameObject : gameLogic.getGameObjects()) {
+            if (gameObject instanceof Player) {
+                Player player = (Player) gameObject;
+                int base = playerIndex * PLAYER_FIELDS;
+                players[base] = player.getXPosition();
+                players[base + 1] = player.getYPosition();
+                players[base + 2] = player.getCoins();
+                players[base + 3] = player.getGems();
+                players[base + 4] = player.getPotions();
+                if (player == gameLogic.getCurrentPlayer()) {
+                    current = playerIndex;
+                }
+                playerIndex++;
+            } else {
+                cells[gameObject.getYPosition() * gameLogic.getSizeX() + gameObject.getXPosition()] = codeOf(gameObject,
+                        gameLogic.getEntityRegistry());
+            }
+        }
+        return new BoardSnapshot(gameLogic.getSizeX(), gameLogic.getSizeY(), cells, players, current,
+                gameLogic.isGameOver());
+    }
+
+    /**
+     * Return the state as a JSON object.
+     *
+     * @return The JSON text.
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder(cells.length * 2 + 128);
+        sb.append("{\"sizeX\":").append(sizeX).append(",\"sizeY\":").append(sizeY).append(",\"cells\":[");
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(cells[i]);
+        }
+        sb.append("],\"players\":[");
+        for (int i = 0; i < getPlayerCount(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            appendPlayerJson(sb, i);
+        }
+        sb.append("],\"current\":").append(currentPlayer).append(",\"gameOver\":").append(gameOver).append('}');
+        return sb.toString();
+    }
+
+    /**
+     * Append the values of a player as a JSON object.
+     *
+     * @param sb     The builder.
+     * @param player Index of the player.
+     */
+    void appendPlayerJson(StringBuilder sb, int player) {
+        sb.append("{\"i\":").append(player)
+                .append(",\"x\":").append(getPlayerField(player, 0))
+                .append(",\"y\":").append(getPlayerField(player, 1))
+                .append(",\"coins\":").append(getPlayerField(player, 2))
+                .append(",\"gems\":").append(getPlayerField(player, 3))
+                .append(",\"potions\":").append(getPlayerField(player, 4)).append('}');
+    }
+}
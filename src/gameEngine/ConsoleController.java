@@ -0,0 +1,78 @@
+package gameEngine;
+
+import gameObjects.Player;
+import menu.Menu;
+import menu.option.GenericOption;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Controller that asks the decisions to the user on the console.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class ConsoleController implements PlayerController {
+
+    //==================== Attributes ===================
+
+    /**
+     * Menus asking to use a gem, by player.
+     */
+    private final Map<Player, Menu> gemMenus = new IdentityHashMap<>();
+
+    /**
+     * Menus asking to use a potion, by player.
+     */
+    private final Map<Player, Menu> potionMenus = new IdentityHashMap<>();
+
+    //==================== private methods ====================
+
+    /**
+     * Build a yes/no menu.
+     *
+     * @param title The question.
+     * @param yes   Name of the positive answer.
+     * @param no    Name of the negative answer.
+     * @return The menu, the positive answer has index 0.
+     */
+    private static Menu yesNoMenu(String title, String yes, String no) {
+        Menu menu = new Menu(true, title);
+        menu.addMenu(new GenericOption(yes, 'y', () -> {
+        }));
+        menu.addMenu(new GenericOption(no, 'n', () -> {
+        }));
+        return menu;
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Method used to ask the user if he wants to use a gem in case of fight
+     *
+     * @param gameLogic the logic of the game
+     * @param player    the player who is using the gem
+     * @return true if the player wants to use the gem, false otherwise
+     */
+    @Override
+    public boolean useGem(GameLogic gameLogic, Player player) {
+        Menu menu = gemMenus.computeIfAbsent(player,
+                p -> yesNoMenu(p.getUsername() + " use gem to escape?", "Yes use gem", "Don't use gem"));
+        return menu.ask() == 0;
+    }
+
+    /**
+     * Method used to ask the user if he wants to use a potion in case of fight
+     *
+     * @param gameLogic the logic of the game
+     * @param player    the player who is using the potion
+     * @return true if the player wants to use the potion, false otherwise
+     */
+    @Override
+    public boolean usePotion(GameLogic gameLogic, Player player) {
+        Menu menu = potionMenus.computeIfAbsent(player,
+                p -> yesNoMenu(p.getUsername() + " use potion to win?", "Yes use the potion", "Don't use the potion"));
+        return menu.ask() == 0;
+    }
+}
@@ -0,0 +1,199 @@
+package gameEngine;
+
+import gameObjects.ObjectName;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Rebuilds the snapshots of a game from the frames written by {@link DeltaEncoder}.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class DeltaDecoder {
+
+    //==================== Attributes ===================
+
+    /**
+     * Last decoded snapshot, null until the first keyframe.
+     */
+    private BoardSnapshot last;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor, the first frame must be a keyframe.
+     */
+    public DeltaDecoder() {
+    }
+
+    /**
+     * Constructor that continues from a known snapshot, so the next frame can be a delta.
+     *
+     * @param last The snapshot the next delta applies to.
+     */
+    DeltaDecoder(BoardSnapshot last) {
+        this.last = last;
+    }
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Get the last decoded snapshot.
+     *
+     * @return The snapshot, null until the first keyframe.
+     */
+    public BoardSnapshot getSnapshot() {
+        return last;
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Read a varint.
+     *
+     * @param in The buffer.
+     * @return The number.
+     */
+    private static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Invalid varint");
+    }
+
+    /**
+     * Read the code of a cell.
+     *
+     * @param in The buffer.
+     * @return The code.
+     * @throws IllegalArgumentException If the code is not the one of a type of object.
+     */
+    private static int readCell(ByteBuffer in) {
+        int code = readVarInt(in);
+        if (code < 0 || (code & 0x0F) > ObjectName.values().length) {
+            throw new IllegalArgumentException("Invalid cell code " + code);
+        }
+        return code;
+    }
+
+    /**
+     * Read the values of a player.
+     *
+     * @param in      The buffer.
+     * @param players The values of the players.
+     * @param player  Index of the player.
+     */
+    private static void readPlayer(ByteBuffer in, int[] players, int player) {
+        for (int f = 0; f < BoardSnapshot.PLAYER_FIELDS; f++) {
+            players[player * BoardSnapshot.PLAYER_FIELDS + f] = readVarInt(in);
+        }
+    }
+
+    /**
+     * Read a keyframe.
+     *
+     * @param in The buffer (after the type).
+     * @return The snapshot.
+     */
+    private static BoardSnapshot readKeyframe(ByteBuffer in) {
+        int sizeX = readVarInt(in);
+        int sizeY = readVarInt(in);
+        int[] cells = new int[sizeX * sizeY];
+        int items = readVarInt(in);
+        int index = -1;
+        for (int i = 0; i < items; i++) {
+            index += readVarInt(in) + 1;
+            cells[index] = readCell(in);
+        }
+        int playerCount = readVarInt(in);
+        int[] players = new int[playerCount * BoardSnapshot.PLAYER_FIELDS];
+        for (int p = 0; p < playerCount; p++) {
+            readPlayer(in, players, p);
+        }
+        int current = readVarInt(in);
+        boolean gameOver = (in.get() & DeltaEncoder.GAME_OVER) != 0;
+        return new BoardSnapshot(sizeX, sizeY, cells, players, current, gameOver);
+    }
+
+    /**
+     * Apply a delta to the last snapshot.
+     *
+     * @param in The buffer (after the type).
+     * @return The new snapshot.
+     */
+    private BoardSnapshot readDelta(ByteBuffer in) {
+        int[] cells = new int[last.getCellCount()];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = last.getCell(i);
+        }
+        int[] players = new int[last.getPlayerCount() * BoardSnapshot.PLAYER_FIELDS];
+        for (int p = 0; p < last.getPlayerCount(); p++) {
+            for (int f = 0; f < BoardSnapshot.PLAYER_FIELDS; f++) {
+                players[p * BoardSnapshot.PLAYER_FIELDS + f] = last.getPlayerField(p, f);
+            }
+        }
+        int changed = readVarInt(in);
+        int index = -1;
+        for (int i = 0; i < changed; i++) {
+            index += readVarInt(in) + 1;
+            cells[index] = readCell(in);
+        }
+        int changedPlayers = readVarInt(in);
+        for (int i = 0; i < changedPlayers; i++) {
+            readPlayer(in, players, readVarInt(in));
+        }
+        int flags = in.get();
+        int current = (flags & DeltaEncoder.TURN_CHANGED) != 0 ? readVarInt(in) : last.getCurrentPlayer();
+        return new BoardSnapshot(last.getSizeX(), last.getSizeY(), cells, players, current,
+                (flags & DeltaEncoder.GAME_OVER) != 0);
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Decode a frame.
+     *
+     * @param frame The frame.
+     * @return The snapshot after the frame.
+     * @throws IllegalArgumentException If the frame is not valid or a delta arrives before the first keyframe.
+     */
+    public BoardSnapshot decode(byte[] frame) {
+        return decode(frame, 0, frame.length);
+    }
+
+    /**
+     * Decode a frame stored in a part of an array.
+     *
+     * @param buffer The array.
+     * @param offset First byte of the frame.
+     * @param length Number of bytes of the frame.
+     * @return The snapshot after the frame.
+     * @throws IllegalArgumentException If the frame is not valid or a delta arrives before the first keyframe.
+     */
+    public BoardSnapshot decode(byte[] buffer, int offset, int length) {
+        ByteBuffer in = ByteBuffer.wrap(buffer, offset, length);
+        try {
+            int type = in.get();
+            if (type == DeltaEncoder.KEYFRAME) {
+                last = readKeyframe(in);
+            } else if (type == DeltaEncoder.DELTA) {
+                if (last == null) {
+                    throw new IllegalArgumentException("Delta before the first keyframe");
+                }
+                last = readDelta(in);
+            } else {
+                throw new IllegalArgumentException("Unknown frame type " + type);
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated or invalid frame", e);
+        }
+        return last;
+    }
+}
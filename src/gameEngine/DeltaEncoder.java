@@ -0,0 +1,178 @@
+package gameEngine;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Encodes the successive snapshots of a game as compact binary frames.
+ * A keyframe contains the whole state, the other frames only the changes from the previous snapshot;
+ * a keyframe is sent every {@code keyframeInterval} frames so a client can join or resynchronize.
+ * Numbers and cell codes are written as varints (7 bits per byte) and cells as the gap from the previous changed cell,
+ * so a move usually costs less than ten bytes. Frames are read by {@link DeltaDecoder}.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class DeltaEncoder {
+
+    //==================== Attributes ===================
+
+    /**
+     * Type of a frame with the whole state.
+     */
+    public static final int KEYFRAME = 0;
+
+    /**
+     * Type of a frame with the changes from the previous one.
+     */
+    public static final int DELTA = 1;
+
+    /**
+     * Flag of the current player change.
+     */
+    static final int TURN_CHANGED = 1;
+
+    /**
+     * Flag of the end of the game.
+     */
+    static final int GAME_OVER = 2;
+
+    /**
+     * Number of frames between two keyframes.
+     */
+    private final int keyframeInterval;
+
+    /**
+     * Last encoded snapshot.
+     */
+    private BoardSnapshot last;
+
+    /**
+     * Number of frames since the last keyframe.
+     */
+    private int sinceKeyframe;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor.
+     *
+     * @param keyframeInterval Number of frames between two keyframes.
+     */
+    public DeltaEncoder(int keyframeInterval) {
+        this.keyframeInterval = Math.max(1, keyframeInterval);
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Write the values of a player.
+     *
+     * @param out      The stream.
+     * @param snapshot The snapshot.
+     * @param player   Index of the player.
+     */
+    private static void writePlayer(ByteArrayOutputStream out, BoardSnapshot snapshot, int player) {
+        for (int f = 0; f < BoardSnapshot.PLAYER_FIELDS; f++) {
+            writeVarInt(out, snapshot.getPlayerField(player, f));
+        }
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Write a non negative number as a varint.
+     *
+     * @param out   The stream.
+     * @param value The number.
+     */
+    public static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    /**
+     * Encode the whole state of a snapshot.
+     *
+     * @param snapshot The snapshot.
+     * @return The frame.
+     */
+    public static byte[] keyframe(BoardSnapshot snapshot) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        out.write(KEYFRAME);
+        writeVarInt(out, snapshot.getSizeX());
+        writeVarInt(out, snapshot.getSizeY());
+        int items = 0;
+        for (int i = 0; i < snapshot.getCellCount(); i++) {
+            if (snapshot.getCell(i) != 0) {
+                items++;
+            }
+        }
+        writeVarInt(out, items);
+        int previous = -1;
+        for (int i = 0; i < snapshot.getCellCount(); i++) {
+            if (snapshot.getCell(i) != 0) {
+                writeVarInt(out, i - previous - 1);
+                writeVarInt(out, snapshot.getCell(i));
+                previous = i;
+            }
+        }
+        writeVarInt(out, snapshot.getPlayerCount());
+        for (int p = 0; p < snapshot.getPlayerCount(); p++) {
+            writePlayer(out, snapshot, p);
+        }
+        writeVarInt(out, snapshot.getCurrentPlayer());
+        out.write(snapshot.isGameOver() ? GAME_OVER : 0);
+        return out.toByteArray();
+    }
+
+    /**
+     * Encode the changes between two snapshots.
+     *
+     * @param delta The changes.
+     * @return The frame.
+     */
+    public static byte[] delta(BoardDelta delta) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16);
+        out.write(DELTA);
+        writeVarInt(out, delta.getCellCount());
+        int previous = -1;
+        for (int i = 0; i < delta.getCellCount(); i++) {
+            writeVarInt(out, delta.getCellIndex(i) - previous - 1);
+            writeVarInt(out, delta.getCellCode(i));
+            previous = delta.getCellIndex(i);
+        }
+        writeVarInt(out, delta.getPlayerCount());
+        for (int i = 0; i < delta.getPlayerCount(); i++) {
+            writeVarInt(out, delta.getPlayerIndex(i));
+            writePlayer(out, delta.getTo(), delta.getPlayerIndex(i));
+        }
+        int flags = (delta.isTurnChanged() ? TURN_CHANGED : 0) | (delta.getTo().isGameOver() ? GAME_OVER : 0);
+        out.write(flags);
+        if (delta.isTurnChanged()) {
+            writeVarInt(out, delta.getTo().getCurrentPlayer());
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Encode the next snapshot of the game: a keyframe for the first one and every {@code keyframeInterval}
+     * frames, otherwise the changes from the previous snapshot.
+     *
+     * @param snapshot The snapshot.
+     * @return The frame.
+     */
+    public byte[] encode(BoardSnapshot snapshot) {
+        byte[] frame;
+        if (last == null || ++sinceKeyframe >= keyframeInterval) {
+            frame = keyframe(snapshot);
+            sinceKeyframe = 0;
+        } else {
+            frame = delta(BoardDelta.between(last, snapshot));
+        }
+        last = snapshot;
+        return frame;
+    }
+}
@@ -0,0 +1,136 @@
+package gameEngine;
+
+import gameObjects.*;
+
+/**
+ * Table of the behaviour of every kind of object, indexed by the ordinal of the ObjectName,
+ * so the game dispatches creation, collisions and pickups with an array lookup.
+ * A registry is immutable: {@link #with(ObjectName, EntityType)} returns a new one, so a match can change
+ * or add the behaviour of a kind without touching the game logic.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public final class EntityRegistry {
+
+    //==================== Attributes ===================
+
+    /**
+     * Behaviour of the objects of the original game.
+     */
+    public static final EntityRegistry DEFAULT = createDefault();
+
+    /**
+     * Behaviour of every kind, indexed by the ordinal of the ObjectName.
+     */
+    private final EntityType[] types;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor.
+     *
+     * @param types Behaviour of every kind (not copied).
+     */
+    private EntityRegistry(EntityType[] types) {
+        this.types = types;
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Create the registry of the original game.
+     *
+     * @return The registry.
+     */
+    private static EntityRegistry createDefault() {
+        EntityType[] types = new EntityType[ObjectName.values().length];
+        types[ObjectName.Coin.ordinal()] = new EntityType(
+                EntityType.Role.ITEM,
+                (position, useEmoji, rules) -> new Coin(position, useEmoji),
+                EntityType.STOP,
+                (gameLogic, player, coin) -> {
+                    player.incrementCoins();
+                    gameLogic.removeObject(coin);
+                });
+        types[ObjectName.Gem.ordinal()] = new EntityType(
+                EntityType.Role.ITEM,
+                (position, useEmoji, rules) -> new Gem(position, useEmoji),
+                EntityType.STOP,
+                (gameLogic, player, gem) -> {
+                    player.incrementGems();
+                    gameLogic.removeObject(gem);
+                });
+        types[ObjectName.Potion.ordinal()] = new EntityType(
+                EntityType.Role.ITEM,
+                (position, useEmoji, rules) -> new Potion(position, useEmoji),
+                EntityType.STOP,
+                (gameLogic, player, potion) -> {
+                    player.incrementPotions();
+                    gameLogic.removeObject(potion);
+                });
+        types[ObjectName.Rock.ordinal()] = new EntityType(
+                EntityType.Role.OBSTACLE,
+                (position, useEmoji, rules) -> new Rock(position, useEmoji),
+                EntityType.STOP,
+                EntityType.NOTHING);
+        types[ObjectName.Tree.ordinal()] = new EntityType(
+                EntityType.Role.OBSTACLE,
+                (position, useEmoji, rules) -> new Tree(position, useEmoji, rules.getTreeHealth()),
+                (gameLogic, player, tree) -> {
+                    gameLogic.hitTree((Tree) tree);
+                    return true;
+                },
+                EntityType.NOTHING,
+                new EntityType.Durability() {
+                    @Override
+                    public int hitsToRemove(GameObject tree) {
+                        return ((Tree) tree).getHealth();
+                    }
+
+                    @Override
+                    public void setHitsToRemove(GameObject tree, int hits) {
+                        ((Tree) tree).setHealth(hits);
+                    }
+                });
+        types[ObjectName.Player.ordinal()] = new EntityType(
+                EntityType.Role.PLAYER,
+                null,
+                EntityType.STOP,
+                (gameLogic, player, other) -> gameLogic.fight(player, (Player) other));
+        types[ObjectName.Monster.ordinal()] = new EntityType(
+                EntityType.Role.MONSTER,
+                (position, useEmoji, rules) -> new Monster(position, useEmoji),
+                EntityType.STOP,
+                (gameLogic, player, monster) -> gameLogic.fightMonster(player, monster));
+        return new EntityRegistry(types);
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Get the behaviour of a kind of object.
+     *
+     * @param name The kind.
+     * @return The behaviour.
+     */
+    public EntityType get(ObjectName name) {
+        return types[name.ordinal()];
+    }
+
+    /**
+     * Return a registry with a different behaviour for a kind of object.
+     *
+     * @param name The kind.
+     * @param type The new behaviour.
+     * @return The new registry.
+     */
+    public EntityRegistry with(ObjectName name, EntityType type) {
+        if (type == null) {
+            throw new IllegalArgumentException("Missing behaviour for " + name);
+        }
+        EntityType[] copy = types.clone();
+        copy[name.ordinal()] = type;
+        return new EntityRegistry(copy);
+    }
+}
@@ -0,0 +1,303 @@
+package gameEngine;
+
+import gameObjects.GameObject;
+import gameObjects.Player;
+import general.Point;
+
+/**
+ * Behaviour of a kind of object: its role in the game, how it is created, what happens when a player walks into it
+ * (for the objects players collide with), how many hits remove it and what happens when a player steps on it.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public final class EntityType {
+
+    //==================== Attributes ===================
+
+    /**
+     * Role of a kind of object in the game.
+     */
+    public enum Role {
+        /**
+         * Picked up by the players: counted in the heatmap and reported to the listeners.
+         */
+        ITEM,
+        /**
+         * Stays in its cell and blocks or slows down the players.
+         */
+        OBSTACLE,
+        /**
+         * A player.
+         */
+        PLAYER,
+        /**
+         * Moves on its own, scheduled by the game.
+         */
+        MONSTER
+    }
+
+    /**
+     * Creates the objects of a kind.
+     */
+    public interface Factory {
+
+        /**
+         * Create an object.
+         *
+         * @param position Position of the object.
+         * @param useEmoji True when the player wants to use emoji.
+         * @param rules    Rules of the match.
+         * @return The new object.
+         */
+        GameObject create(Point position, boolean useEmoji, GameRules rules);
+    }
+
+    /**
+     * Called when a player walks into an object it collides with.
+     */
+    public interface Collision {
+
+        /**
+         * Handle the collision.
+         *
+         * @param gameLogic The game.
+         * @param player    The player who tried to move.
+         * @param obstacle  The object.
+         * @return true if the step is used, false if the player must choose another direction.
+         */
+        boolean collide(GameLogic gameLogic, Player player, GameObject obstacle);
+    }
+
+    /**
+     * Called when a player steps on an object.
+     */
+    public interface Pickup {
+
+        /**
+         * Handle the object.
+         *
+         * @param gameLogic  The game.
+         * @param player     The player who stepped on the object.
+         * @param gameObject The object.
+         */
+        void pickUp(GameLogic gameLogic, Player player, GameObject gameObject);
+    }
+
+    /**
+     * Number of hits that remove an object players walk into, the state of the object kept by the snapshots.
+     */
+    public interface Durability {
+
+        /**
+         * Get the number of hits that remove an object.
+         *
+         * @param gameObject The object.
+         * @return The number of hits, 0 if the object is never removed by hitting it.
+         */
+        int hitsToRemove(GameObject gameObject);
+
+        /**
+         * Set the number of hits that remove an object, e.g. when it is restored from a snapshot.
+         * Nothing is done for the objects never removed by hitting them.
+         *
+         * @param gameObject The object.
+         * @param hits       The number of hits.
+         */
+        default void setHitsToRemove(GameObject gameObject, int hits) {
+        }
+    }
+
+    /**
+     * Collision of the objects that simply stop the player.
+     */
+    public static final Collision STOP = (gameLogic, player, obstacle) -> false;
+
+    /**
+     * Pickup of the objects that do nothing when a player steps on them.
+     */
+    public static final Pickup NOTHING = (gameLogic, player, gameObject) -> {
+    };
+
+    /**
+     * Durability of the objects that are never removed by hitting them.
+     */
+    public static final Durability UNBREAKABLE = gameObject -> 0;
+
+    /**
+     * Role of the objects.
+     */
+    private final Role role;
+
+    /**
+     * Creates the objects.
+     */
+    private final Factory factory;
+
+    /**
+     * Handles the collisions.
+     */
+    private final Collision collision;
+
+    /**
+     * Handles the players stepping on the objects.
+     */
+    private final Pickup pickup;
+
+    /**
+     * Number of hits that remove the objects.
+     */
+    private final Durability durability;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor of a kind never removed by hitting it.
+     *
+     * @param role      Role of the objects.
+     * @param factory   Creates the objects, null if they are not placed on the board by the game.
+     * @param collision Handles the collisions.
+     * @param pickup    Handles the players stepping on the objects.
+     */
+    public EntityType(Role role, Factory factory, Collision collision, Pickup pickup) {
+        this(role, factory, collision, pickup, UNBREAKABLE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param role       Role of the objects.
+     * @param factory    Creates the objects, null if they are not placed on the board by the game.
+     * @param collision  Handles the collisions.
+     * @param pickup     Handles the players stepping on the objects.
+     * @param durability Number of hits that remove the objects.
+     * @throws IllegalArgumentException If the role, the collision, the pickup or the durability are missing.
+     */
+    public EntityType(Role role, Factory factory, Collision collision, Pickup pickup, Durability durability) {
+        if (role == null || collision == null || pickup == null || durability == null) {
+            throw new IllegalArgumentException("Incomplete behaviour");
+        }
+        this.role = role;
+        this.factory = factory;
+        this.collision = collision;
+        this.pickup = pickup;
+        this.durability = durability;
+    }
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Get the role of the objects.
+     *
+     * @return The role.
+     */
+    public Role getRole() {
+        return role;
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Check if the objects of this kind are picked up by the players.
+     *
+     * @return true for the items.
+     */
+    public boolean isItem() {
+        return role == Role.ITEM;
+    }
+
+    /**
+     * Check if the objects of this kind move on their own.
+     *
+     * @return true for the monsters.
+     */
+    public boolean isMonster() {
+        return role == Role.MONSTER;
+    }
+
+    /**
+     * Get the number of hits that remove an object of this kind.
+     *
+     * @param gameObject The object.
+     * @return The number of hits, 0 if the object is never removed by hitting it.
+     */
+    public int hitsToRemove(GameObject gameObject) {
+        return durability.hitsToRemove(gameObject);
+    }
+
+    /**
+     * Set the number of hits that remove an object of this kind.
+     *
+     * @param gameObject The object.
+     * @param hits       The number of hits.
+     */
+    public void setHitsToRemove(GameObject gameObject, int hits) {
+        durability.setHitsToRemove(gameObject, hits);
+    }
+
+    /**
+     * Create an object of this kind in a saved state.
+     *
+     * @param position Position of the object.
+     * @param useEmoji True when the player wants to use emoji.
+     * @param rules    Rules of the match.
+     * @param hits     Number of hits that remove the object, 0 to keep the one of a new object.
+     * @return The new object.
+     * @throws IllegalStateException If the kind has no factory.
+     */
+    public GameObject create(Point position, boolean useEmoji, GameRules rules, int hits) {
+        GameObject gameObject = create(position, useEmoji, rules);
+        if (hits > 0) {
+            setHitsToRemove(gameObject, hits);
+        }
+        return gameObject;
+    }
+
+    /**
+     * Check if the objects of this kind simply stop the players (the step is not used).
+     *
+     * @return true if a player can't walk into the objects.
+     */
+    public boolean stopsPlayer() {
+        return collision == STOP;
+    }
+
+    /**
+     * Create an object of this kind.
+     *
+     * @param position Position of the object.
+     * @param useEmoji True when the player wants to use emoji.
+     * @param rules    Rules of the match.
+     * @return The new object.
+     * @throws IllegalStateException If the kind has no factory.
+     */
+    public GameObject create(Point position, boolean useEmoji, GameRules rules) {
+        if (factory == null) {
+            throw new IllegalStateException("This kind of object can't be created on the board");
+        }
+        return factory.create(position, useEmoji, rules);
+    }
+
+    /**
+     * Handle a player walking into an object of this kind.
+     *
+     * @param gameLogic The game.
+     * @param player    The player.
+     * @param obstacle  The object.
+     * @return true if the step is used, false if the player must choose another direction.
+     */
+    public boolean collide(GameLogic gameLogic, Player player, GameObject obstacle) {
+        return collision.collide(gameLogic, player, obstacle);
+    }
+
+    /**
+     * Handle a player stepping on an object of this kind.
+     *
+     * @param gameLogic  The game.
+     * @param player     The player.
+     * @param gameObject The object.
+     */
+    public void pickUp(GameLogic gameLogic, Player player, GameObject gameObject) {
+        pickup.pickUp(gameLogic, player, gameObject);
+    }
+}
@@ -0,0 +1,204 @@
+package gameEngine;
+
+import gameObjects.Dice;
+import gameObjects.GameObject;
+import gameObjects.Player;
+
+import java.util.SplittableRandom;
+
+/**
+ * Resolves a fight between two players, or between a player and a monster, without recursion.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class FightResolver {
+
+    //==================== Attributes ===================
+
+    /**
+     * How the dice of a fight are rolled.
+     */
+    public enum Mode {
+        /**
+         * Animated dice on the console, as in the interactive game.
+         */
+        ANIMATED,
+        /**
+         * Silent dice rolled one round at a time (draws are rolled again).
+         */
+        FAST,
+        /**
+         * Silent, the winner is drawn once from the probability of winning after any number of draws.
+         */
+        CLOSED_FORM
+    }
+
+    /**
+     * Probability of winning a fight in {@link Mode#CLOSED_FORM}: both fighters throw a dice with the same sides,
+     * so {@link Dice#winProbability(int, int)} is always one half.
+     */
+    private static final double WIN_PROBABILITY = 0.5;
+
+    /**
+     * How the dice are rolled.
+     */
+    private final Mode mode;
+
+    /**
+     * Random generator used by the silent modes.
+     */
+    private final SplittableRandom random;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor.
+     *
+     * @param mode   How the dice are rolled.
+     * @param random Random generator used by the silent modes, e.g. split from the one of the game.
+     * @throws IllegalArgumentException If the generator is null.
+     */
+    public FightResolver(Mode mode, SplittableRandom random) {
+        if (random == null) {
+            throw new IllegalArgumentException("A fight resolver needs a random generator");
+        }
+        this.mode = mode;
+        this.random = random;
+    }
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Get how the dice are rolled.
+     *
+     * @return The mode.
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Check if the fight is shown on the console.
+     *
+     * @return true if the fight is shown.
+     */
+    public boolean isVerbose() {
+        return mode == Mode.ANIMATED;
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Throws the dice for a fighter.
+     *
+     * @param name  Name of the fighter who throws the dice.
+     * @param sides Sides of the dice.
+     * @return The result of the throw.
+     */
+    private int throwDice(String name, int sides) {
+        if (mode == Mode.ANIMATED) {
+            System.out.print(name + "'s result: ");
+            return Dice.throwDice(sides);
+        }
+        return Dice.roll(random, sides);
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Resolve a fight. The decisions about gems and potions are taken by the controllers of the players,
+     * a gem is consumed and its owner moved to a random free cell, a used potion is consumed.
+     * In {@link Mode#CLOSED_FORM} the decisions are asked only once because a draw doesn't change the state
+     * of the game, so a controller answers the same way on every round.
+     *
+     * @param gameLogic The logic of the game.
+     * @param player1   Player who started the fight.
+     * @param player2   Other player.
+     * @return The outcome of the fight.
+     */
+    public FightResult resolve(GameLogic gameLogic, Player player1, Player player2) {
+        Player[] players = { player1, player2 };
+        int[] playerThrows = new int[2];
+        int sides = gameLogic.getRules().getDiceSides();
+        int rounds = 0;
+
+        while (true) {
+            rounds++;
+            for (int i = 0; i < players.length; i++) {
+                PlayerController controller = gameLogic.getController(players[i]);
+                if (players[i].getGems() > 0 && controller.useGem(gameLogic, players[i])) {
+                    players[i].decrementGems();
+                    gameLogic.moveToRandomFreeCell(players[i]);
+                    return new FightResult(null, null, players[i], false, rounds);
+                }
+                if (players[i].getPotions() > 0 && controller.usePotion(gameLogic, players[i])) {
+                    players[i].decrementPotions();
+                    return new FightResult(players[i], players[(i + 1) % 2], null, true, rounds);
+                }
+                if (mode != Mode.CLOSED_FORM) {
+                    playerThrows[i] = throwDice(players[i].getUsername(), sides);
+                }
+            }
+
+            if (mode == Mode.CLOSED_FORM) {
+                int winner = random.nextDouble() < WIN_PROBABILITY ? 0 : 1;
+                return new FightResult(players[winner], players[1 - winner], null, false, rounds);
+            }
+            if (playerThrows[0] > playerThrows[1]) {
+                return new FightResult(players[0], players[1], null, false, rounds);
+            } else if (playerThrows[1] > playerThrows[0]) {
+                return new FightResult(players[1], players[0], null, false, rounds);
+            }
+            if (isVerbose()) {
+                System.out.println("Draw!");
+            }
+        }
+    }
+
+    /**
+     * Resolve a fight between a player and a monster. The player decides about gems and potions as in a fight
+     * between players, the monster throws a dice with the same sides. The monster is neither the winner nor the
+     * loser of the result: the winner is the player if the player won, the loser if the monster won.
+     *
+     * @param gameLogic The logic of the game.
+     * @param player    The player.
+     * @param monster   The monster.
+     * @return The outcome of the fight.
+     */
+    public FightResult resolve(GameLogic gameLogic, Player player, GameObject monster) {
+        int sides = gameLogic.getRules().getDiceSides();
+        PlayerController controller = gameLogic.getController(player);
+        int rounds = 0;
+
+        while (true) {
+            rounds++;
+            if (player.getGems() > 0 && controller.useGem(gameLogic, player)) {
+                player.decrementGems();
+                gameLogic.moveToRandomFreeCell(player);
+                return new FightResult(null, null, player, false, rounds);
+            }
+            if (player.getPotions() > 0 && controller.usePotion(gameLogic, player)) {
+                player.decrementPotions();
+                return new FightResult(player, null, null, true, rounds);
+            }
+            boolean playerWins;
+            if (mode == Mode.CLOSED_FORM) {
+                playerWins = random.nextDouble() < WIN_PROBABILITY;
+            } else {
+                int playerThrow = throwDice(player.getUsername(), sides);
+                int monsterThrow = throwDice("Monster", sides);
+                if (playerThrow == monsterThrow) {
+                    if (isVerbose()) {
+                        System.out.println("Draw!");
+                    }
+                    continue;
+                }
+                playerWins = playerThrow > monsterThrow;
+            }
+            return playerWins
+                    ? new FightResult(player, null, null, false, rounds)
+                    : new FightResult(null, player, null, false, rounds);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package gameEngine;
+
+import gameObjects.Player;
+
+/**
+ * Outcome of a fight between two players, or between a player and a monster.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class FightResult {
+
+    //==================== Attributes ===================
+
+    /**
+     * Winner of the fight, null if a player escaped or a monster won.
+     */
+    private final Player winner;
+
+    /**
+     * Loser of the fight, null if a player escaped or a monster lost.
+     */
+    private final Player loser;
+
+    /**
+     * Player who used a gem to escape, null if nobody escaped.
+     */
+    private final Player escaped;
+
+    /**
+     * True if the fight was won with a potion.
+     */
+    private final boolean potionUsed;
+
+    /**
+     * Number of dice rounds played (draws included).
+     */
+    private final int rounds;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor.
+     *
+     * @param winner     Winner of the fight.
+     * @param loser      Loser of the fight.
+     * @param escaped    Player who escaped with a gem.
+     * @param potionUsed True if the fight was won with a potion.
+     * @param rounds     Number of dice rounds played.
+     */
+    FightResult(Player winner, Player loser, Player escaped, boolean potionUsed, int rounds) {
+        this.winner = winner;
+        this.loser = loser;
+        this.escaped = escaped;
+        this.potionUsed = potionUsed;
+        this.rounds = rounds;
+    }
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Get the winner of the fight.
+     *
+     * @return The winner, null if a player escaped.
+     */
+    public Player getWinner() {
+        return winner;
+    }
+
+    /**
+     * Get the loser of the fight.
+     *
+     * @return The loser, null if a player escaped.
+     */
+    public Player getLoser() {
+        return loser;
+    }
+
+    /**
+     * Get the player who escaped with a gem.
+     *
+     * @return The player who escaped, null if nobody escaped.
+     */
+    public Player getEscaped() {
+        return escaped;
+    }
+
+    /**
+     * Check if the fight was won with a potion.
+     *
+     * @return true if a potion was used.
+     */
+    public boolean isPotionUsed() {
+        return potionUsed;
+    }
+
+    /**
+     * Get the number of dice rounds played.
+     *
+     * @return The number of rounds.
+     */
+    public int getRounds() {
+        return rounds;
+    }
+}
@@ -37,9 +37,14 @@ public class GameBoard{
     private int boardSizeY = DEFAULT_ROWS;
 
     /**
-     * Textual rappresentation of the options.
+     * Rappresentation of a cell hidden by the fog of war.
      */
-    private final TextualRappresentation options;
+    private static final String FOG = Color.ANSI_BLACK + "░░" + Color.ANSI_RESET;
+
+    /**
+     * Textual rappresentation of the options, created the first time they are shown.
+     */
+    private TextualRappresentation options;
 
     // ==================== Constructors ====================
     /**
@@ -48,12 +53,21 @@ public class GameBoard{
      * @param sizeY Game board rows.
      */
     public GameBoard(int sizeX, int sizeY, boolean useEmoji){
-        gameLogic = new GameLogic(sizeX, sizeY, useEmoji);
+        this(sizeX, sizeY, useEmoji, GameRules.DEFAULT);
+    }
+
+    /**
+     * Constructor.
+     * @param sizeX Game board columns.
+     * @param sizeY Game board rows.
+     * @param rules Rules of the match.
+     */
+    public GameBoard(int sizeX, int sizeY, boolean useEmoji, GameRules rules){
+        gameLogic = new GameLogic(sizeX, sizeY, useEmoji, rules);
         if(sizeX > 0 && sizeY > 0){
             this.boardSizeX = sizeX;
             this.boardSizeY = sizeY;
         }
-        options = new TextualRappresentation(this);
     }
 
     /**
@@ -67,6 +81,24 @@ public class GameBoard{
         this(DEFAULT_COLUMNS, DEFAULT_ROWS, false);
     }
 
+    /**
+     * Constructor. The number of rows and columns are taken from the rules.
+     * @param rules Rules of the match.
+     */
+    public GameBoard(GameRules rules, boolean useEmoji){
+        this(rules.getColumns(), rules.getRows(), useEmoji, rules);
+    }
+
+    /**
+     * Constructor that shows an existing game (e.g. a replay).
+     * @param gameLogic Logic of the game.
+     */
+    public GameBoard(GameLogic gameLogic){
+        this.gameLogic = gameLogic;
+        this.boardSizeX = gameLogic.getSizeX();
+        this.boardSizeY = gameLogic.getSizeY();
+    }
+
 
     // ==================== Getters and Setters ====================
 
@@ -82,16 +114,20 @@ public class GameBoard{
     //==================== private methods ====================
 
     /**
-     * Given a point, return the character rappresentation of the cell.
+     * Given a cell, return the character rappresentation of the cell.
      *
-     * @param point Point to check.
+     * @param x Column of the cell.
+     * @param y Row of the cell.
+     * @param visible Cells seen by the current player, null if the whole board is visible.
      * @return Character rappresentation of the cell.
      */
-    private String getCellChar(Point point){
-        for(GameObject gameObject : gameLogic.getGameObjects()){
-            if(gameObject.getPosition().equals(point)){
-                return gameObject.getColor()+""+gameObject.getCharacter()+Color.ANSI_RESET;
-            }
+    private String getCellChar(int x, int y, BitGrid visible){
+        if(visible != null && !visible.get(x, y)){
+            return FOG;
+        }
+        GameObject gameObject = gameLogic.getSpatialIndex().getAt(x, y);
+        if(gameObject != null){
+            return gameObject.getGlyph().getText();
         }
         return "  ";
     }
@@ -99,45 +135,53 @@ public class GameBoard{
     //==================== public methods ====================
 
     /**
-     * Show the game board on the terminal.
+     * Build the text of the game board and of the players' info, as shown on the terminal.
+     *
+     * @return The text of the board.
      */
-    public void show(){
-        Util.clearScreen();
-        for(int i = 0; i < boardSizeY*7+1; i++){
-            System.out.print("-");
-        }
-        System.out.println();
-        for(int i = 0; i < boardSizeX; i++){
-            System.out.print("|  ");
+    public String render(){
+        BitGrid visible = gameLogic.getVisibleCells(gameLogic.getCurrentPlayer());
+        StringBuilder sb = new StringBuilder(boardSizeY * boardSizeX * 24);
+        String line = "-".repeat(boardSizeX*7+1);
+        sb.append(line).append('\n');
+        for(int i = 0; i < boardSizeY; i++){
+            sb.append("|  ");
             for(int j = 0; j < boardSizeX; j++) {
-                System.out.print(getCellChar(new Point(j, i)));
-                System.out.print("  |  ");
+                sb.append(getCellChar(j, i, visible)).append("  |  ");
             }
-            System.out.println();
-            for(int j = 0; j < boardSizeY*7+1; j++){
-                System.out.print("-");
-            }
-            System.out.println();
+            sb.append('\n').append(line).append('\n');
         }
 
         //Print players info 
-        for(GameObject gameObject : getGameLogic().getGameObjects()){
-            if(gameObject instanceof Player){
-                Player p = (Player) gameObject;
-                System.out.print(p.getColor()+""+p.getCharacter()+Color.ANSI_RESET+"\t");
-                System.out.print(Coin.COIN_COLOR+""+Coin.COIN_CHARACTER+p.getCoins()+Color.ANSI_RESET+"\t");
-                System.out.print(Gem.GEM_COLOR+""+Gem.GEM_CHARACTER+" "+p.getGems()+Color.ANSI_RESET+"\t");
-                System.out.print(Potion.POTION_COLOR+""+Potion.POTION_CHARACTER+" "+p.getPotions()+Color.ANSI_RESET+"\t");
-                System.out.println();
-            }
+        for(int i = 0; i < GameLogic.NUMBER_OF_PLAYERS; i++){
+            Player p = (Player) gameLogic.getGameObjects().get(i);
+            sb.append(p.getGlyph().getText()).append('\t');
+            sb.append(Coin.COIN_COLOR).append(Coin.COIN_CHARACTER).append(p.getCoins()).append(Color.ANSI_RESET).append('\t');
+            sb.append(Gem.GEM_COLOR).append(Gem.GEM_CHARACTER).append(' ').append(p.getGems()).append(Color.ANSI_RESET).append('\t');
+            sb.append(Potion.POTION_COLOR).append(Potion.POTION_CHARACTER).append(' ').append(p.getPotions()).append(Color.ANSI_RESET).append('\t');
+            sb.append('\n');
         }
-        System.out.println();
+        sb.append('\n');
+        return sb.toString();
+    }
+
+    /**
+     * Show the game board on the terminal.
+     */
+    public void show(){
+        String board = render();
+        Util.clearScreen();
+        System.out.print(board);
+        System.out.flush();
     }
 
     /**
      * Show the options on the terminal.
      */
     public void showOptions(){
+        if(options == null){
+            options = new TextualRappresentation(this);
+        }
         options.ask();
     }
 
@@ -0,0 +1,302 @@
+package gameEngine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Undo and redo of a game. Every recorded state is stored as a frame of {@link DeltaEncoder}: a keyframe (the
+ * whole board) every few states and only the changes in between, so a long match takes little memory and any
+ * state is rebuilt from the nearest keyframe with a few deltas. Recording after an undo drops the states that
+ * could be redone, like an editor; {@link #branch(int)} gives instead an independent game from any state.
+ * <p>
+ * Added as a listener of the game, the history records every change by itself.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class GameHistory implements GameListener {
+
+    //==================== Attributes ===================
+
+    /**
+     * Default number of states between two keyframes.
+     */
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 32;
+
+    /**
+     * The game.
+     */
+    private final GameLogic gameLogic;
+
+    /**
+     * Number of states between two keyframes.
+     */
+    private final int checkpointInterval;
+
+    /**
+     * Frames of the recorded states, a keyframe every {@link #checkpointInterval} states.
+     */
+    private final List<byte[]> frames = new ArrayList<>();
+
+    /**
+     * Index of the state of the game.
+     */
+    private int cursor = -1;
+
+    /**
+     * Snapshot of the state of the game.
+     */
+    private BoardSnapshot current;
+
+    /**
+     * True while the game is put back in a recorded state, so the change is not recorded.
+     */
+    private boolean restoring;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor, the current state of the game is the first state.
+     *
+     * @param gameLogic          The game.
+     * @param checkpointInterval Number of states between two keyframes.
+     */
+    public GameHistory(GameLogic gameLogic, int checkpointInterval) {
+        if (checkpointInterval < 1) {
+            throw new IllegalArgumentException("Invalid checkpoint interval: " + checkpointInterval);
+        }
+        this.gameLogic = gameLogic;
+        this.checkpointInterval = checkpointInterval;
+        record();
+    }
+
+    /**
+     * Constructor with the default checkpoint interval.
+     *
+     * @param gameLogic The game.
+     */
+    public GameHistory(GameLogic gameLogic) {
+        this(gameLogic, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Get the number of recorded states.
+     *
+     * @return The number of states.
+     */
+    public int size() {
+        return frames.size();
+    }
+
+    /**
+     * Get the index of the state of the game.
+     *
+     * @return The index of the state.
+     */
+    public int getCursor() {
+        return cursor;
+    }
+
+    /**
+     * Get the number of states between two keyframes.
+     *
+     * @return The checkpoint interval.
+     */
+    public int getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    /**
+     * Get the memory used by the frames.
+     *
+     * @return The number of bytes of all the frames.
+     */
+    public long getByteSize() {
+        long size = 0;
+        for (byte[] frame : frames) {
+            size += frame.length;
+        }
+        return size;
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Put the game in a recorded state.
+     *
+     * @param index Index of the state.
+     */
+    private void moveTo(int index) {
+        BoardSnapshot snapshot = snapshotAt(index);
+        restoring = true;
+        try {
+            gameLogic.restore(snapshot);
+        } finally {
+            restoring = false;
+        }
+        current = snapshot;
+        cursor = index;
+    }
+
+    /**
+     * Create an independent copy of the game in a state, with a fight resolver of its own so its fights don't
+     * use the dice of the game either.
+     *
+     * @param snapshot The state.
+     * @param random   Random generator of the copy.
+     * @return The copy of the game.
+     */
+    private GameLogic branch(BoardSnapshot snapshot, SplittableRandom random) {
+        GameLogic copy = gameLogic.copy(random);
+        copy.setFightResolver(new FightResolver(gameLogic.getFightResolver().getMode(), random.split()));
+        copy.restore(snapshot);
+        return copy;
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Record the state of the game after the current one, if it changed. The states that could be redone are dropped.
+     *
+     * @return true if a state was recorded.
+     */
+    public boolean record() {
+        BoardSnapshot snapshot = BoardSnapshot.of(gameLogic);
+        BoardDelta delta = null;
+        if (current != null) {
+            delta = BoardDelta.between(current, snapshot);
+            if (delta.isEmpty()) {
+                return false;
+            }
+        }
+        frames.subList(cursor + 1, frames.size()).clear();
+        cursor++;
+        frames.add(cursor % checkpointInterval == 0 ? DeltaEncoder.keyframe(snapshot) : DeltaEncoder.delta(delta));
+        current = snapshot;
+        return true;
+    }
+
+    /**
+     * Record the change of the game, unless it was caused by an undo or a redo.
+     *
+     * @param gameLogic The game that changed.
+     */
+    @Override
+    public void onChange(GameLogic gameLogic) {
+        if (!restoring) {
+            record();
+        }
+    }
+
+    /**
+     * Check if there is a state before the current one.
+     *
+     * @return true if {@link #undo()} can be called.
+     */
+    public boolean canUndo() {
+        return cursor > 0;
+    }
+
+    /**
+     * Check if there is a state after the current one.
+     *
+     * @return true if {@link #redo()} can be called.
+     */
+    public boolean canRedo() {
+        return cursor < frames.size() - 1;
+    }
+
+    /**
+     * Put the game back in the previous state.
+     *
+     * @throws IllegalStateException If there is nothing to undo.
+     */
+    public void undo() {
+        if (!canUndo()) {
+            throw new IllegalStateException("Nothing to undo");
+        }
+        moveTo(cursor - 1);
+    }
+
+    /**
+     * Put the game in the next state again.
+     *
+     * @throws IllegalStateException If there is nothing to redo.
+     */
+    public void redo() {
+        if (!canRedo()) {
+            throw new IllegalStateException("Nothing to redo");
+        }
+        moveTo(cursor + 1);
+    }
+
+    /**
+     * Put the game in any recorded state; the later states can still be redone.
+     *
+     * @param index Index of the state.
+     * @throws IllegalArgumentException If there is no such state.
+     */
+    public void goTo(int index) {
+        moveTo(index);
+    }
+
+    /**
+     * Rebuild a recorded state from its keyframe, or from the current state when it is on the way.
+     *
+     * @param index Index of the state.
+     * @return The snapshot of the state.
+     * @throws IllegalArgumentException If there is no such state.
+     */
+    public BoardSnapshot snapshotAt(int index) {
+        if (index < 0 || index >= frames.size()) {
+            throw new IllegalArgumentException("No state " + index + " in the history");
+        }
+        if (index == cursor) {
+            return current;
+        }
+        int from = index - index % checkpointInterval;
+        DeltaDecoder decoder;
+        if (cursor >= from && cursor < index) {
+            decoder = new DeltaDecoder(current);
+            from = cursor + 1;
+        } else {
+            decoder = new DeltaDecoder();
+        }
+        for (int i = from; i <= index; i++) {
+            decoder.decode(frames.get(i));
+        }
+        return decoder.getSnapshot();
+    }
+
+    /**
+     * Create an independent copy of the game in a recorded state, to explore another line of play.
+     * The game and the history are not changed: the random generator of the copy is derived from the recorded
+     * state, never split from the one of the game, so branching doesn't change the dice of the game.
+     *
+     * @param index Index of the state.
+     * @return The copy of the game.
+     * @throws IllegalArgumentException If there is no such state.
+     */
+    public GameLogic branch(int index) {
+        BoardSnapshot snapshot = snapshotAt(index);
+        long seed = index * 0x9E3779B97F4A7C15L ^ Arrays.hashCode(frames.get(index));
+        return branch(snapshot, new SplittableRandom(seed));
+    }
+
+    /**
+     * Create an independent copy of the game in a recorded state, with the dice of a given generator.
+     * The game and the history are not changed.
+     *
+     * @param index  Index of the state.
+     * @param random Random generator of the copy (used by the copy only).
+     * @return The copy of the game.
+     * @throws IllegalArgumentException If there is no such state.
+     */
+    public GameLogic branch(int index, SplittableRandom random) {
+        return branch(snapshotAt(index), random);
+    }
+}
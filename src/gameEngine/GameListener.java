@@ -0,0 +1,42 @@
+package gameEngine;
+
+import gameObjects.GameObject;
+import gameObjects.Player;
+
+/**
+ * Listener notified when the state of a game changes.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public interface GameListener {
+
+    /**
+     * Called on the game thread after every change of the state (a move, a hit tree, a new turn, the end of the game).
+     *
+     * @param gameLogic The game that changed.
+     */
+    void onChange(GameLogic gameLogic);
+
+    /**
+     * Called on the game thread after a fight, before the change of the state is notified.
+     *
+     * @param gameLogic The game.
+     * @param attacker  The player who started the fight.
+     * @param defender  The other player or the monster.
+     * @param result    The outcome of the fight.
+     */
+    default void onFight(GameLogic gameLogic, Player attacker, GameObject defender, FightResult result) {
+    }
+
+    /**
+     * Called on the game thread when a player picks up an item (coin, gem or potion), before the change
+     * of the state is notified.
+     *
+     * @param gameLogic The game.
+     * @param player    The player.
+     * @param item      The item, already removed from the board.
+     */
+    default void onPickUp(GameLogic gameLogic, Player player, GameObject item) {
+    }
+}
@@ -1,10 +1,9 @@
 package gameEngine;
 
-import menu.Menu;
-import menu.option.GenericOption;
 import gameObjects.*;
 import general.*;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Logic for the game.
@@ -44,6 +43,11 @@ public class GameLogic {
      */
     private boolean gameOver = false;
 
+    /**
+     * Player who won the game in a fight, null if the game didn't end with a fight.
+     */
+    private Player fightWinner;
+
     /**
      * List with all the objects of the game.
      */
@@ -66,6 +70,81 @@ public class GameLogic {
 
     private boolean useEmoji;
 
+    /**
+     * Rules of the match.
+     */
+    private final GameRules rules;
+
+    /**
+     * Controllers of the players, indexed like the players.
+     */
+    private final PlayerController[] controllers;
+
+    /**
+     * Resolver used for the fights, the animated one until another is set.
+     */
+    private FightResolver fightResolver;
+
+    /**
+     * Cells occupied by each type of object, indexed by the ordinal of the ObjectName.
+     */
+    private final BitGrid[] layers;
+
+    /**
+     * Cells occupied by objects that players collide with.
+     */
+    private final BitGrid blocking;
+
+    /**
+     * Number of changes of the blocking cells.
+     */
+    private long blockingVersion;
+
+    /**
+     * Cells seen by the players, null if the whole board is visible.
+     */
+    private final Visibility visibility;
+
+    /**
+     * Behaviour of the kinds of objects.
+     */
+    private EntityRegistry registry = EntityRegistry.DEFAULT;
+
+    /**
+     * Scheduler of the moves of the monsters.
+     */
+    private final MonsterScheduler monsters;
+
+    /**
+     * Index of the objects by cell, with the area queries.
+     */
+    private final SpatialIndex spatial;
+
+    /**
+     * Cells where the players were when the player layer was last updated.
+     */
+    private final int[] playerCells = new int[NUMBER_OF_PLAYERS];
+
+    /**
+     * Work area for the operations on the layers.
+     */
+    private final BitGrid buffer;
+
+    /**
+     * Random generator of the match.
+     */
+    private final SplittableRandom random;
+
+    /**
+     * Collector of the visited cells, null if the cells are not counted.
+     */
+    private HeatmapCollector heatmap;
+
+    /**
+     * Listeners notified when the state changes.
+     */
+    private final List<GameListener> listeners = new CopyOnWriteArrayList<>();
+
     // ==================== Constructors ====================
 
     /**
@@ -86,15 +165,177 @@ public class GameLogic {
      * @param useEmoji True when the player wants to use emoji.
      */
     public GameLogic(int sizeX, int sizeY, boolean useEmoji) {
+        this(sizeX, sizeY, useEmoji, GameRules.DEFAULT);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sizeX    Board width.
+     * @param sizeY    Board height.
+     * @param useEmoji True when the player wants to use emoji.
+     * @param rules    Rules of the match.
+     */
+    public GameLogic(int sizeX, int sizeY, boolean useEmoji, GameRules rules) {
+        this(sizeX, sizeY, useEmoji, rules, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Constructor, the board is generated from a seed.
+     *
+     * @param sizeX    Board width.
+     * @param sizeY    Board height.
+     * @param useEmoji True when the player wants to use emoji.
+     * @param rules    Rules of the match.
+     * @param seed     Seed of the match (board generation and random events).
+     */
+    public GameLogic(int sizeX, int sizeY, boolean useEmoji, GameRules rules, long seed) {
+        this(sizeX, sizeY, useEmoji, rules, new SplittableRandom(seed), null);
+    }
+
+    /**
+     * Constructor, the items are placed as in a layout. With the layout of {@link #getBoardSeed(long)}
+     * the game is the same as the one created from the seed.
+     *
+     * @param layout   Placement of the items.
+     * @param useEmoji True when the player wants to use emoji.
+     * @param rules    Rules of the match.
+     * @param seed     Seed of the random events of the match.
+     */
+    public GameLogic(BoardLayout layout, boolean useEmoji, GameRules rules, long seed) {
+        this(layout.getSizeX(), layout.getSizeY(), useEmoji, rules, new SplittableRandom(seed), layout);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sizeX    Board width.
+     * @param sizeY    Board height.
+     * @param useEmoji True when the player wants to use emoji.
+     * @param rules    Rules of the match.
+     * @param random   Random generator of the match.
+     * @param layout   Placement of the items, null to generate it.
+     */
+    private GameLogic(int sizeX, int sizeY, boolean useEmoji, GameRules rules, SplittableRandom random,
+            BoardLayout layout) {
+        this.rules = rules;
         this.useEmoji = useEmoji;
         this.sizeX = sizeX;
         this.sizeY = sizeY;
+        this.random = random;
+        // The animated dice never draw from the generator, so the match plays the same as with no resolver
+        this.fightResolver = new FightResolver(FightResolver.Mode.ANIMATED, random);
         gameObjects = new ArrayList<>();
-        generateItems();
+        layers = new BitGrid[ObjectName.values().length];
+        for (int i = 0; i < layers.length; i++) {
+            layers[i] = new BitGrid(sizeX, sizeY);
+        }
+        blocking = new BitGrid(sizeX, sizeY);
+        buffer = new BitGrid(sizeX, sizeY);
+        visibility = createVisibility();
+        controllers = new PlayerController[NUMBER_OF_PLAYERS];
+        Arrays.fill(controllers, new ConsoleController());
+        monsters = new MonsterScheduler(this);
+        spatial = new SpatialIndex(this);
+        generatePlayers();
+        long boardSeed = random.nextLong();
+        if (layout == null) {
+            layout = new BoardGenerator(rules, sizeX, sizeY).generate(boardSeed);
+        }
+        applyLayout(layout);
+    }
+
+    /**
+     * Copy constructor, used by {@link #copy()} and {@link #copy(SplittableRandom)}.
+     *
+     * @param other  The logic to copy.
+     * @param random Random generator of the copy.
+     */
+    private GameLogic(GameLogic other, SplittableRandom random) {
+        this.rules = other.rules;
+        this.useEmoji = other.useEmoji;
+        this.sizeX = other.sizeX;
+        this.sizeY = other.sizeY;
+        this.gameOver = other.gameOver;
+        this.controllers = other.controllers.clone();
+        this.fightResolver = other.fightResolver;
+        this.registry = other.registry;
+        this.random = random;
+        gameObjects = new ArrayList<>(other.gameObjects.size());
+        for (GameObject gameObject : other.gameObjects) {
+            gameObjects.add(gameObject.copy());
+        }
+        monsters = new MonsterScheduler(this, other.monsters);
+        spatial = new SpatialIndex(this);
+        for (int i = NUMBER_OF_PLAYERS; i < gameObjects.size(); i++) {
+            spatial.add(gameObjects.get(i));
+        }
+        layers = new BitGrid[other.layers.length];
+        for (int i = 0; i < layers.length; i++) {
+            layers[i] = new BitGrid(other.layers[i]);
+        }
+        blocking = new BitGrid(other.blocking);
+        blockingVersion = other.blockingVersion;
+        buffer = new BitGrid(sizeX, sizeY);
+        visibility = createVisibility();
+        System.arraycopy(other.playerCells, 0, playerCells, 0, playerCells.length);
+        currentPlayer = (Player) gameObjects.get(other.gameObjects.indexOf(other.currentPlayer));
+        if (other.fightWinner != null) {
+            fightWinner = (Player) gameObjects.get(other.gameObjects.indexOf(other.fightWinner));
+        }
     }
 
     // ==================== Getters and Setters ====================
 
+    /**
+     * Get the board width.
+     *
+     * @return The board width.
+     */
+    public int getSizeX() {
+        return sizeX;
+    }
+
+    /**
+     * Get the board height.
+     *
+     * @return The board height.
+     */
+    public int getSizeY() {
+        return sizeY;
+    }
+
+    /**
+     * Get the starting cell of a player.
+     *
+     * @param playerIndex Index of the player (0 or 1).
+     * @param sizeX       Board width.
+     * @param sizeY       Board height.
+     * @return The starting cell.
+     */
+    public static Point getSpawn(int playerIndex, int sizeX, int sizeY) {
+        return playerIndex == 0 ? new Point(0, sizeY - 1) : new Point(sizeX - 1, 0);
+    }
+
+    /**
+     * Get the seed of the board generated for a match.
+     *
+     * @param seed Seed of the match.
+     * @return Seed of the board.
+     */
+    public static long getBoardSeed(long seed) {
+        return new SplittableRandom(seed).nextLong();
+    }
+
+    /**
+     * Get the random generator of the match.
+     *
+     * @return The random generator.
+     */
+    public SplittableRandom getRandom() {
+        return random;
+    }
+
     /**
      * Get the full list of game objects.
      *
@@ -104,6 +345,53 @@ public class GameLogic {
         return gameObjects;
     }
 
+    /**
+     * Get the rules of the match.
+     *
+     * @return The rules of the match.
+     */
+    public GameRules getRules() {
+        return rules;
+    }
+
+    /**
+     * Get the controller of a player.
+     *
+     * @param player The player.
+     * @return The controller of the player.
+     */
+    public PlayerController getController(Player player) {
+        return controllers[gameObjects.indexOf(player)];
+    }
+
+    /**
+     * Set the controller of a player.
+     *
+     * @param playerIndex Index of the player (0 or 1).
+     * @param controller  The controller.
+     */
+    public void setController(int playerIndex, PlayerController controller) {
+        controllers[playerIndex] = controller;
+    }
+
+    /**
+     * Get the resolver used for the fights.
+     *
+     * @return The fight resolver.
+     */
+    public FightResolver getFightResolver() {
+        return fightResolver;
+    }
+
+    /**
+     * Set the resolver used for the fights (e.g. a silent one for bulk simulations).
+     *
+     * @param fightResolver The fight resolver.
+     */
+    public void setFightResolver(FightResolver fightResolver) {
+        this.fightResolver = fightResolver;
+    }
+
     /**
      * Get the current player.
      *
@@ -119,16 +407,14 @@ public class GameLogic {
      * @return the winning player
      */
     public Player getWinner() {
-        Player bestPlayer = null;
-        for (GameObject gameObject : gameObjects) {
-            if (gameObject instanceof Player) {
-                if (bestPlayer == null) {
-                    bestPlayer = (Player) gameObject;
-                } else {
-                    if (bestPlayer.getCoins() < ((Player) gameObject).getCoins()) {
-                        bestPlayer = (Player) gameObject;
-                    }
-                }
+        if (fightWinner != null) {
+            return fightWinner;
+        }
+        Player bestPlayer = (Player) gameObjects.get(0);
+        for (int i = 1; i < NUMBER_OF_PLAYERS; i++) {
+            Player player = (Player) gameObjects.get(i);
+            if (bestPlayer.getCoins() < player.getCoins()) {
+                bestPlayer = player;
             }
         }
         return bestPlayer;
@@ -136,45 +422,29 @@ public class GameLogic {
 
     // ==================== private methods ====================
     /**
-     * Generate all the objects of the game.
+     * Add the items of a layout to the game.
+     *
+     * @param layout Placement of the items.
      */
-    private void generateItems() {
-        generatePlayers();
-        generate(ObjectName.Coin, NUMBER_OF_COINS);
-        generate(ObjectName.Gem, NUMBER_OF_GEMS);
-        generate(ObjectName.Rock, NUMBER_OF_ROCKS);
-        generate(ObjectName.Potion, NUMBER_OF_POTIONS);
-        generate(ObjectName.Tree, NUMBER_OF_TREES);
+    private void applyLayout(BoardLayout layout) {
+        for (int y = 0; y < sizeY; y++) {
+            for (int x = 0; x < sizeX; x++) {
+                ObjectName name = layout.getType(x, y);
+                if (name != null) {
+                    generate(name, new Point(x, y));
+                }
+            }
+        }
     }
 
     /**
      * Method that generates an object based on the objectname parameter
      * 
-     * @param objectName the object name
-     * @param quantity   the number of objects to generate
-     */
-    private void generate(ObjectName obj, int quantity) {
-        for (int i = 0; i < quantity; i++) {
-            switch (obj) {
-                case Gem:
-                    gameObjects.add(new Gem(getRandomFreeCell(), useEmoji));
-                    break;
-                case Potion:
-                    gameObjects.add(new Potion(getRandomFreeCell(), useEmoji));
-                    break;
-                case Rock:
-                    gameObjects.add(new Rock(getRandomFreeCell(), useEmoji));
-                    break;
-                case Tree:
-                    gameObjects.add(new Tree(getRandomFreeCell(), useEmoji));
-                    break;
-                case Coin:
-                    gameObjects.add(new Coin(getRandomFreeCell(), useEmoji));
-                    break;
-                default:
-                    break;
-            }
-        }
+     * @param obj      the object name
+     * @param position the position of the object
+     */
+    private void generate(ObjectName obj, Point position) {
+        addObject(registry.get(obj).create(position, useEmoji, rules));
     }
 
     /**
@@ -182,14 +452,59 @@ public class GameLogic {
      */
     private void generatePlayers() {
         currentPlayer = new Player(
-                new Point(0, sizeY - 1),
+                getSpawn(0, sizeX, sizeY),
                 "Player0",
                 "X ");
         gameObjects.add(currentPlayer);
         gameObjects.add(new Player(
-                new Point(sizeX - 1, 0),
+                getSpawn(1, sizeX, sizeY),
                 "Player1",
                 "Y "));
+        updatePlayerLayer();
+    }
+
+    /**
+     * Add an object to the game and to its layer.
+     *
+     * @param gameObject The object to add.
+     */
+    private void addObject(GameObject gameObject) {
+        gameObjects.add(gameObject);
+        spatial.add(gameObject);
+        layers[gameObject.getType().ordinal()].set(gameObject.getXPosition(), gameObject.getYPosition());
+        if (gameObject.canCollide()) {
+            blocking.set(gameObject.getXPosition(), gameObject.getYPosition());
+            blockingVersion++;
+        }
+        if (registry.get(gameObject.getType()).isMonster()) {
+            monsters.add(gameObject);
+        }
+    }
+
+    /**
+     * Create the visibility of the players if the rules limit the vision.
+     *
+     * @return The visibility, null if the whole board is visible.
+     */
+    private Visibility createVisibility() {
+        return rules.getVisionRadius() > 0
+                ? new Visibility(sizeX, sizeY, rules.getVisionRadius(), NUMBER_OF_PLAYERS)
+                : null;
+    }
+
+    /**
+     * Update the player layer after a player moved.
+     */
+    private void updatePlayerLayer() {
+        BitGrid layer = layers[ObjectName.Player.ordinal()];
+        for (int cell : playerCells) {
+            layer.clear(cell % sizeX, cell / sizeX);
+        }
+        for (int i = 0; i < NUMBER_OF_PLAYERS; i++) {
+            GameObject player = gameObjects.get(i);
+            playerCells[i] = player.getYPosition() * sizeX + player.getXPosition();
+            layer.set(player.getXPosition(), player.getYPosition());
+        }
     }
 
     /**
@@ -201,12 +516,116 @@ public class GameLogic {
         int x;
         int y;
         do {
-            x = (int) (Math.random() * sizeX);
-            y = (int) (Math.random() * sizeY);
+            x = random.nextInt(sizeX);
+            y = random.nextInt(sizeY);
         } while (!isFreeCell(new Point(x, y)));
         return new Point(x, y);
     }
 
+    /**
+     * Move a player to a random free cell.
+     *
+     * @param player Player to move.
+     */
+    void moveToRandomFreeCell(Player player) {
+        player.setPosition(getRandomFreeCell());
+        updatePlayerLayer();
+        monsters.wakeAround(player.getXPosition(), player.getYPosition());
+    }
+
+    /**
+     * Distance between two objects in steps on the wrap-around board.
+     *
+     * @param a The first object.
+     * @param b The second object.
+     * @return The number of steps between the objects.
+     */
+    int distance(GameObject a, GameObject b) {
+        int dx = Math.abs(a.getXPosition() - b.getXPosition());
+        int dy = Math.abs(a.getYPosition() - b.getYPosition());
+        return Math.min(dx, sizeX - dx) + Math.min(dy, sizeY - dy);
+    }
+
+    /**
+     * Shortest signed distance between two coordinates on the wrap-around board.
+     *
+     * @param from The first coordinate.
+     * @param to   The second coordinate.
+     * @param size Size of the board along the axis.
+     * @return The number of steps, negative towards the lower coordinates.
+     */
+    private static int delta(int from, int to, int size) {
+        int d = Math.floorMod(to - from, size);
+        return d > size / 2 ? d - size : d;
+    }
+
+    /**
+     * Move a monster one step: towards the nearest player within a distance, otherwise in a random direction.
+     * A monster that steps on a player fights it; it doesn't move into blocked or occupied cells.
+     *
+     * @param monster     The monster.
+     * @param chaseRadius Distance within which the monster chases the players.
+     */
+    void stepMonster(GameObject monster, int chaseRadius) {
+        Player target = null;
+        int best = Integer.MAX_VALUE;
+        for (int i = 0; i < NUMBER_OF_PLAYERS; i++) {
+            Player player = (Player) gameObjects.get(i);
+            int d = distance(monster, player);
+            if (d <= chaseRadius && d < best) {
+                best = d;
+                target = player;
+            }
+        }
+        int x = monster.getXPosition();
+        int y = monster.getYPosition();
+        Direction direction;
+        if (target != null) {
+            int dx = delta(x, target.getXPosition(), sizeX);
+            int dy = delta(y, target.getYPosition(), sizeY);
+            if (Math.abs(dx) >= Math.abs(dy) && dx != 0) {
+                direction = dx > 0 ? Direction.EAST : Direction.WEST;
+            } else {
+                direction = dy > 0 ? Direction.SOUTH : Direction.NORTH;
+            }
+        } else {
+            direction = Direction.values()[random.nextInt(Direction.values().length)];
+        }
+        switch (direction) {
+            case NORTH:
+                y = checkPosition(y - 1, sizeY);
+                break;
+            case SOUTH:
+                y = checkPosition(y + 1, sizeY);
+                break;
+            case EAST:
+                x = checkPosition(x + 1, sizeX);
+                break;
+            case WEST:
+                x = checkPosition(x - 1, sizeX);
+                break;
+        }
+        if (layers[ObjectName.Player.ordinal()].get(x, y)) {
+            for (int i = 0; i < NUMBER_OF_PLAYERS; i++) {
+                Player player = (Player) gameObjects.get(i);
+                if (player.getXPosition() == x && player.getYPosition() == y) {
+                    fightMonster(player, monster);
+                    return;
+                }
+            }
+        }
+        if (!isFreeCell(new Point(x, y))) {
+            return;
+        }
+        int from = monster.getYPosition() * sizeX + monster.getXPosition();
+        BitGrid layer = layers[monster.getType().ordinal()];
+        layer.clear(monster.getXPosition(), monster.getYPosition());
+        monster.setPosition(new Point(x, y));
+        layer.set(x, y);
+        monsters.moved(monster, from);
+        spatial.moved(monster, from);
+    }
+
     /**
      * Check if a cell is free.
      *
@@ -214,7 +633,12 @@ public class GameLogic {
      * @return true if the cell is free, false otherwise.
      */
     private boolean isFreeCell(Point point) {
-        return getGameObjectAtPosition(point) == null;
+        for (BitGrid layer : layers) {
+            if (layer.get(point.getX(), point.getY())) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -225,16 +649,13 @@ public class GameLogic {
      *         null.
      */
     private GameObject isOver(Player player) {
-        for (GameObject object : gameObjects) {
-            if (!object.equals(player)) {
-                if (object.getXPosition() == player.getXPosition()) {
-                    if (object.getYPosition() == player.getYPosition()) {
-                        return object;
-                    }
-                }
+        for (int i = 0; i < NUMBER_OF_PLAYERS; i++) {
+            GameObject other = gameObjects.get(i);
+            if (other != player && other.getPosition().equals(player.getPosition())) {
+                return other;
             }
         }
-        return null;
+        return spatial.getItemAt(player.getXPosition(), player.getYPosition());
     }
 
     /**
@@ -244,49 +665,7 @@ public class GameLogic {
      * @return The content of the cell.
      */
     private GameObject getGameObjectAtPosition(Point point) {
-        for (GameObject object : gameObjects) {
-            if (object.getPosition().equals(point)) {
-                return object;
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Method used to ask the user if he wants to use a gem in case of fight
-     * 
-     * @param player the player who is using the gem
-     * @return true if the player wants to use the gem, false otherwise
-     */
-    private boolean askForGem(Player player) {
-        Menu menu = new Menu(true, player.getUsername() + " use gem to escape?");
-        GenericOption useGem = new GenericOption("Yes use gem", 'y', () -> {
-            player.setPosition(getRandomFreeCell());
-            player.decrementGems();
-        });
-        GenericOption back = new GenericOption("Don't use gem", 'n', () -> {
-        });
-        menu.addMenu(useGem);
-        menu.addMenu(back);
-        return menu.ask() == 0;
-    }
-
-    /**
-     * Method used to ask the user if he wants to use a potion in case of fight
-     * 
-     * @param player the player who is using the potion
-     * @return true if the player wants to use the potion, false otherwise
-     */
-    private boolean askForPotion(Player player) {
-        Menu menu = new Menu(true, player.getUsername() + " use potion to win?");
-        GenericOption usePotion = new GenericOption("Yes use the potion", 'y', () -> {
-            player.decrementPotions();
-        });
-        GenericOption back = new GenericOption("Don't use the potion", 'n', () -> {
-        });
-        menu.addMenu(usePotion);
-        menu.addMenu(back);
-        return menu.ask() == 0;
+        return spatial.getAt(point.getX(), point.getY());
     }
 
     /**
@@ -294,70 +673,185 @@ public class GameLogic {
      *
      * @param player1 Player 1.
      * @param player2 Player 2.
-     * @throws InterruptedException If the thread is interrupted.
      */
-    private void fight(Player player1, Player player2) throws InterruptedException {
-        System.out.println("\n" + player1.getUsername() + " vs " + player2.getUsername());
-
-        Player[] players = { player1, player2 };
-        int[] playerThrows = new int[2];
-
-        Player winner = null;
-        Player loser = null;
-
-        for (int i = 0; i < players.length; i++) {
-            if (players[i].getGems() > 0) {
-                if (askForGem(players[i])) {
-                    return;
-                }
-            }
-
-            if (players[i].getPotions() > 0) {
-                if (askForPotion(players[i])) {
-                    winner = players[i];
-                    loser = players[(i + 1) % 2];
-                    break;
-                }
-            }
-
-            playerThrows[i] = throwPlayerDice(players[i]);
+    void fight(Player player1, Player player2) {
+        boolean verbose = fightResolver.isVerbose();
+        if (verbose) {
+            System.out.println("\n" + player1.getUsername() + " vs " + player2.getUsername());
+        }
+        if (heatmap != null) {
+            heatmap.fight(player2.getXPosition(), player2.getYPosition());
         }
 
-        if (winner == null && loser == null) {
-            if (playerThrows[0] > playerThrows[1]) {
-                winner = players[0];
-                loser = players[1];
-            } else if (playerThrows[1] > playerThrows[0]) {
-                winner = players[1];
-                loser = players[0];
-            } else {
-                System.out.println("Draw!");
-                fight(player1, player2);
-                return;
-            }
+        FightResult result = fightResolver.resolve(this, player1, player2);
+        for (GameListener listener : listeners) {
+            listener.onFight(this, player1, player2, result);
+        }
+        if (result.getEscaped() != null) {
+            return;
         }
+        Player winner = result.getWinner();
+        Player loser = result.getLoser();
         if (loser.getCoins() > 0) {
             winner.incrementCoins();
             loser.decrementCoins();
             movePlayerToInitialPosition(loser);
-            System.out.println(winner.getUsername() + " wins the match!!");
+            if (verbose) {
+                System.out.println(winner.getUsername() + " wins the match!!");
+            }
         }else{
-            System.out.println(winner.getUsername() + " wins the game!!");
+            if (verbose) {
+                System.out.println(winner.getUsername() + " wins the game!!");
+            }
+            fightWinner = winner;
             gameOver();
         }
-        Thread.sleep(1000);
+        if (verbose) {
+            pause();
+        }
     }
 
     /**
-     * Throws the dice for a player.
+     * Fight between a player and a monster: a monster that loses is removed and the player gets a coin,
+     * a player who loses drops a coin and goes back to the starting position.
      *
-     * @param player Player who wants to throw the dice.
+     * @param player  The player.
+     * @param monster The monster.
+     */
+    void fightMonster(Player player, GameObject monster) {
+        boolean verbose = fightResolver.isVerbose();
+        if (verbose) {
+            System.out.println("\n" + player.getUsername() + " vs a monster");
+        }
+        if (heatmap != null) {
+            heatmap.fight(monster.getXPosition(), monster.getYPosition());
+        }
+        FightResult result = fightResolver.resolve(this, player, monster);
+        for (GameListener listener : listeners) {
+            listener.onFight(this, player, monster, result);
+        }
+        if (result.getEscaped() != null) {
+            return;
+        }
+        if (result.getWinner() == player) {
+            removeObject(monster);
+            player.incrementCoins();
+            if (verbose) {
+                System.out.println(player.getUsername() + " defeats the monster!!");
+            }
+        } else {
+            if (player.getCoins() > 0) {
+                player.decrementCoins();
+            }
+            movePlayerToInitialPosition(player);
+            if (verbose) {
+                System.out.println("The monster defeats " + player.getUsername() + "!!");
+            }
+        }
+        if (verbose) {
+            pause();
+        }
+    }
+
+    /**
+     * Return the cell next to another one in a direction, wrapping around the borders.
+     *
+     * @param x         Column of the cell.
+     * @param y         Row of the cell.
+     * @param direction The direction.
+     * @return The index (y * sizeX + x) of the next cell.
+     */
+    private int nextCell(int x, int y, Direction direction) {
+        switch (direction) {
+            case NORTH:
+                y = checkPosition(y - 1, sizeY);
+                break;
+            case SOUTH:
+                y = checkPosition(y + 1, sizeY);
+                break;
+            case EAST:
+                x = checkPosition(x + 1, sizeX);
+                break;
+            case WEST:
+                x = checkPosition(x - 1, sizeX);
+                break;
+        }
+        return y * sizeX + x;
+    }
+
+    /**
+     * Return the type of the object in a cell, looking at the layers.
      *
-     * @return The result of the throw.
+     * @param x Column of the cell.
+     * @param y Row of the cell.
+     * @return The type, null for an empty cell.
      */
-    private int throwPlayerDice(Player player) {
-        System.out.print(player.getUsername() + "'s result: ");
-        return Dice.throwDice();
+    private ObjectName typeAt(int x, int y) {
+        for (ObjectName name : ObjectName.values()) {
+            if (layers[name.ordinal()].get(x, y)) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Check a path against the obstacles of the board, without changing the game.
+     * Obstacles that use the step (trees) keep the player in place until they are removed.
+     *
+     * @param player The player.
+     * @param path   The directions of the steps.
+     * @throws IllegalArgumentException If a step is missing or walks into an obstacle that stops the player.
+     */
+    private void validatePath(Player player, Direction[] path) {
+        int x = player.getXPosition();
+        int y = player.getYPosition();
+        int[] hitCells = new int[path.length];
+        int[] hits = new int[path.length];
+        int hitCount = 0;
+        for (int i = 0; i < path.length; i++) {
+            if (path[i] == null) {
+                throw new IllegalArgumentException("Step " + i + " of the path is missing");
+            }
+            int cell = nextCell(x, y, path[i]);
+            int nx = cell % sizeX;
+            int ny = cell / sizeX;
+            GameObject obstacle = collideCheck(nx, ny);
+            if (obstacle != null) {
+                int h = 0;
+                while (h < hitCount && hitCells[h] != cell) {
+                    h++;
+                }
+                EntityType type = registry.get(obstacle.getType());
+                int hitsToRemove = type.hitsToRemove(obstacle);
+                boolean removed = h < hitCount && hitsToRemove > 0 && hits[h] >= hitsToRemove;
+                if (!removed) {
+                    if (type.stopsPlayer()) {
+                        throw new IllegalArgumentException("Step " + i + " of the path walks into a "
+                                + obstacle.getType() + " at " + nx + "," + ny);
+                    }
+                    if (h == hitCount) {
+                        hitCells[hitCount++] = cell;
+                    }
+                    hits[h]++;
+                    continue;
+                }
+            }
+            x = nx;
+            y = ny;
+        }
+    }
+
+    /**
+     * Pause after a fight shown on the console.
+     */
+    private void pause() {
+        try {
+            Thread.sleep(1000);
+        } catch (InterruptedException e) {
+            System.out.println("Error while fighting");
+            Thread.currentThread().interrupt();
+        }
     }
 
     /**
@@ -382,11 +876,11 @@ public class GameLogic {
      */
     private void movePlayerToInitialPosition(Player player) {
         int playerIndex = gameObjects.indexOf(player);
-        if (playerIndex == 0) {
-            gameObjects.get(playerIndex).setPosition(new Point(0, sizeY - 1));
-        } else if (playerIndex == 1) {
-            gameObjects.get(playerIndex).setPosition(new Point(sizeX - 1, 0));
+        if (playerIndex == 0 || playerIndex == 1) {
+            gameObjects.get(playerIndex).setPosition(getSpawn(playerIndex, sizeX, sizeY));
         }
+        updatePlayerLayer();
+        monsters.wakeAround(player.getXPosition(), player.getYPosition());
     }
 
     /**
@@ -398,6 +892,9 @@ public class GameLogic {
      * @return return the object otherwise null
      */
     private GameObject collideCheck(int x, int y) {
+        if (!blocking.get(x, y)) {
+            return null;
+        }
         Point tmp = new Point(x, y);
         GameObject object = getGameObjectAtPosition(tmp);
         if (object != null && object.canCollide())
@@ -405,6 +902,15 @@ public class GameLogic {
         return null;
     }
 
+    /**
+     * Notify the listeners that the state changed.
+     */
+    private void notifyListeners() {
+        for (GameListener listener : listeners) {
+            listener.onChange(this);
+        }
+    }
+
     // ==================== public methods ====================
 
     /**
@@ -442,11 +948,16 @@ public class GameLogic {
         }
         if (obj != null)
             return obj;
+        updatePlayerLayer();
+        if (heatmap != null) {
+            heatmap.visit(player.getXPosition(), player.getYPosition());
+        }
 
         GameObject over = isOver(player);
         if (over != null) {
             overEvent(player, over);
         }
+        notifyListeners();
         return null;
     }
 
@@ -457,29 +968,380 @@ public class GameLogic {
      * @param gameObject the object that the player is over
      */
     private void overEvent(Player player, GameObject gameObject) {
-        if (gameObject instanceof Player) {
-            try {
-                fight(player, (Player) gameObject);
-            } catch (InterruptedException e) {
-                System.out.println("Error while fighting");
+        EntityType type = registry.get(gameObject.getType());
+        if (heatmap != null && type.isItem()) {
+            heatmap.pickUp(gameObject.getXPosition(), gameObject.getYPosition());
+        }
+        type.pickUp(this, player, gameObject);
+        if (!listeners.isEmpty() && type.isItem()
+                && spatial.getItemAt(gameObject.getXPosition(), gameObject.getYPosition()) != gameObject) {
+            for (GameListener listener : listeners) {
+                listener.onPickUp(this, player, gameObject);
             }
-        } else if (gameObject instanceof Coin) {
-            player.incrementCoins();
-            gameObjects.remove(gameObject);
-        } else if (gameObject instanceof Potion) {
-            player.incrementPotions();
-            gameObjects.remove(gameObject);
-        } else if (gameObject instanceof Gem) {
-            player.incrementGems();
-            gameObjects.remove(gameObject);
         }
     }
 
+    /**
+     * Check a path without applying it, with the rules of {@link #applyPath(Player, Direction[])}.
+     *
+     * @param player The player.
+     * @param path   The directions of the steps.
+     * @return true if the path can be applied.
+     */
+    public boolean isValidPath(Player player, Direction[] path) {
+        try {
+            validatePath(player, path);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Apply the whole path of a dice roll. The path is checked first, so an invalid path doesn't change the game;
+     * then the steps are applied in order with their pickups, tree hits and fights. The path stops early if a fight
+     * moves the player (gem or defeat) or ends the game. The turn is not passed.
+     *
+     * @param player The player who moves.
+     * @param path   The directions of the steps.
+     * @return What happened, in order.
+     * @throws IllegalArgumentException If a step is missing or walks into an obstacle that stops the player.
+     */
+    public List<MoveEvent> applyPath(Player player, Direction[] path) {
+        validatePath(player, path);
+        List<MoveEvent> events = new ArrayList<>(path.length + 2);
+        for (int i = 0; i < path.length; i++) {
+            if (gameOver) {
+                events.add(new MoveEvent(MoveEvent.Kind.GAME_OVER, i, player.getXPosition(), player.getYPosition(), null));
+                break;
+            }
+            int cell = nextCell(player.getXPosition(), player.getYPosition(), path[i]);
+            int x = cell % sizeX;
+            int y = cell / sizeX;
+            ObjectName content = typeAt(x, y);
+            GameObject obstacle = movePlayer(player, path[i]);
+            if (obstacle != null) {
+                collide(player, obstacle);
+                events.add(new MoveEvent(MoveEvent.Kind.HIT, i, x, y, obstacle.getType()));
+                continue;
+            }
+            events.add(new MoveEvent(MoveEvent.Kind.STEP, i, x, y, null));
+            if (content == ObjectName.Player || content == ObjectName.Monster) {
+                events.add(new MoveEvent(MoveEvent.Kind.FIGHT, i, x, y, content));
+            } else if (content != null) {
+                events.add(new MoveEvent(MoveEvent.Kind.PICKUP, i, x, y, content));
+            }
+            if (gameOver) {
+                events.add(new MoveEvent(MoveEvent.Kind.GAME_OVER, i, player.getXPosition(), player.getYPosition(), null));
+                break;
+            }
+            if ((player.getXPosition() != x || player.getYPosition() != y) && i < path.length - 1) {
+                events.add(new MoveEvent(MoveEvent.Kind.INTERRUPTED, i, player.getXPosition(), player.getYPosition(), null));
+                break;
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Handle a player walking into an object it collides with (returned by {@link #movePlayer(Player, Direction)}).
+     *
+     * @param player   The player.
+     * @param obstacle The object.
+     * @return true if the step is used (e.g. a tree was hit), false if the player must choose another direction.
+     */
+    public boolean collide(Player player, GameObject obstacle) {
+        return registry.get(obstacle.getType()).collide(this, player, obstacle);
+    }
+
+    /**
+     * Hit a tree, the tree is removed when its health reaches zero.
+     *
+     * @param tree The tree to hit.
+     */
+    public void hitTree(Tree tree) {
+        tree.hit();
+        if (tree.getHealth() == 0) {
+            removeObject(tree);
+        }
+        notifyListeners();
+    }
+
+    /**
+     * Remove an object from the game and from its layer, e.g. by the pickup of an {@link EntityType}.
+     *
+     * @param gameObject The object to remove.
+     */
+    public void removeObject(GameObject gameObject) {
+        gameObjects.remove(gameObject);
+        spatial.remove(gameObject);
+        layers[gameObject.getType().ordinal()].clear(gameObject.getXPosition(), gameObject.getYPosition());
+        if (gameObject.canCollide()) {
+            blocking.clear(gameObject.getXPosition(), gameObject.getYPosition());
+            blockingVersion++;
+        }
+        if (registry.get(gameObject.getType()).isMonster()) {
+            monsters.remove(gameObject);
+        }
+    }
+
+    /**
+     * Get the cells occupied by a type of object. The grid is updated by the game and must not be modified.
+     *
+     * @param name Type of object.
+     * @return The cells occupied by the objects of that type.
+     */
+    public BitGrid getLayer(ObjectName name) {
+        return layers[name.ordinal()];
+    }
+
+    /**
+     * Get the cells occupied by objects that players collide with. The grid must not be modified.
+     *
+     * @return The blocking cells.
+     */
+    public BitGrid getBlockingLayer() {
+        return blocking;
+    }
+
+    /**
+     * Get the behaviour of the kinds of objects.
+     *
+     * @return The registry.
+     */
+    public EntityRegistry getEntityRegistry() {
+        return registry;
+    }
+
+    /**
+     * Set the behaviour of the kinds of objects, used for the objects created from now on and for
+     * every collision and pickup.
+     *
+     * @param registry The registry.
+     */
+    public void setEntityRegistry(EntityRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Set the collector that counts the visits, pickups and fights of every cell.
+     *
+     * @param heatmap The collector, null to stop counting.
+     * @throws IllegalArgumentException If the collector is for a board of a different size.
+     */
+    public void setHeatmapCollector(HeatmapCollector heatmap) {
+        if (heatmap != null && (heatmap.getSizeX() != sizeX || heatmap.getSizeY() != sizeY)) {
+            throw new IllegalArgumentException("Heatmap of a different board size");
+        }
+        this.heatmap = heatmap;
+    }
+
+    /**
+     * Get the scheduler of the monsters.
+     *
+     * @return The scheduler.
+     */
+    public MonsterScheduler getMonsterScheduler() {
+        return monsters;
+    }
+
+    /**
+     * Get the index of the objects by cell, with the radius, ray and rectangle queries.
+     *
+     * @return The index.
+     */
+    public SpatialIndex getSpatialIndex() {
+        return spatial;
+    }
+
+    /**
+     * Check if the vision of the players is limited (fog of war).
+     *
+     * @return true if the players see only the cells around them.
+     */
+    public boolean hasFogOfWar() {
+        return visibility != null;
+    }
+
+    /**
+     * Get the cells seen by a player. They are computed again only if the player moved or a rock or tree
+     * changed since the last call. The grid is reused by the game and must not be modified.
+     *
+     * @param player The player.
+     * @return The visible cells, null if the whole board is visible.
+     */
+    public BitGrid getVisibleCells(Player player) {
+        if (visibility == null) {
+            return null;
+        }
+        return visibility.update(gameObjects.indexOf(player), player.getXPosition(), player.getYPosition(),
+                blocking, blockingVersion);
+    }
+
+    /**
+     * Check if a player sees a cell.
+     *
+     * @param player The player.
+     * @param point  The cell.
+     * @return true if the cell is visible.
+     */
+    public boolean isVisible(Player player, Point point) {
+        BitGrid visible = getVisibleCells(player);
+        return visible == null || visible.get(point.getX(), point.getY());
+    }
+
+    /**
+     * Count the cells that contain no object.
+     *
+     * @return The number of free cells.
+     */
+    public int countFreeCells() {
+        buffer.clearAll();
+        for (BitGrid layer : layers) {
+            buffer.or(layer);
+        }
+        return sizeX * sizeY - buffer.cardinality();
+    }
+
+    /**
+     * Compute the cells reachable from a cell without crossing blocking objects.
+     *
+     * @param from The starting cell.
+     * @return The reachable cells.
+     */
+    public BitGrid getReachableCells(Point from) {
+        BitGrid passable = new BitGrid(blocking);
+        passable.invert();
+        BitGrid reachable = new BitGrid(sizeX, sizeY);
+        reachable.set(from.getX(), from.getY());
+        reachable.fill(passable, buffer);
+        return reachable;
+    }
+
+    /**
+     * Check if an object of a type can be reached from a cell in at most a number of steps,
+     * without crossing blocking objects. An object that blocks (e.g. a tree) is found when it is next to a
+     * reachable cell.
+     *
+     * @param from  The starting cell.
+     * @param name  Type of object to look for.
+     * @param steps Maximum number of steps.
+     * @return true if an object of that type is within the steps.
+     */
+    public boolean isWithinSteps(Point from, ObjectName name, int steps) {
+        BitGrid target = layers[name.ordinal()];
+        BitGrid passable = new BitGrid(blocking);
+        passable.invert();
+        BitGrid reachable = new BitGrid(sizeX, sizeY);
+        reachable.set(from.getX(), from.getY());
+        if (reachable.intersects(target)) {
+            return true;
+        }
+        for (int i = 0; i < steps; i++) {
+            reachable.dilate(buffer);
+            // The target is checked before the blocking cells are masked out, so they can be found too
+            if (reachable.intersects(target)) {
+                return true;
+            }
+            reachable.and(passable);
+        }
+        return false;
+    }
+
+    /**
+     * Create an independent copy of the state of the game, sharing the rules, the controllers and the
+     * fight resolver. The random generator of the copy is split from the one of the game, so the game goes on
+     * with different dice and monsters than it would have without the copy.
+     *
+     * @return The copy of the game.
+     */
+    public GameLogic copy() {
+        return new GameLogic(this, random.split());
+    }
+
+    /**
+     * Create an independent copy of the state of the game with its own random generator: the game is not
+     * changed at all, e.g. to explore its future without changing its dice.
+     *
+     * @param random Random generator of the copy.
+     * @return The copy of the game.
+     */
+    public GameLogic copy(SplittableRandom random) {
+        return new GameLogic(this, random);
+    }
+
+    /**
+     * Put the game back in the state of a snapshot: the items of the board, the players, the turn and the end
+     * of the game. The monsters are scheduled again from the next tick and a game ended by a fight is won by
+     * the richest player, since the snapshot doesn't keep them.
+     *
+     * @param snapshot The snapshot, taken from a game with the same board size.
+     * @throws IllegalArgumentException If the snapshot is of a different board.
+     */
+    public void restore(BoardSnapshot snapshot) {
+        if (snapshot.getSizeX() != sizeX || snapshot.getSizeY() != sizeY
+                || snapshot.getPlayerCount() != NUMBER_OF_PLAYERS) {
+            throw new IllegalArgumentException("Snapshot of a different board");
+        }
+        for (int i = NUMBER_OF_PLAYERS; i < gameObjects.size(); i++) {
+            if (registry.get(gameObjects.get(i).getType()).isMonster()) {
+                monsters.remove(gameObjects.get(i));
+            }
+        }
+        gameObjects.subList(NUMBER_OF_PLAYERS, gameObjects.size()).clear();
+        spatial.clear();
+        for (BitGrid layer : layers) {
+            layer.clearAll();
+        }
+        blocking.clearAll();
+        blockingVersion++;
+        for (int i = 0; i < snapshot.getCellCount(); i++) {
+            int code = snapshot.getCell(i);
+            ObjectName name = BoardSnapshot.typeOf(code);
+            if (name == null) {
+                continue;
+            }
+            Point position = new Point(i % sizeX, i / sizeX);
+            addObject(registry.get(name).create(position, useEmoji, rules, code >> 4));
+        }
+        for (int i = 0; i < NUMBER_OF_PLAYERS; i++) {
+            Player player = (Player) gameObjects.get(i);
+            player.setPosition(snapshot.getPlayerField(i, 0), snapshot.getPlayerField(i, 1));
+            player.setCoins(snapshot.getPlayerField(i, 2));
+            player.setGems(snapshot.getPlayerField(i, 3));
+            player.setPotions(snapshot.getPlayerField(i, 4));
+        }
+        updatePlayerLayer();
+        currentPlayer = (Player) gameObjects.get(snapshot.getCurrentPlayer());
+        gameOver = snapshot.isGameOver();
+        fightWinner = null;
+        notifyListeners();
+    }
+
+    /**
+     * Add a listener notified when the state changes.
+     *
+     * @param listener The listener.
+     */
+    public void addListener(GameListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Remove a listener.
+     *
+     * @param listener The listener.
+     */
+    public void removeListener(GameListener listener) {
+        listeners.remove(listener);
+    }
+
     /**
      * Set the game as over.
      */
     public void gameOver() {
         gameOver = true;
+        notifyListeners();
     }
 
     /**
@@ -495,13 +1357,9 @@ public class GameLogic {
      * Play the next turn, showing the available options.
      */
     public void nextTurn() {
-        for (GameObject gameObject : gameObjects) {
-            if (gameObject instanceof Player) {
-                if (!gameObject.equals(currentPlayer)) {
-                    currentPlayer = (Player) gameObject;
-                    return;
-                }
-            }
-        }
+        int next = (gameObjects.indexOf(currentPlayer) + 1) % NUMBER_OF_PLAYERS;
+        currentPlayer = (Player) gameObjects.get(next);
+        monsters.tick();
+        notifyListeners();
     }
 }
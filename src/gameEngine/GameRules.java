@@ -0,0 +1,543 @@
+package gameEngine;
+
+import gameObjects.Dice;
+import gameObjects.ObjectName;
+import gameObjects.Tree;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Immutable set of rules of a match (board size, dice, items).
+ * The rules are validated once when built and can be shared by any number of matches.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public final class GameRules {
+
+    //==================== Attributes ===================
+
+    /**
+     * Default rules, equal to the original constants of the game.
+     */
+    public static final GameRules DEFAULT = new Builder().build();
+
+    /**
+     * Value used when the count of an item is given as a density.
+     */
+    private static final int NO_COUNT = -1;
+
+    /**
+     * Board columns.
+     */
+    private final int columns;
+
+    /**
+     * Board rows.
+     */
+    private final int rows;
+
+    /**
+     * Number of sides of the dice.
+     */
+    private final int diceSides;
+
+    /**
+     * Health of a new tree.
+     */
+    private final int treeHealth;
+
+    /**
+     * Distance a player can see, 0 if the whole board is visible.
+     */
+    private final int visionRadius;
+
+    /**
+     * Absolute number of items, indexed by the ordinal of the ObjectName ({@link #NO_COUNT} when a density is used).
+     */
+    private final int[] counts;
+
+    /**
+     * Number of items per cell, indexed by the ordinal of the ObjectName.
+     */
+    private final double[] densities;
+
+    /**
+     * Number of items for the default board size, computed when the rules are built.
+     */
+    private final int[] defaultCounts;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor, use the {@link Builder}.
+     *
+     * @param builder The builder with the values of the rules.
+     */
+    private GameRules(Builder builder) {
+        this.columns = builder.columns;
+        this.rows = builder.rows;
+        this.diceSides = builder.diceSides;
+        this.treeHealth = builder.treeHealth;
+        this.visionRadius = builder.visionRadius;
+        this.counts = builder.counts.clone();
+        this.densities = builder.densities.clone();
+        this.defaultCounts = computeCounts(columns, rows);
+    }
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Get the board columns.
+     *
+     * @return The board columns.
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Get the board rows.
+     *
+     * @return The board rows.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Get the number of sides of the dice.
+     *
+     * @return The number of sides of the dice.
+     */
+    public int getDiceSides() {
+        return diceSides;
+    }
+
+    /**
+     * Get the health of a new tree.
+     *
+     * @return The health of a new tree.
+     */
+    public int getTreeHealth() {
+        return treeHealth;
+    }
+
+    /**
+     * Get the distance a player can see (fog of war).
+     *
+     * @return The radius of vision, 0 if the whole board is visible.
+     */
+    public int getVisionRadius() {
+        return visionRadius;
+    }
+
+    /**
+     * Get the number of items of a type for a board of the given size.
+     *
+     * @param name  Type of the item.
+     * @param sizeX Board width.
+     * @param sizeY Board height.
+     * @return The number of items.
+     */
+    public int getItemCount(ObjectName name, int sizeX, int sizeY) {
+        if (sizeX == columns && sizeY == rows) {
+            return defaultCounts[name.ordinal()];
+        }
+        return computeCounts(sizeX, sizeY)[name.ordinal()];
+    }
+
+    /**
+     * Get the number of items of a type for the board size of the rules.
+     *
+     * @param name Type of the item.
+     * @return The number of items.
+     */
+    public int getItemCount(ObjectName name) {
+        return defaultCounts[name.ordinal()];
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Compute the number of items of every type for a board and check that they fit.
+     *
+     * @param sizeX Board width.
+     * @param sizeY Board height.
+     * @return The number of items indexed by the ordinal of the ObjectName.
+     */
+    private int[] computeCounts(int sizeX, int sizeY) {
+        int area = sizeX * sizeY;
+        int[] result = new int[counts.length];
+        int total = GameLogic.NUMBER_OF_PLAYERS;
+        for (int i = 0; i < result.length; i++) {
+            if (counts[i] != NO_COUNT) {
+                result[i] = counts[i];
+            } else {
+                result[i] = (int) Math.round(densities[i] * area);
+            }
+            total += result[i];
+        }
+        if (total > area) {
+            throw new IllegalArgumentException("Too many items (" + total + ") for a " + sizeX + "x" + sizeY + " board");
+        }
+        return result;
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Create a builder initialized with the default rules.
+     *
+     * @return A new builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Create a builder initialized with these rules.
+     *
+     * @return A new builder.
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        builder.columns = columns;
+        builder.rows = rows;
+        builder.diceSides = diceSides;
+        builder.treeHealth = treeHealth;
+        builder.visionRadius = visionRadius;
+        builder.counts = counts.clone();
+        builder.densities = densities.clone();
+        return builder;
+    }
+
+    /**
+     * Load the rules from a properties file, missing keys keep the default value.
+     *
+     * @param file The file to read.
+     * @return The rules.
+     * @throws IOException If the file can't be read.
+     */
+    public static GameRules load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return fromProperties(properties);
+    }
+
+    /**
+     * Create the rules from properties. Keys are {@code board.columns}, {@code board.rows}, {@code dice.sides},
+     * {@code tree.health}, {@code vision.radius} and, for every item, {@code <item>.count} or {@code <item>.density} (e.g. {@code coin.density}).
+     *
+     * @param properties The properties to read.
+     * @return The rules.
+     */
+    public static GameRules fromProperties(Properties properties) {
+        Builder builder = new Builder();
+        builder.columns = readInt(properties, "board.columns", builder.columns);
+        builder.rows = readInt(properties, "board.rows", builder.rows);
+        builder.diceSides = readInt(properties, "dice.sides", builder.diceSides);
+        builder.treeHealth = readInt(properties, "tree.health", builder.treeHealth);
+        builder.visionRadius = readInt(properties, "vision.radius", builder.visionRadius);
+        for (ObjectName name : ObjectName.values()) {
+            if (name == ObjectName.Player) {
+                continue;
+            }
+            String prefix = name.name().toLowerCase();
+            String density = properties.getProperty(prefix + ".density");
+            String count = properties.getProperty(prefix + ".count");
+            if (density != null && count != null) {
+                throw new IllegalArgumentException("Both " + prefix + ".count and " + prefix + ".density are set");
+            }
+            if (density != null) {
+                builder.density(name, readDouble(prefix + ".density", density));
+            } else if (count != null) {
+                builder.count(name, readInt(properties, prefix + ".count", 0));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Read an integer property.
+     *
+     * @param properties   The properties.
+     * @param key          The key.
+     * @param defaultValue Value returned if the key is missing.
+     * @return The value.
+     */
+    private static int readInt(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + key + ": " + value);
+        }
+    }
+
+    /**
+     * Read a decimal property.
+     *
+     * @param key   The key.
+     * @param value The value to parse.
+     * @return The value.
+     */
+    private static double readDouble(String key, String value) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + key + ": " + value);
+        }
+    }
+
+    /**
+     * Check if two rules are equal.
+     *
+     * @param o The object to compare.
+     * @return true if the rules are equal.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof GameRules)) {
+            return false;
+        }
+        GameRules other = (GameRules) o;
+        return columns == other.columns && rows == other.rows && diceSides == other.diceSides
+                && treeHealth == other.treeHealth && visionRadius == other.visionRadius && Arrays.equals(counts, other.counts)
+                && Arrays.equals(densities, other.densities);
+    }
+
+    /**
+     * Hash code of the rules.
+     *
+     * @return The hash code.
+     */
+    @Override
+    public int hashCode() {
+        int result = columns;
+        result = 31 * result + rows;
+        result = 31 * result + diceSides;
+        result = 31 * result + treeHealth;
+        result = 31 * result + visionRadius;
+        result = 31 * result + Arrays.hashCode(counts);
+        result = 31 * result + Arrays.hashCode(densities);
+        return result;
+    }
+
+    /**
+     * Return a string representation of the rules.
+     *
+     * @return A string representation of the rules.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("GameRules[").append(columns).append('x').append(rows)
+                .append(", dice=").append(diceSides)
+                .append(", treeHealth=").append(treeHealth);
+        if (visionRadius > 0) {
+            sb.append(", vision=").append(visionRadius);
+        }
+        for (ObjectName name : ObjectName.values()) {
+            if (name != ObjectName.Player) {
+                sb.append(", ").append(name).append('=').append(defaultCounts[name.ordinal()]);
+            }
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * Builder of the rules.
+     */
+    public static final class Builder {
+
+        //==================== Attributes ===================
+
+        /**
+         * Board columns.
+         */
+        private int columns = GameBoard.DEFAULT_COLUMNS;
+
+        /**
+         * Board rows.
+         */
+        private int rows = GameBoard.DEFAULT_ROWS;
+
+        /**
+         * Number of sides of the dice.
+         */
+        private int diceSides = Dice.DEFAULT_SIDES;
+
+        /**
+         * Health of a new tree.
+         */
+        private int treeHealth = Tree.MAX_HEALTH;
+
+        /**
+         * Distance a player can see, 0 if the whole board is visible.
+         */
+        private int visionRadius;
+
+        /**
+         * Absolute number of items.
+         */
+        private int[] counts = new int[ObjectName.values().length];
+
+        /**
+         * Number of items per cell.
+         */
+        private double[] densities = new double[ObjectName.values().length];
+
+        // ==================== Constructors ====================
+
+        /**
+         * Constructor, initialized with the default rules.
+         */
+        private Builder() {
+            counts[ObjectName.Coin.ordinal()] = GameLogic.NUMBER_OF_COINS;
+            counts[ObjectName.Gem.ordinal()] = GameLogic.NUMBER_OF_GEMS;
+            counts[ObjectName.Rock.ordinal()] = GameLogic.NUMBER_OF_ROCKS;
+            counts[ObjectName.Potion.ordinal()] = GameLogic.NUMBER_OF_POTIONS;
+            counts[ObjectName.Tree.ordinal()] = GameLogic.NUMBER_OF_TREES;
+        }
+
+        //==================== public methods ====================
+
+        /**
+         * Set the board size.
+         *
+         * @param columns Board columns.
+         * @param rows    Board rows.
+         * @return This builder.
+         */
+        public Builder boardSize(int columns, int rows) {
+            this.columns = columns;
+            this.rows = rows;
+            return this;
+        }
+
+        /**
+         * Set the number of sides of the dice.
+         *
+         * @param diceSides Number of sides.
+         * @return This builder.
+         */
+        public Builder diceSides(int diceSides) {
+            this.diceSides = diceSides;
+            return this;
+        }
+
+        /**
+         * Set the health of a new tree.
+         *
+         * @param treeHealth Health of the tree.
+         * @return This builder.
+         */
+        public Builder treeHealth(int treeHealth) {
+            this.treeHealth = treeHealth;
+            return this;
+        }
+
+        /**
+         * Set the distance a player can see: cells farther away or hidden by rocks and trees are not shown.
+         *
+         * @param visionRadius The radius of vision, 0 to see the whole board.
+         * @return This builder.
+         */
+        public Builder visionRadius(int visionRadius) {
+            this.visionRadius = visionRadius;
+            return this;
+        }
+
+        /**
+         * Set an absolute number of items of a type.
+         *
+         * @param name  Type of the item.
+         * @param count Number of items.
+         * @return This builder.
+         * @throws IllegalArgumentException If the count is negative.
+         */
+        public Builder count(ObjectName name, int count) {
+            checkItem(name);
+            if (count < 0) {
+                throw new IllegalArgumentException("Invalid count for " + name + ": " + count);
+            }
+            counts[name.ordinal()] = count;
+            densities[name.ordinal()] = 0;
+            return this;
+        }
+
+        /**
+         * Set the number of items of a type as a fraction of the board cells.
+         *
+         * @param name    Type of the item.
+         * @param density Items per cell (between 0 and 1).
+         * @return This builder.
+         */
+        public Builder density(ObjectName name, double density) {
+            checkItem(name);
+            counts[name.ordinal()] = NO_COUNT;
+            densities[name.ordinal()] = density;
+            return this;
+        }
+
+        /**
+         * Validate and build the rules.
+         *
+         * @return The rules.
+         * @throws IllegalArgumentException If the rules are not valid.
+         */
+        public GameRules build() {
+            if (columns <= 0 || rows <= 0) {
+                throw new IllegalArgumentException("Invalid board size: " + columns + "x" + rows);
+            }
+            if (diceSides < 2) {
+                throw new IllegalArgumentException("Invalid dice sides: " + diceSides);
+            }
+            if (treeHealth < 1) {
+                throw new IllegalArgumentException("Invalid tree health: " + treeHealth);
+            }
+            if (visionRadius < 0) {
+                throw new IllegalArgumentException("Invalid vision radius: " + visionRadius);
+            }
+            for (ObjectName name : ObjectName.values()) {
+                int i = name.ordinal();
+                if (counts[i] == NO_COUNT) {
+                    if (!(densities[i] >= 0 && densities[i] <= 1)) {
+                        throw new IllegalArgumentException("Invalid density for " + name + ": " + densities[i]);
+                    }
+                } else if (counts[i] < 0) {
+                    throw new IllegalArgumentException("Invalid count for " + name + ": " + counts[i]);
+                }
+            }
+            return new GameRules(this);
+        }
+
+        //==================== private methods ====================
+
+        /**
+         * Check that the type is an item generated on the board.
+         *
+         * @param name Type of the item.
+         */
+        private void checkItem(ObjectName name) {
+            if (name == ObjectName.Player) {
+                throw new IllegalArgumentException("The number of players can't be configured");
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package gameEngine;
+
+import gameObjects.Dice;
+import general.Direction;
+
+import java.util.SplittableRandom;
+
+/**
+ * Match played by two bots without console, e.g. to write journals for the analytics.
+ * The whole match (board, dice, fights and bots) depends only on the seed.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class HeadlessMatch {
+
+    //==================== Attributes ===================
+
+    /**
+     * Default maximum number of turns of a match.
+     */
+    public static final int DEFAULT_MAX_TURNS = 2000;
+
+    /**
+     * The game.
+     */
+    private final GameLogic gameLogic;
+
+    /**
+     * Seed of the match.
+     */
+    private final long seed;
+
+    /**
+     * Maximum number of turns, the match is stopped after them.
+     */
+    private final int maxTurns;
+
+    /**
+     * Random generator of the dice of the moves.
+     */
+    private final SplittableRandom dice;
+
+    /**
+     * Number of turns played.
+     */
+    private int turns;
+
+    /**
+     * Pause after every turn, in milliseconds (to follow the match from the spectator server).
+     */
+    private long turnDelay;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor.
+     *
+     * @param rules    Rules of the match (board size included).
+     * @param seed     Seed of the match.
+     * @param maxTurns Maximum number of turns.
+     */
+    public HeadlessMatch(GameRules rules, long seed, int maxTurns) {
+        if (maxTurns < 1) {
+            throw new IllegalArgumentException("Invalid number of turns: " + maxTurns);
+        }
+        this.seed = seed;
+        this.maxTurns = maxTurns;
+        gameLogic = new GameLogic(rules.getColumns(), rules.getRows(), false, rules, seed);
+        SplittableRandom random = gameLogic.getRandom().split();
+        dice = random.split();
+        gameLogic.setFightResolver(new FightResolver(FightResolver.Mode.FAST, random.split()));
+        for (int i = 0; i < GameLogic.NUMBER_OF_PLAYERS; i++) {
+            gameLogic.setController(i, new RandomWalkController(random.split()));
+        }
+    }
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Get the game.
+     *
+     * @return The game.
+     */
+    public GameLogic getGameLogic() {
+        return gameLogic;
+    }
+
+    /**
+     * Get the seed of the match.
+     *
+     * @return The seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Get the number of turns played.
+     *
+     * @return The number of turns.
+     */
+    public int getTurns() {
+        return turns;
+    }
+
+    /**
+     * Set the pause after every turn.
+     *
+     * @param turnDelay The pause in milliseconds, 0 for none.
+     */
+    public void setTurnDelay(long turnDelay) {
+        this.turnDelay = Math.max(0, turnDelay);
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Wait after a turn.
+     *
+     * @return false if the thread was interrupted, so the match must stop.
+     */
+    private boolean pause() {
+        if (turnDelay > 0) {
+            try {
+                Thread.sleep(turnDelay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Play the match until a player wins or the maximum number of turns is reached.
+     *
+     * @param journal Journal written during the match, null for none.
+     * @return true if the match ended with a winner, false if it was stopped.
+     */
+    public boolean play(MatchJournal journal) {
+        if (journal != null) {
+            journal.start(gameLogic);
+            gameLogic.addListener(journal);
+        }
+        try {
+            int sides = gameLogic.getRules().getDiceSides();
+            while (!gameLogic.isGameOver() && turns < maxTurns) {
+                int steps = Dice.roll(dice, sides);
+                PlayerController controller = gameLogic.getController(gameLogic.getCurrentPlayer());
+                Direction[] path = controller.choosePath(gameLogic, gameLogic.getCurrentPlayer(), steps);
+                if (path != null && path.length <= steps) {
+                    gameLogic.applyPath(gameLogic.getCurrentPlayer(), path);
+                }
+                if (!gameLogic.isGameOver()) {
+                    gameLogic.nextTurn();
+                    turns++;
+                }
+                if (!pause()) {
+                    break;
+                }
+            }
+        } finally {
+            if (journal != null) {
+                gameLogic.removeListener(journal);
+                journal.end(gameLogic);
+            }
+        }
+        return gameLogic.isGameOver();
+    }
+}
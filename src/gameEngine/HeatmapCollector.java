@@ -0,0 +1,285 @@
+package gameEngine;
+
+import general.Color;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counts, for every cell of the board, how many times the players entered it, picked up an item or fought there.
+ * One collector can be shared by the games of many threads (e.g. simulations on a board of the same size): every
+ * thread counts in its own grids, without locks, and the grids are added up when they are read. The counts are
+ * exact once the threads that play the games have finished.
+ * <p>
+ * A collector is attached with {@link GameLogic#setHeatmapCollector(HeatmapCollector)}; the copies of a game
+ * (used by the searches) don't count.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class HeatmapCollector {
+
+    /**
+     * What is counted.
+     */
+    public enum Kind {
+        /**
+         * A player entered the cell.
+         */
+        VISITS,
+        /**
+         * A player picked up an item in the cell.
+         */
+        PICKUPS,
+        /**
+         * A fight happened in the cell.
+         */
+        FIGHTS
+    }
+
+    //==================== Attributes ===================
+
+    /**
+     * Background colors of the heatmap, from the cells never counted to the hottest ones.
+     */
+    private static final Color[] PALETTE = {
+            new Color(Color.ANSI_BLACK_BACKGROUND), new Color(Color.ANSI_BLUE_BACKGROUND),
+            new Color(Color.ANSI_CYAN_BACKGROUND), new Color(Color.ANSI_GREEN_BACKGROUND),
+            new Color(Color.ANSI_YELLOW_BACKGROUND), new Color(Color.ANSI_RED_BACKGROUND)
+    };
+
+    /**
+     * Board width.
+     */
+    private final int sizeX;
+
+    /**
+     * Board height.
+     */
+    private final int sizeY;
+
+    /**
+     * Grids of every thread, indexed by kind and by cell.
+     */
+    private final List<int[][]> stripes = new ArrayList<>();
+
+    /**
+     * Grids of the current thread.
+     */
+    private final ThreadLocal<int[][]> stripe = ThreadLocal.withInitial(this::newStripe);
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor.
+     *
+     * @param sizeX Board width.
+     * @param sizeY Board height.
+     */
+    public HeatmapCollector(int sizeX, int sizeY) {
+        if (sizeX <= 0 || sizeY <= 0) {
+            throw new IllegalArgumentException("Invalid board size: " + sizeX + "x" + sizeY);
+        }
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+    }
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Get the board width.
+     *
+     * @return The board width.
+     */
+    public int getSizeX() {
+        return sizeX;
+    }
+
+    /**
+     * Get the board height.
+     *
+     * @return The board height.
+     */
+    public int getSizeY() {
+        return sizeY;
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Create the grids of a thread.
+     *
+     * @return The grids.
+     */
+    private int[][] newStripe() {
+        int[][] grids = new int[Kind.values().length][sizeX * sizeY];
+        synchronized (stripes) {
+            stripes.add(grids);
+        }
+        return grids;
+    }
+
+    /**
+     * Return the level of a count in the palette, between the lowest and the highest count of the counted cells.
+     *
+     * @param count The count.
+     * @param min   The lowest count above zero.
+     * @param max   The highest count.
+     * @return The index of the color.
+     */
+    private static int level(long count, long min, long max) {
+        if (count == 0) {
+            return 0;
+        }
+        return 1 + (int) ((PALETTE.length - 1) * (double) (count - min) / (max - min + 1));
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Count a player entering a cell.
+     *
+     * @param x Column of the cell.
+     * @param y Row of the cell.
+     */
+    void visit(int x, int y) {
+        stripe.get()[Kind.VISITS.ordinal()][y * sizeX + x]++;
+    }
+
+    /**
+     * Count a pickup in a cell.
+     *
+     * @param x Column of the cell.
+     * @param y Row of the cell.
+     */
+    void pickUp(int x, int y) {
+        stripe.get()[Kind.PICKUPS.ordinal()][y * sizeX + x]++;
+    }
+
+    /**
+     * Count a fight in a cell.
+     *
+     * @param x Column of the cell.
+     * @param y Row of the cell.
+     */
+    void fight(int x, int y) {
+        stripe.get()[Kind.FIGHTS.ordinal()][y * sizeX + x]++;
+    }
+
+    /**
+     * Add up the counts of all the threads.
+     *
+     * @param kind What is counted.
+     * @return The counts, indexed by cell (y * sizeX + x).
+     */
+    public long[] getCounts(Kind kind) {
+        long[] counts = new long[sizeX * sizeY];
+        synchronized (stripes) {
+            for (int[][] grids : stripes) {
+                int[] grid = grids[kind.ordinal()];
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] += grid[i];
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Get the total of the counts.
+     *
+     * @param kind What is counted.
+     * @return The sum of the counts of all the cells.
+     */
+    public long getTotal(Kind kind) {
+        long total = 0;
+        for (long count : getCounts(kind)) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Get the cells with the highest counts.
+     *
+     * @param kind  What is counted.
+     * @param count Number of cells.
+     * @return The indexes (y * sizeX + x) of the hottest cells, the hottest first; cells never counted are left out.
+     *         Empty if the number of cells is not positive.
+     */
+    public int[] getHotCells(Kind kind, int count) {
+        if (count <= 0) {
+            return new int[0];
+        }
+        long[] counts = getCounts(kind);
+        int[] cells = new int[Math.min(count, counts.length)];
+        int found = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0 || (found == cells.length && counts[i] <= counts[cells[found - 1]])) {
+                continue;
+            }
+            int j = found < cells.length ? found++ : found - 1;
+            while (j > 0 && counts[cells[j - 1]] < counts[i]) {
+                cells[j] = cells[j - 1];
+                j--;
+            }
+            cells[j] = i;
+        }
+        int[] result = new int[found];
+        System.arraycopy(cells, 0, result, 0, found);
+        return result;
+    }
+
+    /**
+     * Render the counts as a colored map, two characters per cell.
+     *
+     * @param kind What is counted.
+     * @return The map, a line per row.
+     */
+    public String render(Kind kind) {
+        long[] counts = getCounts(kind);
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        for (long value : counts) {
+            max = Math.max(max, value);
+            if (value > 0) {
+                min = Math.min(min, value);
+            }
+        }
+        StringBuilder sb = new StringBuilder(counts.length * 8 + sizeY * 8);
+        for (int y = 0; y < sizeY; y++) {
+            int last = -1;
+            for (int x = 0; x < sizeX; x++) {
+                int level = level(counts[y * sizeX + x], min, max);
+                if (level != last) {
+                    sb.append(PALETTE[level]);
+                    last = level;
+                }
+                sb.append("  ");
+            }
+            sb.append(Color.ANSI_RESET).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Export the counts as CSV: a row for every counted cell with its coordinates and the three counts.
+     *
+     * @param out The destination.
+     * @throws IOException If the destination can't be written.
+     */
+    public void writeCsv(Appendable out) throws IOException {
+        long[] visits = getCounts(Kind.VISITS);
+        long[] pickups = getCounts(Kind.PICKUPS);
+        long[] fights = getCounts(Kind.FIGHTS);
+        out.append("x,y,visits,pickups,fights\n");
+        for (int i = 0; i < visits.length; i++) {
+            if (visits[i] != 0 || pickups[i] != 0 || fights[i] != 0) {
+                out.append(String.valueOf(i % sizeX)).append(',').append(String.valueOf(i / sizeX)).append(',')
+                        .append(String.valueOf(visits[i])).append(',').append(String.valueOf(pickups[i])).append(',')
+                        .append(String.valueOf(fights[i])).append('\n');
+            }
+        }
+    }
+}
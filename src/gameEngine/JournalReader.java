@@ -0,0 +1,279 @@
+package gameEngine;
+
+import gameObjects.ObjectName;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads a journal written by {@link MatchJournal} as a stream: the records are passed to a handler one at a time,
+ * so only the current state of the board is kept in memory.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class JournalReader {
+
+    /**
+     * Receives the records of a journal. The state of the board at a fight or a pickup is the one before the step
+     * that caused it.
+     */
+    public interface Handler {
+
+        /**
+         * Called for every frame.
+         *
+         * @param snapshot The state of the board after the frame.
+         */
+        default void onFrame(BoardSnapshot snapshot) {
+        }
+
+        /**
+         * Called when a turn starts.
+         *
+         * @param turn   Number of the turn (the first turn is 0 and has no record).
+         * @param player Index of the player.
+         */
+        default void onTurn(int turn, int player) {
+        }
+
+        /**
+         * Called for every fight.
+         *
+         * @param attacker   Index of the player who started the fight.
+         * @param defender   Index of the other player, -1 for a monster.
+         * @param outcome    {@link MatchJournal#ATTACKER_WON}, {@link MatchJournal#DEFENDER_WON}
+         *                   or {@link MatchJournal#ESCAPED}.
+         * @param potionUsed True if the fight was won with a potion.
+         * @param rounds     Number of dice rounds.
+         */
+        default void onFight(int attacker, int defender, int outcome, boolean potionUsed, int rounds) {
+        }
+
+        /**
+         * Called for every pickup.
+         *
+         * @param player Index of the player.
+         * @param item   Type of the item.
+         * @param x      Position of the item.
+         * @param y      Position of the item.
+         */
+        default void onPickUp(int player, ObjectName item, int x, int y) {
+        }
+
+        /**
+         * Called at the end of the match.
+         *
+         * @param turns  Number of turns played.
+         * @param winner Index of the winner, -1 if the match was stopped before the end.
+         */
+        default void onEnd(int turns, int winner) {
+        }
+    }
+
+    //==================== Attributes ===================
+
+    /**
+     * Maximum length of a record, far above the keyframe of any playable board; a longer length means a damaged
+     * journal, so it is rejected before allocating the record.
+     */
+    public static final int MAX_RECORD_LENGTH = 16 << 20;
+
+    /**
+     * The source of the journal.
+     */
+    private final DataInputStream in;
+
+    /**
+     * Decoder of the frames.
+     */
+    private final DeltaDecoder decoder = new DeltaDecoder();
+
+    /**
+     * Seed of the match.
+     */
+    private final long seed;
+
+    /**
+     * Buffer of the current record, grown when needed.
+     */
+    private byte[] buffer = new byte[256];
+
+    /**
+     * Length of the current record.
+     */
+    private int limit;
+
+    /**
+     * Position in the current record.
+     */
+    private int position;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor, the header is read.
+     *
+     * @param in The source of the journal.
+     * @throws IOException If the header can't be read or is not the one of a journal.
+     */
+    public JournalReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in, 16 * 1024));
+        if (this.in.readInt() != MatchJournal.MAGIC) {
+            throw new IOException("Not a match journal");
+        }
+        int version = this.in.readUnsignedByte();
+        if (version != MatchJournal.VERSION) {
+            throw new IOException("Unsupported journal version " + version);
+        }
+        seed = this.in.readLong();
+    }
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Get the seed of the match.
+     *
+     * @return The seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Get the last decoded state of the board.
+     *
+     * @return The snapshot, null before the first frame.
+     */
+    public BoardSnapshot getSnapshot() {
+        return decoder.getSnapshot();
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Read a varint from the stream.
+     *
+     * @return The number.
+     * @throws IOException If the stream ends inside the number.
+     */
+    private int readStreamVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Invalid varint");
+    }
+
+    /**
+     * Read a varint from the current record.
+     *
+     * @return The number.
+     * @throws IOException If the record ends inside the number.
+     */
+    private int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Invalid varint");
+    }
+
+    /**
+     * Read a byte from the current record.
+     *
+     * @return The byte, unsigned.
+     * @throws IOException If the record ended.
+     */
+    private int readByte() throws IOException {
+        if (position >= limit) {
+            throw new IOException("Truncated record");
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Read the next record and pass it to a handler.
+     *
+     * @param handler The handler.
+     * @return false at the end of the journal.
+     * @throws IOException If the journal can't be read or is not valid.
+     */
+    public boolean next(Handler handler) throws IOException {
+        int type = in.read();
+        if (type < 0) {
+            return false;
+        }
+        try {
+            limit = readStreamVarInt();
+            if (limit < 0 || limit > MAX_RECORD_LENGTH) {
+                throw new IOException("Invalid record length " + limit);
+            }
+            if (limit > buffer.length) {
+                buffer = new byte[Math.min(Math.max(limit, buffer.length * 2), MAX_RECORD_LENGTH)];
+            }
+            in.readFully(buffer, 0, limit);
+            position = 0;
+        } catch (EOFException e) {
+            throw new IOException("Truncated journal", e);
+        }
+        switch (type) {
+            case MatchJournal.FRAME:
+                BoardSnapshot snapshot;
+                try {
+                    snapshot = decoder.decode(buffer, 0, limit);
+                } catch (RuntimeException e) {
+                    // Any failure of the decoder on a damaged frame
+                    throw new IOException("Invalid frame", e);
+                }
+                handler.onFrame(snapshot);
+                break;
+            case MatchJournal.TURN:
+                handler.onTurn(readVarInt(), readVarInt());
+                break;
+            case MatchJournal.FIGHT:
+                handler.onFight(readVarInt(), readVarInt() - 1, readByte(), readByte() != 0, readVarInt());
+                break;
+            case MatchJournal.PICKUP:
+                int player = readVarInt();
+                int item = readByte();
+                if (item >= ObjectName.values().length) {
+                    throw new IOException("Unknown item " + item);
+                }
+                handler.onPickUp(player, ObjectName.values()[item], readVarInt(), readVarInt());
+                break;
+            case MatchJournal.END:
+                handler.onEnd(readVarInt(), readVarInt() - 1);
+                break;
+            default:
+                // Records added by later versions are skipped
+                break;
+        }
+        return true;
+    }
+
+    /**
+     * Read all the records and pass them to a handler.
+     *
+     * @param handler The handler.
+     * @throws IOException If the journal can't be read or is not valid.
+     */
+    public void readAll(Handler handler) throws IOException {
+        while (next(handler)) {
+            // The records are passed to the handler
+        }
+    }
+}
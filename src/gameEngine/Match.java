@@ -1,6 +1,8 @@
 package gameEngine;
 
+import gameObjects.Dice;
 import gameObjects.Player;
+import general.Direction;
 import menu.Menu;
 import menu.option.GenericOption;
 
@@ -30,6 +32,15 @@ public class Match {
         gameBoard = new GameBoard(sizeX, sizeY, useEmoji());
     }
 
+    /**
+     * Constructor.
+     *
+     * @param rules Rules of the match (board size included).
+     */
+    public Match(GameRules rules){
+        gameBoard = new GameBoard(rules, useEmoji());
+    }
+
     /**
      * Defaults constructor.
      */
@@ -37,6 +48,15 @@ public class Match {
         gameBoard = new GameBoard(useEmoji());
     }
 
+    /**
+     * Constructor that plays an existing game, e.g. one whose players are bots.
+     *
+     * @param gameLogic Logic of the game.
+     */
+    public Match(GameLogic gameLogic){
+        gameBoard = new GameBoard(gameLogic);
+    }
+
     //==================== public methods ====================
 
     /**
@@ -45,17 +65,52 @@ public class Match {
     public void play(){
         System.out.println("Let's play!");
         while(!gameBoard.isGameOver()){
-            System.out.println("\n"+gameBoard.getGameLogic().getCurrentPlayer().getUsername()+"'s turn!");
-            gameBoard.showOptions();
+            GameLogic gameLogic = gameBoard.getGameLogic();
+            System.out.println("\n"+gameLogic.getCurrentPlayer().getUsername()+"'s turn!");
+            if(gameLogic.getController(gameLogic.getCurrentPlayer()) instanceof ConsoleController){
+                gameBoard.showOptions();
+            }else{
+                botTurn();
+            }
         }
         Player winner = gameBoard.getGameLogic().getWinner();
         System.out.println(winner.getUsername()+" won!");
         System.out.println("Thanks for playing");
     }
 
+    /**
+     * Ask the player whether the board is drawn with emoji.
+     *
+     * @return True if the player wants to use emoji.
+     */
+    public static boolean askEmoji(){
+        return useEmoji();
+    }
+
     //==================== private methods ====================
 
-    private boolean useEmoji(){
+    /**
+     * Play the turn of a bot: it rolls the dice and walks the path chosen by its controller.
+     * A bot that can't move passes the turn.
+     */
+    private void botTurn(){
+        GameLogic gameLogic = gameBoard.getGameLogic();
+        Player player = gameLogic.getCurrentPlayer();
+        int movement = Dice.throwDice(gameLogic.getRules().getDiceSides());
+        System.out.println(player.getUsername()+" rolled "+movement);
+        Direction[] path = gameLogic.getController(player).choosePath(gameLogic, player, movement);
+        if(path != null && path.length <= movement){
+            try{
+                gameLogic.applyPath(player, path);
+            }catch(IllegalArgumentException e){
+                System.out.println(e.getMessage());
+            }
+        }
+        gameBoard.show();
+        gameLogic.nextTurn();
+    }
+
+    private static boolean useEmoji(){
         Menu menu = new Menu(false, "Choose");
         GenericOption useEmoji = new GenericOption("Use emoji", 'y',()->{});
         GenericOption dontUseEmoji = new GenericOption("Don't use emoji", 'n',()->{});
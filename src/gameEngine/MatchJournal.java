@@ -0,0 +1,313 @@
+package gameEngine;
+
+import gameObjects.GameObject;
+import gameObjects.Player;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes the journal of a match to a stream, as a listener of the game: the board after every change (keyframes
+ * and deltas of {@link DeltaEncoder}), the turns, the fights, the pickups and the end of the match.
+ * The journal is read by {@link JournalReader}.
+ * <p>
+ * The journal starts with a header (magic number, version, seed of the match), followed by records made of a type,
+ * the length of the content as a varint and the content.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class MatchJournal implements GameListener, Closeable {
+
+    //==================== Attributes ===================
+
+    /**
+     * First bytes of a journal ("GJNL").
+     */
+    public static final int MAGIC = 0x474A4E4C;
+
+    /**
+     * Version of the format, 2 since the cell codes are written as varints.
+     */
+    public static final int VERSION = 2;
+
+    /**
+     * Record with a frame of the board.
+     */
+    public static final int FRAME = 1;
+
+    /**
+     * Record with a new turn: number of the turn, index of the player.
+     */
+    public static final int TURN = 2;
+
+    /**
+     * Record with a fight: attacker, defender (index + 1, 0 for a monster), outcome, potion used, rounds.
+     */
+    public static final int FIGHT = 3;
+
+    /**
+     * Record with a pickup: player, type of the item, position.
+     */
+    public static final int PICKUP = 4;
+
+    /**
+     * Record with the end of the match: number of turns, winner (index + 1, 0 if the match was stopped).
+     */
+    public static final int END = 5;
+
+    /**
+     * Outcome of a fight won by the attacker.
+     */
+    public static final int ATTACKER_WON = 0;
+
+    /**
+     * Outcome of a fight won by the defender (player or monster).
+     */
+    public static final int DEFENDER_WON = 1;
+
+    /**
+     * Outcome of a fight ended by a gem.
+     */
+    public static final int ESCAPED = 2;
+
+    /**
+     * Default number of frames between two keyframes.
+     */
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 256;
+
+    /**
+     * The destination of the journal.
+     */
+    private final DataOutputStream out;
+
+    /**
+     * Encoder of the frames.
+     */
+    private final DeltaEncoder encoder;
+
+    /**
+     * Content of the record being written.
+     */
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream(64);
+
+    /**
+     * Length of the record being written.
+     */
+    private final ByteArrayOutputStream length = new ByteArrayOutputStream(5);
+
+    /**
+     * Last written snapshot, null before the first frame.
+     */
+    private BoardSnapshot last;
+
+    /**
+     * Number of the current turn.
+     */
+    private int turn;
+
+    /**
+     * True once the end of the match is written.
+     */
+    private boolean ended;
+
+    /**
+     * First error of the stream, thrown by {@link #close()}.
+     */
+    private IOException error;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor, the header is written.
+     *
+     * @param out              The destination of the journal.
+     * @param seed             Seed of the match.
+     * @param keyframeInterval Number of frames between two keyframes.
+     * @throws IOException If the header can't be written.
+     */
+    public MatchJournal(OutputStream out, long seed, int keyframeInterval) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 16 * 1024));
+        this.encoder = new DeltaEncoder(keyframeInterval);
+        this.out.writeInt(MAGIC);
+        this.out.writeByte(VERSION);
+        this.out.writeLong(seed);
+    }
+
+    /**
+     * Constructor with the default keyframe interval.
+     *
+     * @param out  The destination of the journal.
+     * @param seed Seed of the match.
+     * @throws IOException If the header can't be written.
+     */
+    public MatchJournal(OutputStream out, long seed) throws IOException {
+        this(out, seed, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Get the number of the current turn.
+     *
+     * @return The number of turns played.
+     */
+    public int getTurn() {
+        return turn;
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Write the record being built.
+     *
+     * @param type The type of the record.
+     */
+    private void flushRecord(int type) {
+        if (error != null) {
+            record.reset();
+            return;
+        }
+        try {
+            out.writeByte(type);
+            length.reset();
+            DeltaEncoder.writeVarInt(length, record.size());
+            length.writeTo(out);
+            record.writeTo(out);
+        } catch (IOException e) {
+            error = e;
+        }
+        record.reset();
+    }
+
+    /**
+     * Return the index of a player.
+     *
+     * @param gameLogic The game.
+     * @param player    The player.
+     * @return The index of the player.
+     */
+    private static int indexOf(GameLogic gameLogic, Player player) {
+        return gameLogic.getGameObjects().get(0) == player ? 0 : 1;
+    }
+
+    /**
+     * Write a frame with the state of the game, preceded by the new turn if the player changed.
+     *
+     * @param gameLogic The game.
+     */
+    private void writeFrame(GameLogic gameLogic) {
+        BoardSnapshot snapshot = BoardSnapshot.of(gameLogic);
+        if (last != null && snapshot.getCurrentPlayer() != last.getCurrentPlayer()) {
+            turn++;
+            DeltaEncoder.writeVarInt(record, turn);
+            DeltaEncoder.writeVarInt(record, snapshot.getCurrentPlayer());
+            flushRecord(TURN);
+        }
+        byte[] frame = encoder.encode(snapshot);
+        record.write(frame, 0, frame.length);
+        flushRecord(FRAME);
+        last = snapshot;
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Write the state of the game as the start of the match.
+     *
+     * @param gameLogic The game.
+     */
+    public void start(GameLogic gameLogic) {
+        writeFrame(gameLogic);
+    }
+
+    /**
+     * Write the new state of the game.
+     *
+     * @param gameLogic The game that changed.
+     */
+    @Override
+    public void onChange(GameLogic gameLogic) {
+        if (!ended) {
+            writeFrame(gameLogic);
+        }
+    }
+
+    /**
+     * Write a fight.
+     *
+     * @param gameLogic The game.
+     * @param attacker  The player who started the fight.
+     * @param defender  The other player or the monster.
+     * @param result    The outcome of the fight.
+     */
+    @Override
+    public void onFight(GameLogic gameLogic, Player attacker, GameObject defender, FightResult result) {
+        int outcome;
+        if (result.getEscaped() != null) {
+            outcome = ESCAPED;
+        } else {
+            outcome = result.getWinner() == attacker ? ATTACKER_WON : DEFENDER_WON;
+        }
+        DeltaEncoder.writeVarInt(record, indexOf(gameLogic, attacker));
+        DeltaEncoder.writeVarInt(record, defender instanceof Player ? indexOf(gameLogic, (Player) defender) + 1 : 0);
+        record.write(outcome);
+        record.write(result.isPotionUsed() ? 1 : 0);
+        DeltaEncoder.writeVarInt(record, result.getRounds());
+        flushRecord(FIGHT);
+    }
+
+    /**
+     * Write a pickup.
+     *
+     * @param gameLogic The game.
+     * @param player    The player.
+     * @param item      The item.
+     */
+    @Override
+    public void onPickUp(GameLogic gameLogic, Player player, GameObject item) {
+        DeltaEncoder.writeVarInt(record, indexOf(gameLogic, player));
+        record.write(item.getType().ordinal());
+        DeltaEncoder.writeVarInt(record, item.getXPosition());
+        DeltaEncoder.writeVarInt(record, item.getYPosition());
+        flushRecord(PICKUP);
+    }
+
+    /**
+     * Write the end of the match; the next changes of the game are not written.
+     *
+     * @param gameLogic The game.
+     */
+    public void end(GameLogic gameLogic) {
+        if (ended) {
+            return;
+        }
+        DeltaEncoder.writeVarInt(record, turn);
+        DeltaEncoder.writeVarInt(record, gameLogic.isGameOver() ? indexOf(gameLogic, gameLogic.getWinner()) + 1 : 0);
+        flushRecord(END);
+        ended = true;
+    }
+
+    /**
+     * Flush and close the stream.
+     *
+     * @throws IOException If the journal couldn't be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            out.close();
+        } catch (IOException e) {
+            if (error == null) {
+                error = e;
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+}
@@ -0,0 +1,504 @@
+package gameEngine;
+
+import gameObjects.ObjectName;
+import gameObjects.Player;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Publishes the state of a running match as an MXBean ({@link MatchMonitorMXBean}), as a listener of the game.
+ * <p>
+ * The game thread never waits for a reader: at every change it only copies the numbers of the state into a small
+ * array and publishes it with a volatile write, which marks the state dirty; the counters of moves and turns have
+ * a single writer. The first JMX reader after a change builds the immutable {@link State} from the array, so the
+ * state is never older than the last change, even while the match is idle. The JMX threads never read the game.
+ * The operations set a flag that the game thread reads at its next change, so they cost the game loop one volatile
+ * read per change.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class MatchMonitor implements GameListener, MatchMonitorMXBean, Closeable {
+
+    //==================== Attributes ===================
+
+    /**
+     * Domain of the names of the MBeans.
+     */
+    public static final String DOMAIN = "game";
+
+    /**
+     * Length of the window of the rate of the moves, in nanoseconds.
+     */
+    private static final long RATE_WINDOW_NANOS = 1_000_000_000L;
+
+    /**
+     * Maximum time a snapshot waits for the game thread, in milliseconds.
+     */
+    private static final long SNAPSHOT_TIMEOUT_MILLIS = 2000;
+
+    /**
+     * The game.
+     */
+    private final GameLogic gameLogic;
+
+    /**
+     * Lock used only to wait while paused and for a snapshot.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * Usernames of the players.
+     */
+    private final String[] usernames = new String[GameLogic.NUMBER_OF_PLAYERS];
+
+    /**
+     * Numbers of the state at the last change, written only by the game thread: the number of objects of every
+     * type, the coins, gems and potions of every player, the index of the current player and 1 if the game is over.
+     */
+    private volatile int[] values;
+
+    /**
+     * State built from the last values read, null until the first read.
+     */
+    private volatile State state;
+
+    /**
+     * Number of steps of the players, written only by the game thread.
+     */
+    private volatile long moves;
+
+    /**
+     * Number of turns, written only by the game thread.
+     */
+    private volatile long turns;
+
+    /**
+     * Moves and time at the start of the current window of the rate.
+     */
+    private volatile long[] rateSample;
+
+    /**
+     * True while the game thread must wait.
+     */
+    private volatile boolean paused;
+
+    /**
+     * True when a snapshot was asked.
+     */
+    private volatile boolean snapshotRequested;
+
+    /**
+     * True when the end of the match was asked.
+     */
+    private volatile boolean endRequested;
+
+    /**
+     * Last snapshot taken, as JSON.
+     */
+    private volatile String lastSnapshot;
+
+    /**
+     * Index of the current player at the last change, used only by the game thread.
+     */
+    private int lastPlayer;
+
+    /**
+     * Cell of every player at the last change, used only by the game thread.
+     */
+    private final int[] lastCells = new int[GameLogic.NUMBER_OF_PLAYERS];
+
+    /**
+     * Name under which the MBean is registered, null if it is not.
+     */
+    private javax.management.ObjectName name;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor, the monitor listens to the game from now on. It must be created on the game thread.
+     *
+     * @param gameLogic The game.
+     */
+    public MatchMonitor(GameLogic gameLogic) {
+        this.gameLogic = gameLogic;
+        this.lastPlayer = currentIndex();
+        for (int i = 0; i < lastCells.length; i++) {
+            lastCells[i] = cellOf(i);
+            usernames[i] = ((Player) gameLogic.getGameObjects().get(i)).getUsername();
+        }
+        this.rateSample = new long[]{0, System.nanoTime()};
+        capture();
+        gameLogic.addListener(this);
+    }
+
+    // ==================== Getters and Setters ====================
+
+    @Override
+    public int getSizeX() {
+        return gameLogic.getSizeX();
+    }
+
+    @Override
+    public int getSizeY() {
+        return gameLogic.getSizeY();
+    }
+
+    @Override
+    public Map<String, Integer> getEntityCounts() {
+        return state().entityCounts;
+    }
+
+    @Override
+    public String getCurrentPlayer() {
+        return state().currentPlayer;
+    }
+
+    @Override
+    public Map<String, Integer> getCoins() {
+        return state().coins;
+    }
+
+    @Override
+    public Map<String, Integer> getGems() {
+        return state().gems;
+    }
+
+    @Override
+    public Map<String, Integer> getPotions() {
+        return state().potions;
+    }
+
+    @Override
+    public long getTurns() {
+        return turns;
+    }
+
+    @Override
+    public long getMoves() {
+        return moves;
+    }
+
+    @Override
+    public double getMovesPerSecond() {
+        long[] sample = rateSample;
+        long elapsed = System.nanoTime() - sample[1];
+        return elapsed <= 0 ? 0 : (moves - sample[0]) * 1e9 / elapsed;
+    }
+
+    @Override
+    public boolean isPaused() {
+        return paused;
+    }
+
+    @Override
+    public boolean isGameOver() {
+        return state().gameOver;
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Return the index of the current player.
+     *
+     * @return The index.
+     */
+    private int currentIndex() {
+        return gameLogic.getGameObjects().indexOf(gameLogic.getCurrentPlayer());
+    }
+
+    /**
+     * Return the cell of a player.
+     *
+     * @param player Index of the player.
+     * @return The index (y * sizeX + x) of the cell.
+     */
+    private int cellOf(int player) {
+        Player p = (Player) gameLogic.getGameObjects().get(player);
+        return p.getYPosition() * gameLogic.getSizeX() + p.getXPosition();
+    }
+
+    /**
+     * Copy the numbers of the state of the game and publish them, marking the state dirty. Called on the game thread.
+     */
+    private void capture() {
+        ObjectName[] types = ObjectName.values();
+        int[] captured = new int[types.length + 3 * GameLogic.NUMBER_OF_PLAYERS + 2];
+        for (ObjectName type : types) {
+            captured[type.ordinal()] = type == ObjectName.Player
+                    ? GameLogic.NUMBER_OF_PLAYERS : gameLogic.getLayer(type).cardinality();
+        }
+        for (int i = 0; i < GameLogic.NUMBER_OF_PLAYERS; i++) {
+            Player player = (Player) gameLogic.getGameObjects().get(i);
+            int base = types.length + 3 * i;
+            captured[base] = player.getCoins();
+            captured[base + 1] = player.getGems();
+            captured[base + 2] = player.getPotions();
+        }
+        captured[captured.length - 2] = lastPlayer;
+        captured[captured.length - 1] = gameLogic.isGameOver() ? 1 : 0;
+        values = captured;
+    }
+
+    /**
+     * Return the state of the last change, building it if the game changed since the last read.
+     * Two readers may build the same state at the same time, both results are right.
+     *
+     * @return The state.
+     */
+    private State state() {
+        int[] current = values;
+        State last = state;
+        if (last != null && last.values == current) {
+            return last;
+        }
+        ObjectName[] types = ObjectName.values();
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (ObjectName type : types) {
+            counts.put(type.name(), current[type.ordinal()]);
+        }
+        Map<String, Integer> coins = new LinkedHashMap<>();
+        Map<String, Integer> gems = new LinkedHashMap<>();
+        Map<String, Integer> potions = new LinkedHashMap<>();
+        for (int i = 0; i < usernames.length; i++) {
+            int base = types.length + 3 * i;
+            coins.put(usernames[i], current[base]);
+            gems.put(usernames[i], current[base + 1]);
+            potions.put(usernames[i], current[base + 2]);
+        }
+        last = new State(current, counts, usernames[current[current.length - 2]], coins, gems, potions,
+                current[current.length - 1] != 0);
+        state = last;
+        return last;
+    }
+
+    /**
+     * Take a snapshot for a waiting {@link #snapshot()}. Called on the game thread.
+     */
+    private void serveSnapshot() {
+        String json = BoardSnapshot.of(gameLogic).toJson();
+        synchronized (lock) {
+            lastSnapshot = json;
+            snapshotRequested = false;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Wait while the match is paused, taking the snapshots asked meanwhile. Called on the game thread.
+     */
+    private void awaitResume() {
+        synchronized (lock) {
+            while (paused && !endRequested) {
+                if (snapshotRequested) {
+                    lastSnapshot = BoardSnapshot.of(gameLogic).toJson();
+                    snapshotRequested = false;
+                    lock.notifyAll();
+                }
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    paused = false;
+                }
+            }
+        }
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Count the moves and turns, mark the state dirty and act on the operations asked.
+     *
+     * @param gameLogic The game that changed.
+     */
+    @Override
+    public void onChange(GameLogic gameLogic) {
+        for (int i = 0; i < lastCells.length; i++) {
+            int cell = cellOf(i);
+            if (cell != lastCells[i]) {
+                lastCells[i] = cell;
+                moves++;
+            }
+        }
+        long now = System.nanoTime();
+        int player = currentIndex();
+        boolean newTurn = player != lastPlayer;
+        if (newTurn) {
+            lastPlayer = player;
+            turns++;
+        }
+        if (now - rateSample[1] >= RATE_WINDOW_NANOS) {
+            rateSample = new long[]{moves, now};
+        }
+        capture();
+        if (snapshotRequested) {
+            serveSnapshot();
+        }
+        if (paused) {
+            awaitResume();
+        }
+        if (endRequested && !gameLogic.isGameOver()) {
+            endRequested = false;
+            gameLogic.gameOver();
+        }
+    }
+
+    @Override
+    public void pause() {
+        paused = true;
+    }
+
+    @Override
+    public void resume() {
+        synchronized (lock) {
+            paused = false;
+            lock.notifyAll();
+        }
+    }
+
+    @Override
+    public String snapshot() {
+        if (state().gameOver) {
+            // The board doesn't change any more and the game thread may be gone
+            return BoardSnapshot.of(gameLogic).toJson();
+        }
+        synchronized (lock) {
+            String previous = lastSnapshot;
+            snapshotRequested = true;
+            lock.notifyAll();
+            long deadline = System.currentTimeMillis() + SNAPSHOT_TIMEOUT_MILLIS;
+            while (snapshotRequested) {
+                long wait = deadline - System.currentTimeMillis();
+                if (wait <= 0) {
+                    return previous;
+                }
+                try {
+                    lock.wait(wait);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return previous;
+                }
+            }
+            return lastSnapshot;
+        }
+    }
+
+    @Override
+    public void endMatch() {
+        synchronized (lock) {
+            endRequested = true;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Register the MBean on the platform MBean server, as {@code game:type=Match,name=<name>}.
+     *
+     * @param matchName Name of the match.
+     * @throws IllegalStateException If the MBean can't be registered (e.g. the name is taken).
+     */
+    public void register(String matchName) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            javax.management.ObjectName objectName = new javax.management.ObjectName(DOMAIN + ":type=Match,name="
+                    + javax.management.ObjectName.quote(matchName));
+            server.registerMBean(this, objectName);
+            name = objectName;
+        } catch (InstanceAlreadyExistsException e) {
+            throw new IllegalStateException("A match named " + matchName + " is already registered", e);
+        } catch (JMException e) {
+            throw new IllegalStateException("The match can't be registered", e);
+        }
+    }
+
+    /**
+     * Stop listening to the game, unregister the MBean and let the game go on if it was paused.
+     */
+    @Override
+    public void close() {
+        gameLogic.removeListener(this);
+        resume();
+        if (name != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+            } catch (InstanceNotFoundException e) {
+                // Already unregistered
+            } catch (JMException e) {
+                throw new IllegalStateException("The match can't be unregistered", e);
+            }
+            name = null;
+        }
+    }
+
+    /**
+     * State of the game published for the readers; never changed after it is published.
+     */
+    private static final class State {
+
+        /**
+         * Numbers the state was built from.
+         */
+        private final int[] values;
+
+        /**
+         * Number of objects of every type.
+         */
+        private final Map<String, Integer> entityCounts;
+
+        /**
+         * Username of the current player.
+         */
+        private final String currentPlayer;
+
+        /**
+         * Coins by player.
+         */
+        private final Map<String, Integer> coins;
+
+        /**
+         * Gems by player.
+         */
+        private final Map<String, Integer> gems;
+
+        /**
+         * Potions by player.
+         */
+        private final Map<String, Integer> potions;
+
+        /**
+         * True if the match is over.
+         */
+        private final boolean gameOver;
+
+        /**
+         * Constructor.
+         *
+         * @param values        Numbers the state was built from.
+         * @param entityCounts  Number of objects of every type.
+         * @param currentPlayer Username of the current player.
+         * @param coins         Coins by player.
+         * @param gems          Gems by player.
+         * @param potions       Potions by player.
+         * @param gameOver      True if the match is over.
+         */
+        private State(int[] values, Map<String, Integer> entityCounts, String currentPlayer, Map<String, Integer> coins,
+                Map<String, Integer> gems, Map<String, Integer> potions, boolean gameOver) {
+            this.values = values;
+            this.entityCounts = Collections.unmodifiableMap(entityCounts);
+            this.currentPlayer = currentPlayer;
+            this.coins = Collections.unmodifiableMap(coins);
+            this.gems = Collections.unmodifiableMap(gems);
+            this.potions = Collections.unmodifiableMap(potions);
+            this.gameOver = gameOver;
+        }
+    }
+}
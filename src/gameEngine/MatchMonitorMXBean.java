@@ -0,0 +1,120 @@
+package gameEngine;
+
+import java.util.Map;
+
+/**
+ * Management interface of a running match, published over JMX by {@link MatchMonitor}.
+ * The attributes are read without locking the game; the operations act on the game thread at its next change.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public interface MatchMonitorMXBean {
+
+    /**
+     * Get the board width.
+     *
+     * @return The number of columns.
+     */
+    int getSizeX();
+
+    /**
+     * Get the board height.
+     *
+     * @return The number of rows.
+     */
+    int getSizeY();
+
+    /**
+     * Get the number of objects of every type.
+     *
+     * @return The counts by type name.
+     */
+    Map<String, Integer> getEntityCounts();
+
+    /**
+     * Get the player who is playing.
+     *
+     * @return The username of the current player.
+     */
+    String getCurrentPlayer();
+
+    /**
+     * Get the coins of every player.
+     *
+     * @return The coins by username.
+     */
+    Map<String, Integer> getCoins();
+
+    /**
+     * Get the gems of every player.
+     *
+     * @return The gems by username.
+     */
+    Map<String, Integer> getGems();
+
+    /**
+     * Get the potions of every player.
+     *
+     * @return The potions by username.
+     */
+    Map<String, Integer> getPotions();
+
+    /**
+     * Get the number of turns played since the monitor was attached.
+     *
+     * @return The number of turns.
+     */
+    long getTurns();
+
+    /**
+     * Get the number of steps of the players since the monitor was attached.
+     *
+     * @return The number of moves.
+     */
+    long getMoves();
+
+    /**
+     * Get the recent rate of the moves.
+     *
+     * @return The moves per second over the last seconds.
+     */
+    double getMovesPerSecond();
+
+    /**
+     * Check if the match is paused.
+     *
+     * @return true if the game thread is waiting for {@link #resume()}.
+     */
+    boolean isPaused();
+
+    /**
+     * Check if the match is over.
+     *
+     * @return true if the match is over.
+     */
+    boolean isGameOver();
+
+    /**
+     * Stop the game thread at its next change, until {@link #resume()}.
+     */
+    void pause();
+
+    /**
+     * Let a paused match go on.
+     */
+    void resume();
+
+    /**
+     * Take a snapshot of the board on the game thread.
+     *
+     * @return The board as JSON ({@link BoardSnapshot#toJson()}), or the last snapshot taken if the game thread
+     * didn't answer in time (e.g. it is waiting for a player). Once the match is over the board is read at once.
+     */
+    String snapshot();
+
+    /**
+     * End the match at its next change; the winner is chosen as at the end of the coins.
+     */
+    void endMatch();
+}
@@ -0,0 +1,320 @@
+package gameEngine;
+
+import gameObjects.GameObject;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Schedules the moves of the monsters, one tick per turn.
+ * Only the monsters near a player move; a monster far from every player is put to sleep for the number of ticks
+ * the players need to come close, so a tick costs only the monsters that wake up, not a scan of all of them.
+ * A monster is woken up early when a player jumps near it (gem or respawn).
+ * The monsters are the objects whose {@link EntityType} has the monster role, whatever their class.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class MonsterScheduler {
+
+    //==================== Attributes ===================
+
+    /**
+     * Default distance from a player within which the monsters move.
+     */
+    public static final int DEFAULT_ACTIVE_RADIUS = 8;
+
+    /**
+     * The game.
+     */
+    private final GameLogic gameLogic;
+
+    /**
+     * Monsters waiting for their tick, the earliest first.
+     */
+    private final PriorityQueue<Wake> queue;
+
+    /**
+     * Monster in every cell, indexed by y * sizeX + x.
+     */
+    private final GameObject[] cells;
+
+    /**
+     * Tick when every scheduled monster is updated next.
+     */
+    private final Map<GameObject, Long> wakeTicks = new IdentityHashMap<>();
+
+    /**
+     * Current tick.
+     */
+    private long tick;
+
+    /**
+     * Number of entries added to the queue, used to keep the order of the monsters woken at the same tick.
+     */
+    private long sequence;
+
+    /**
+     * Distance from a player within which the monsters move.
+     */
+    private int activeRadius = DEFAULT_ACTIVE_RADIUS;
+
+    /**
+     * Number of monsters moved in the last tick.
+     */
+    private int lastMoved;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor.
+     *
+     * @param gameLogic The game.
+     */
+    MonsterScheduler(GameLogic gameLogic) {
+        this.gameLogic = gameLogic;
+        this.queue = new PriorityQueue<>();
+        this.cells = new GameObject[gameLogic.getSizeX() * gameLogic.getSizeY()];
+    }
+
+    /**
+     * Copy constructor, used by {@link GameLogic#copy()}: the monsters of the copy are scheduled at the same ticks.
+     *
+     * @param gameLogic The copy of the game, with the copied monsters.
+     * @param other     The scheduler to copy.
+     */
+    MonsterScheduler(GameLogic gameLogic, MonsterScheduler other) {
+        this(gameLogic);
+        this.tick = other.tick;
+        this.activeRadius = other.activeRadius;
+        // The copied objects are in the same order as the ones of the other game
+        List<GameObject> copies = gameLogic.getGameObjects();
+        List<GameObject> originals = other.gameLogic.getGameObjects();
+        for (int i = 0; i < copies.size(); i++) {
+            GameObject monster = copies.get(i);
+            if (other.cells[cellOf(originals.get(i))] == originals.get(i)) {
+                cells[cellOf(monster)] = monster;
+            }
+            Long wakeTick = other.wakeTicks.get(originals.get(i));
+            if (wakeTick != null) {
+                wakeTicks.put(monster, wakeTick);
+                queue.add(new Wake(wakeTick, sequence++, monster));
+            }
+        }
+    }
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Get the current tick.
+     *
+     * @return The number of ticks played.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Get the distance from a player within which the monsters move.
+     *
+     * @return The distance in steps.
+     */
+    public int getActiveRadius() {
+        return activeRadius;
+    }
+
+    /**
+     * Set the distance from a player within which the monsters move.
+     *
+     * @param activeRadius The distance in steps.
+     */
+    public void setActiveRadius(int activeRadius) {
+        this.activeRadius = Math.max(0, activeRadius);
+    }
+
+    /**
+     * Get the number of monsters moved in the last tick.
+     *
+     * @return The number of monsters moved.
+     */
+    public int getLastMoved() {
+        return lastMoved;
+    }
+
+    /**
+     * Get the monster in a cell.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return The monster, null if there is none.
+     */
+    public GameObject getMonsterAt(int x, int y) {
+        return cells[y * gameLogic.getSizeX() + x];
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Return the index of the cell of an object.
+     *
+     * @param gameObject The object.
+     * @return The index of the cell.
+     */
+    private int cellOf(GameObject gameObject) {
+        return gameObject.getYPosition() * gameLogic.getSizeX() + gameObject.getXPosition();
+    }
+
+    /**
+     * Schedule a monster.
+     *
+     * @param monster The monster.
+     * @param at      Tick of the next update.
+     */
+    private void schedule(GameObject monster, long at) {
+        wakeTicks.put(monster, at);
+        queue.add(new Wake(at, sequence++, monster));
+    }
+
+    /**
+     * Distance, in steps on the wrap-around board, between a monster and the nearest player.
+     *
+     * @param monster The monster.
+     * @return The distance.
+     */
+    private int distanceToPlayers(GameObject monster) {
+        int best = Integer.MAX_VALUE;
+        for (int i = 0; i < GameLogic.NUMBER_OF_PLAYERS; i++) {
+            best = Math.min(best, gameLogic.distance(monster, gameLogic.getGameObjects().get(i)));
+        }
+        return best;
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Add a monster, it is updated at the next tick.
+     *
+     * @param monster The monster.
+     */
+    void add(GameObject monster) {
+        cells[cellOf(monster)] = monster;
+        schedule(monster, tick + 1);
+    }
+
+    /**
+     * Remove a monster, its pending update is ignored.
+     *
+     * @param monster The monster.
+     */
+    void remove(GameObject monster) {
+        if (cells[cellOf(monster)] == monster) {
+            cells[cellOf(monster)] = null;
+        }
+        wakeTicks.remove(monster);
+    }
+
+    /**
+     * Update the cell of a monster that moved.
+     *
+     * @param monster The monster.
+     * @param from    Index of the cell it left.
+     */
+    void moved(GameObject monster, int from) {
+        if (cells[from] == monster) {
+            cells[from] = null;
+        }
+        cells[cellOf(monster)] = monster;
+    }
+
+    /**
+     * Wake up at the next tick the monsters near a cell, e.g. when a player jumped there.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     */
+    public void wakeAround(int x, int y) {
+        int sizeX = gameLogic.getSizeX();
+        int sizeY = gameLogic.getSizeY();
+        int rangeX = Math.min(activeRadius, (sizeX - 1) / 2);
+        int rangeY = Math.min(activeRadius, (sizeY - 1) / 2);
+        for (int dy = -rangeY; dy <= rangeY; dy++) {
+            int row = Math.floorMod(y + dy, sizeY) * sizeX;
+            int rest = activeRadius - Math.abs(dy);
+            for (int dx = -Math.min(rest, rangeX); dx <= Math.min(rest, rangeX); dx++) {
+                GameObject monster = cells[row + Math.floorMod(x + dx, sizeX)];
+                if (monster != null && wakeTicks.getOrDefault(monster, -1L) > tick + 1) {
+                    schedule(monster, tick + 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Play a tick: every monster whose tick has come moves if it is near a player, otherwise it sleeps until
+     * the players can be near it.
+     */
+    public void tick() {
+        tick++;
+        lastMoved = 0;
+        int speed = gameLogic.getRules().getDiceSides();
+        while (!queue.isEmpty() && queue.peek().tick <= tick && !gameLogic.isGameOver()) {
+            Wake wake = queue.poll();
+            GameObject monster = wake.monster;
+            if (wakeTicks.getOrDefault(monster, -1L) != wake.tick) {
+                continue;
+            }
+            int distance = distanceToPlayers(monster);
+            if (distance <= activeRadius) {
+                gameLogic.stepMonster(monster, activeRadius);
+                lastMoved++;
+                if (wakeTicks.getOrDefault(monster, -1L) == wake.tick) {
+                    schedule(monster, tick + 1);
+                }
+            } else {
+                schedule(monster, tick + Math.max(1, (distance - activeRadius) / speed));
+            }
+        }
+    }
+
+    /**
+     * Update of a monster waiting in the queue.
+     */
+    private static final class Wake implements Comparable<Wake> {
+
+        /**
+         * Tick of the update.
+         */
+        private final long tick;
+
+        /**
+         * Order of the entry among the ones with the same tick.
+         */
+        private final long order;
+
+        /**
+         * The monster.
+         */
+        private final GameObject monster;
+
+        /**
+         * Constructor.
+         *
+         * @param tick    Tick of the update.
+         * @param order   Order of the entry among the ones with the same tick.
+         * @param monster The monster.
+         */
+        private Wake(long tick, long order, GameObject monster) {
+            this.tick = tick;
+            this.order = order;
+            this.monster = monster;
+        }
+
+        @Override
+        public int compareTo(Wake other) {
+            int result = Long.compare(tick, other.tick);
+            return result != 0 ? result : Long.compare(order, other.order);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package gameEngine;
+
+import gameObjects.ObjectName;
+
+/**
+ * Something that happened while a path was applied with {@link GameLogic#applyPath(gameObjects.Player, general.Direction[])}.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public final class MoveEvent {
+
+    //==================== Attributes ===================
+
+    /**
+     * Kinds of events.
+     */
+    public enum Kind {
+        /**
+         * The player moved to a cell.
+         */
+        STEP,
+        /**
+         * The player picked up an item.
+         */
+        PICKUP,
+        /**
+         * The player hit an obstacle and stayed in place (e.g. a tree).
+         */
+        HIT,
+        /**
+         * The player fought another player or a monster.
+         */
+        FIGHT,
+        /**
+         * A fight moved the player, the rest of the path was not applied.
+         */
+        INTERRUPTED,
+        /**
+         * The game ended, the rest of the path was not applied.
+         */
+        GAME_OVER
+    }
+
+    /**
+     * Kind of the event.
+     */
+    private final Kind kind;
+
+    /**
+     * Index of the step in the path.
+     */
+    private final int step;
+
+    /**
+     * Column of the cell of the event.
+     */
+    private final int x;
+
+    /**
+     * Row of the cell of the event.
+     */
+    private final int y;
+
+    /**
+     * Type of the object involved, null if none.
+     */
+    private final ObjectName object;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor.
+     *
+     * @param kind   Kind of the event.
+     * @param step   Index of the step in the path.
+     * @param x      Column of the cell of the event.
+     * @param y      Row of the cell of the event.
+     * @param object Type of the object involved, null if none.
+     */
+    MoveEvent(Kind kind, int step, int x, int y, ObjectName object) {
+        this.kind = kind;
+        this.step = step;
+        this.x = x;
+        this.y = y;
+        this.object = object;
+    }
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Get the kind of the event.
+     *
+     * @return The kind.
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Get the index of the step in the path.
+     *
+     * @return The index of the step.
+     */
+    public int getStep() {
+        return step;
+    }
+
+    /**
+     * Get the column of the cell of the event.
+     *
+     * @return The column.
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Get the row of the cell of the event.
+     *
+     * @return The row.
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Get the type of the object involved.
+     *
+     * @return The type, null if none.
+     */
+    public ObjectName getObject() {
+        return object;
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Return a string representation of the event.
+     *
+     * @return A string representation of the event.
+     */
+    @Override
+    public String toString() {
+        return kind + "[step=" + step + ", " + x + "," + y + (object != null ? ", " + object : "") + "]";
+    }
+}
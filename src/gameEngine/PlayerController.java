@@ -0,0 +1,45 @@
+package gameEngine;
+
+import gameObjects.Player;
+import general.Direction;
+
+/**
+ * Takes the decisions of a player (console user, bot, remote client...).
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public interface PlayerController {
+
+    /**
+     * Ask if the player wants to use a gem to escape from a fight.
+     *
+     * @param gameLogic The logic of the game.
+     * @param player    The player who has to decide.
+     * @return true if the player uses the gem.
+     */
+    boolean useGem(GameLogic gameLogic, Player player);
+
+    /**
+     * Ask if the player wants to use a potion to win a fight.
+     *
+     * @param gameLogic The logic of the game.
+     * @param player    The player who has to decide.
+     * @return true if the player uses the potion.
+     */
+    boolean usePotion(GameLogic gameLogic, Player player);
+
+    /**
+     * Ask the whole path of a dice roll at once, so it can be applied with
+     * {@link GameLogic#applyPath(Player, Direction[])}. The path may be shorter than the dice when the player
+     * stops early (e.g. a remote player whose time ran out); the steps not taken are lost.
+     *
+     * @param gameLogic The logic of the game.
+     * @param player    The player who has to move.
+     * @param steps     The result of the dice.
+     * @return The directions of the steps, at most {@code steps} of them, null to choose the steps one at a time.
+     */
+    default Direction[] choosePath(GameLogic gameLogic, Player player, int steps) {
+        return null;
+    }
+}
@@ -0,0 +1,124 @@
+package gameEngine;
+
+import gameObjects.ObjectName;
+import gameObjects.Player;
+import general.BitGrid;
+import general.Direction;
+
+import java.util.SplittableRandom;
+
+/**
+ * Bot that walks at random without console: every step goes to a random free neighbour cell, a tree is hit only
+ * when there is no free neighbour. It always uses a potion and uses a gem only when losing would end the game.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class RandomWalkController implements PlayerController {
+
+    //==================== Attributes ===================
+
+    /**
+     * All the directions.
+     */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * Random generator of the bot.
+     */
+    private final SplittableRandom random;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor.
+     *
+     * @param random Random generator of the bot.
+     */
+    public RandomWalkController(SplittableRandom random) {
+        this.random = random;
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Return the index of the cell next to another one, wrapping around the borders.
+     *
+     * @param gameLogic The game.
+     * @param cell      Index of the cell.
+     * @param direction The direction.
+     * @return The index of the next cell.
+     */
+    private static int next(GameLogic gameLogic, int cell, Direction direction) {
+        int sizeX = gameLogic.getSizeX();
+        int sizeY = gameLogic.getSizeY();
+        int x = cell % sizeX;
+        int y = cell / sizeX;
+        switch (direction) {
+            case NORTH:
+                y = (y + sizeY - 1) % sizeY;
+                break;
+            case SOUTH:
+                y = (y + 1) % sizeY;
+                break;
+            case EAST:
+                x = (x + 1) % sizeX;
+                break;
+            case WEST:
+                x = (x + sizeX - 1) % sizeX;
+                break;
+        }
+        return y * sizeX + x;
+    }
+
+    //==================== public methods ====================
+
+    @Override
+    public boolean useGem(GameLogic gameLogic, Player player) {
+        return player.getCoins() == 0;
+    }
+
+    @Override
+    public boolean usePotion(GameLogic gameLogic, Player player) {
+        return true;
+    }
+
+    /**
+     * Choose a random path that never walks into an obstacle, so it is always valid.
+     *
+     * @param gameLogic The logic of the game.
+     * @param player    The player who has to move.
+     * @param steps     The result of the dice.
+     * @return The path, null if the player is closed in by rocks.
+     */
+    @Override
+    public Direction[] choosePath(GameLogic gameLogic, Player player, int steps) {
+        BitGrid blocking = gameLogic.getBlockingLayer();
+        BitGrid trees = gameLogic.getLayer(ObjectName.Tree);
+        int sizeX = gameLogic.getSizeX();
+        Direction[] path = new Direction[steps];
+        Direction[] free = new Direction[DIRECTIONS.length];
+        int cell = player.getYPosition() * sizeX + player.getXPosition();
+        for (int i = 0; i < steps; i++) {
+            int count = 0;
+            Direction tree = null;
+            for (Direction direction : DIRECTIONS) {
+                int target = next(gameLogic, cell, direction);
+                if (!blocking.get(target % sizeX, target / sizeX)) {
+                    free[count++] = direction;
+                } else if (trees.get(target % sizeX, target / sizeX)) {
+                    tree = direction;
+                }
+            }
+            if (count > 0) {
+                path[i] = free[random.nextInt(count)];
+                cell = next(gameLogic, cell, path[i]);
+            } else if (tree != null) {
+                path[i] = tree;
+            } else {
+                return null;
+            }
+        }
+        return path;
+    }
+}
@@ -0,0 +1,441 @@
+package gameEngine;
+
+import gameObjects.Player;
+import general.Direction;
+import general.TimingWheel;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Controller of a player who plays from another thread (e.g. a network client), with a time limit on every turn
+ * and on every decision.
+ * <p>
+ * The client sends the steps one at a time with {@link #submitStep(Direction)} and the answers with
+ * {@link #submitAnswer(boolean)}, and sees what is asked with {@link #getRequest()}. The game thread waits for them
+ * on this controller, while the time limits are timeouts of a shared {@link TimingWheel}, so thousands of matches
+ * cost no timer thread each. When a step doesn't come in time, or the turn runs out, the rest of the path is the
+ * {@link DefaultAction}; a gem or a potion not answered in time is declined.
+ * The client can't send more steps than the dice allow, and the steps that walk into an obstacle are refused.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class RemoteController implements PlayerController {
+
+    /**
+     * What is asked to the player.
+     */
+    public enum Request {
+        /**
+         * Nothing, it is not the player's decision.
+         */
+        NONE,
+        /**
+         * The steps of the dice roll.
+         */
+        PATH,
+        /**
+         * Whether to use a gem to escape.
+         */
+        GEM,
+        /**
+         * Whether to use a potion to win.
+         */
+        POTION
+    }
+
+    /**
+     * What is done with the steps not sent in time.
+     */
+    public enum DefaultAction {
+        /**
+         * The steps are skipped, the path is only the steps sent.
+         */
+        SKIP,
+        /**
+         * The steps are random, never into an obstacle.
+         */
+        RANDOM
+    }
+
+    //==================== Attributes ===================
+
+    /**
+     * All the directions.
+     */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * The timing wheel of the time limits.
+     */
+    private final TimingWheel wheel;
+
+    /**
+     * Time limit of a whole turn, in milliseconds.
+     */
+    private final long turnMillis;
+
+    /**
+     * Time limit of a step or an answer, in milliseconds.
+     */
+    private final long stepMillis;
+
+    /**
+     * What is done with the steps not sent in time.
+     */
+    private final DefaultAction defaultAction;
+
+    /**
+     * Random generator of the default steps.
+     */
+    private final SplittableRandom random;
+
+    /**
+     * Lock of the mailbox, on which the game thread waits.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * Steps sent and not taken yet.
+     */
+    private final ArrayDeque<Direction> steps = new ArrayDeque<>();
+
+    /**
+     * What is asked now.
+     */
+    private volatile Request request = Request.NONE;
+
+    /**
+     * Steps that can still be sent in this turn.
+     */
+    private int stepsLeft;
+
+    /**
+     * Answer sent, null if none.
+     */
+    private Boolean answer;
+
+    /**
+     * Number of the current wait; a timeout of an older wait is ignored.
+     */
+    private long wait;
+
+    /**
+     * Number of the current turn; a timeout of an older turn is ignored.
+     */
+    private long turn;
+
+    /**
+     * True when the current wait timed out.
+     */
+    private boolean waitExpired;
+
+    /**
+     * True when the current turn timed out.
+     */
+    private boolean turnExpired;
+
+    /**
+     * Number of waits that timed out.
+     */
+    private volatile long timeouts;
+
+    /**
+     * Number of steps refused.
+     */
+    private volatile long refused;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor.
+     *
+     * @param wheel         The timing wheel of the time limits, shared by the matches.
+     * @param turnMillis    Time limit of a whole turn, in milliseconds.
+     * @param stepMillis    Time limit of a step or an answer, in milliseconds.
+     * @param defaultAction What is done with the steps not sent in time.
+     * @param random        Random generator of the default steps.
+     * @throws IllegalArgumentException If a time limit is not positive.
+     */
+    public RemoteController(TimingWheel wheel, long turnMillis, long stepMillis, DefaultAction defaultAction,
+            SplittableRandom random) {
+        if (turnMillis < 1 || stepMillis < 1) {
+            throw new IllegalArgumentException("Invalid time limits: " + turnMillis + ", " + stepMillis);
+        }
+        this.wheel = wheel;
+        this.turnMillis = turnMillis;
+        this.stepMillis = stepMillis;
+        this.defaultAction = defaultAction;
+        this.random = random;
+    }
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Get what is asked to the player.
+     *
+     * @return The request.
+     */
+    public Request getRequest() {
+        return request;
+    }
+
+    /**
+     * Get the number of waits that timed out.
+     *
+     * @return The number of timeouts.
+     */
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * Get the number of steps refused (too many or into an obstacle).
+     *
+     * @return The number of steps.
+     */
+    public long getRefused() {
+        return refused;
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Mark a wait as timed out, if it is still the current one. Called on the thread of the wheel.
+     *
+     * @param waitNumber Number of the wait.
+     */
+    private void expireWait(long waitNumber) {
+        synchronized (lock) {
+            if (waitNumber == wait) {
+                waitExpired = true;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Mark a turn as timed out, if it is still the current one. Called on the thread of the wheel.
+     *
+     * @param turnNumber Number of the turn.
+     */
+    private void expireTurn(long turnNumber) {
+        synchronized (lock) {
+            if (turnNumber == turn) {
+                turnExpired = true;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Start a new wait, with its time limit.
+     *
+     * @return The timeout of the wait.
+     */
+    private TimingWheel.Timeout startWait() {
+        long number;
+        synchronized (lock) {
+            number = ++wait;
+            waitExpired = false;
+        }
+        return wheel.schedule(() -> expireWait(number), stepMillis);
+    }
+
+    /**
+     * Wait for the next step of the path.
+     *
+     * @return The step, null if the wait or the turn timed out.
+     * @throws InterruptedException If the thread is interrupted.
+     */
+    private Direction awaitStep() throws InterruptedException {
+        TimingWheel.Timeout timeout = startWait();
+        try {
+            synchronized (lock) {
+                while (steps.isEmpty() && !waitExpired && !turnExpired) {
+                    lock.wait();
+                }
+                if (steps.isEmpty()) {
+                    timeouts++;
+                    return null;
+                }
+                return steps.poll();
+            }
+        } finally {
+            timeout.cancel();
+        }
+    }
+
+    /**
+     * Ask a yes/no question and wait for the answer.
+     *
+     * @param question What is asked.
+     * @return The answer, false if it didn't come in time.
+     */
+    private boolean ask(Request question) {
+        synchronized (lock) {
+            answer = null;
+            request = question;
+        }
+        TimingWheel.Timeout timeout = startWait();
+        try {
+            synchronized (lock) {
+                while (answer == null && !waitExpired) {
+                    lock.wait();
+                }
+                if (answer == null) {
+                    timeouts++;
+                    return false;
+                }
+                return answer;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            timeout.cancel();
+            synchronized (lock) {
+                request = Request.NONE;
+                answer = null;
+            }
+        }
+    }
+
+    /**
+     * Complete a path with random steps, each one checked with the steps before it.
+     *
+     * @param gameLogic The game.
+     * @param player    The player.
+     * @param path      The path, complete up to length.
+     * @param length    Number of steps already in the path.
+     * @return The number of steps of the path, less than its length if no step is valid.
+     */
+    private int randomSteps(GameLogic gameLogic, Player player, Direction[] path, int length) {
+        Direction[] order = DIRECTIONS.clone();
+        while (length < path.length) {
+            for (int i = order.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                Direction swap = order[i];
+                order[i] = order[j];
+                order[j] = swap;
+            }
+            Direction chosen = null;
+            for (Direction direction : order) {
+                path[length] = direction;
+                if (gameLogic.isValidPath(player, Arrays.copyOf(path, length + 1))) {
+                    chosen = direction;
+                    break;
+                }
+            }
+            if (chosen == null) {
+                break;
+            }
+            length++;
+        }
+        return length;
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Send the next step of the path.
+     *
+     * @param direction The direction of the step.
+     * @return false if no path is asked or all the steps of the dice were already sent.
+     */
+    public boolean submitStep(Direction direction) {
+        synchronized (lock) {
+            if (request != Request.PATH || stepsLeft == 0 || direction == null) {
+                refused++;
+                return false;
+            }
+            stepsLeft--;
+            steps.add(direction);
+            lock.notifyAll();
+            return true;
+        }
+    }
+
+    /**
+     * Send the answer of a gem or potion question.
+     *
+     * @param yes true to use the gem or the potion.
+     * @return false if nothing is asked or the answer was already sent.
+     */
+    public boolean submitAnswer(boolean yes) {
+        synchronized (lock) {
+            if ((request != Request.GEM && request != Request.POTION) || answer != null) {
+                return false;
+            }
+            answer = yes;
+            lock.notifyAll();
+            return true;
+        }
+    }
+
+    @Override
+    public boolean useGem(GameLogic gameLogic, Player player) {
+        return ask(Request.GEM);
+    }
+
+    @Override
+    public boolean usePotion(GameLogic gameLogic, Player player) {
+        return ask(Request.POTION);
+    }
+
+    /**
+     * Wait for the steps sent by the client, within the time limits. A step that would make the path invalid is
+     * refused and the client can send another one in its place.
+     *
+     * @param gameLogic The logic of the game.
+     * @param player    The player who has to move.
+     * @param steps     The result of the dice.
+     * @return The path, shorter than the dice if steps were skipped.
+     */
+    @Override
+    public Direction[] choosePath(GameLogic gameLogic, Player player, int steps) {
+        long turnNumber;
+        synchronized (lock) {
+            this.steps.clear();
+            stepsLeft = steps;
+            turnNumber = ++turn;
+            turnExpired = false;
+            request = Request.PATH;
+        }
+        TimingWheel.Timeout turnTimeout = wheel.schedule(() -> expireTurn(turnNumber), turnMillis);
+        Direction[] path = new Direction[steps];
+        int length = 0;
+        try {
+            while (length < steps) {
+                Direction step = awaitStep();
+                if (step == null) {
+                    break;
+                }
+                path[length] = step;
+                if (gameLogic.isValidPath(player, Arrays.copyOf(path, length + 1))) {
+                    length++;
+                } else {
+                    synchronized (lock) {
+                        refused++;
+                        stepsLeft++;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            turnTimeout.cancel();
+            synchronized (lock) {
+                request = Request.NONE;
+                stepsLeft = 0;
+                this.steps.clear();
+            }
+        }
+        if (length < steps && defaultAction == DefaultAction.RANDOM) {
+            length = randomSteps(gameLogic, player, path, length);
+        }
+        return Arrays.copyOf(path, length);
+    }
+}
@@ -0,0 +1,425 @@
+package gameEngine;
+
+import gameObjects.GameObject;
+import gameObjects.ObjectName;
+import gameObjects.Player;
+import general.BitGrid;
+import general.Direction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Index of the objects of the board by cell, kept up to date by the game, with the area queries used by bots,
+ * ranged items and the fog of war on the wrap-around board:
+ * <ul>
+ * <li>the objects within a distance of a cell, found by scanning the occupied cells of the rows in range
+ * 64 cells at a time, so the time depends on the rows and the objects found, not on all the objects;</li>
+ * <li>the first object along a direction that stops a projectile (rock, tree, player or monster);</li>
+ * <li>the number of objects of a type in a rectangle, with a summed-area table for the types that don't move
+ * (rebuilt only when an object of the type is added or removed) and row bit counts for the monsters.</li>
+ * </ul>
+ * The players are not stored in the cells: they are always the first two objects of the game.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class SpatialIndex {
+
+    //==================== Attributes ===================
+
+    /**
+     * The game.
+     */
+    private final GameLogic gameLogic;
+
+    /**
+     * Board width.
+     */
+    private final int sizeX;
+
+    /**
+     * Board height.
+     */
+    private final int sizeY;
+
+    /**
+     * Object in every cell (players excluded), indexed by y * sizeX + x.
+     */
+    private final GameObject[] cells;
+
+    /**
+     * Cells that contain an object (players excluded).
+     */
+    private final BitGrid occupied;
+
+    /**
+     * Number of changes of every type of object, used to know when a summed-area table is stale.
+     */
+    private final long[] versions = new long[ObjectName.values().length];
+
+    /**
+     * Summed-area table of every type that doesn't move, null until the first count.
+     * The entry (y * (sizeX + 1) + x) is the number of objects in the cells above and left of (x, y).
+     */
+    private final int[][] tables = new int[ObjectName.values().length][];
+
+    /**
+     * Version of the type when its table was built.
+     */
+    private final long[] tableVersions = new long[ObjectName.values().length];
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor, the index is empty.
+     *
+     * @param gameLogic The game.
+     */
+    SpatialIndex(GameLogic gameLogic) {
+        this.gameLogic = gameLogic;
+        this.sizeX = gameLogic.getSizeX();
+        this.sizeY = gameLogic.getSizeY();
+        this.cells = new GameObject[sizeX * sizeY];
+        this.occupied = new BitGrid(sizeX, sizeY);
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Return the player in a cell.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return The first player in the cell, null if there is none.
+     */
+    private Player playerAt(int x, int y) {
+        for (int i = 0; i < GameLogic.NUMBER_OF_PLAYERS; i++) {
+            Player player = (Player) gameLogic.getGameObjects().get(i);
+            if (player.getXPosition() == x && player.getYPosition() == y) {
+                return player;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Distance between two coordinates on the wrap-around board.
+     *
+     * @param a    The first coordinate.
+     * @param b    The second coordinate.
+     * @param size Size of the board along the axis.
+     * @return The number of steps.
+     */
+    private static int wrapDistance(int a, int b, int size) {
+        int d = Math.floorMod(a - b, size);
+        return Math.min(d, size - d);
+    }
+
+    /**
+     * Find the players within a distance of a cell.
+     *
+     * @param x      The x coordinate of the centre.
+     * @param y      The y coordinate of the centre.
+     * @param radius The distance in steps.
+     * @return The players found.
+     */
+    private List<GameObject> playersWithinRadius(int x, int y, int radius) {
+        List<GameObject> result = new ArrayList<>();
+        for (int i = 0; i < GameLogic.NUMBER_OF_PLAYERS; i++) {
+            GameObject player = gameLogic.getGameObjects().get(i);
+            if (wrapDistance(player.getXPosition(), x, sizeX) + wrapDistance(player.getYPosition(), y, sizeY)
+                    <= radius) {
+                result.add(player);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Add the objects of the cells set in a grid within a distance of a cell, row by row.
+     *
+     * @param grid   The cells to look at.
+     * @param x      The x coordinate of the centre.
+     * @param y      The y coordinate of the centre.
+     * @param radius The distance in steps.
+     * @param result The list of the objects found.
+     */
+    private void scan(BitGrid grid, int x, int y, int radius, List<GameObject> result) {
+        boolean allRows = 2 * radius + 1 >= sizeY;
+        int first = allRows ? 0 : -radius;
+        int last = allRows ? sizeY - 1 : radius;
+        for (int dy = first; dy <= last; dy++) {
+            int row = Math.floorMod(y + dy, sizeY);
+            int rest = radius - (allRows ? wrapDistance(row, y, sizeY) : Math.abs(dy));
+            if (rest < 0) {
+                continue;
+            }
+            if (2 * rest + 1 >= sizeX) {
+                scanRow(grid, row, 0, sizeX, result);
+            } else {
+                int from = Math.floorMod(x - rest, sizeX);
+                int to = from + 2 * rest + 1;
+                scanRow(grid, row, from, Math.min(to, sizeX), result);
+                if (to > sizeX) {
+                    scanRow(grid, row, 0, to - sizeX, result);
+                }
+            }
+        }
+    }
+
+    /**
+     * Add the objects of the cells set in a part of a row.
+     *
+     * @param grid   The cells to look at.
+     * @param row    The row.
+     * @param from   First column, included.
+     * @param to     Last column, excluded.
+     * @param result The list of the objects found.
+     */
+    private void scanRow(BitGrid grid, int row, int from, int to, List<GameObject> result) {
+        int x = grid.nextSetBitInRow(row, from, to);
+        while (x >= 0) {
+            result.add(cells[row * sizeX + x]);
+            x = grid.nextSetBitInRow(row, x + 1, to);
+        }
+    }
+
+    /**
+     * Return the summed-area table of a type that doesn't move, building it again if an object was added
+     * or removed since the last time.
+     *
+     * @param type The type.
+     * @return The table.
+     */
+    private int[] tableOf(ObjectName type) {
+        int[] table = tables[type.ordinal()];
+        if (table != null && tableVersions[type.ordinal()] == versions[type.ordinal()]) {
+            return table;
+        }
+        if (table == null) {
+            table = new int[(sizeX + 1) * (sizeY + 1)];
+            tables[type.ordinal()] = table;
+        }
+        BitGrid layer = gameLogic.getLayer(type);
+        int width = sizeX + 1;
+        for (int y = 0; y < sizeY; y++) {
+            int sum = 0;
+            for (int x = 0; x < sizeX; x++) {
+                sum += layer.get(x, y) ? 1 : 0;
+                table[(y + 1) * width + x + 1] = table[y * width + x + 1] + sum;
+            }
+        }
+        tableVersions[type.ordinal()] = versions[type.ordinal()];
+        return table;
+    }
+
+    /**
+     * Count the objects of a type in a rectangle that doesn't wrap around.
+     *
+     * @param type The type.
+     * @param x    First column.
+     * @param y    First row.
+     * @param toX  Last column, excluded.
+     * @param toY  Last row, excluded.
+     * @return The number of objects.
+     */
+    private int countInside(ObjectName type, int x, int y, int toX, int toY) {
+        if (x >= toX || y >= toY) {
+            return 0;
+        }
+        if (type == ObjectName.Player) {
+            int count = 0;
+            for (int i = 0; i < GameLogic.NUMBER_OF_PLAYERS; i++) {
+                GameObject player = gameLogic.getGameObjects().get(i);
+                if (player.getXPosition() >= x && player.getXPosition() < toX
+                        && player.getYPosition() >= y && player.getYPosition() < toY) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        if (type == ObjectName.Monster) {
+            BitGrid layer = gameLogic.getLayer(type);
+            int count = 0;
+            for (int row = y; row < toY; row++) {
+                count += layer.countRow(row, x, toX);
+            }
+            return count;
+        }
+        int[] table = tableOf(type);
+        int width = sizeX + 1;
+        return table[toY * width + toX] - table[y * width + toX] - table[toY * width + x] + table[y * width + x];
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Add an object that is not a player.
+     *
+     * @param gameObject The object.
+     */
+    void add(GameObject gameObject) {
+        int cell = gameObject.getYPosition() * sizeX + gameObject.getXPosition();
+        cells[cell] = gameObject;
+        occupied.set(gameObject.getXPosition(), gameObject.getYPosition());
+        versions[gameObject.getType().ordinal()]++;
+    }
+
+    /**
+     * Remove an object that is not a player.
+     *
+     * @param gameObject The object.
+     */
+    void remove(GameObject gameObject) {
+        int cell = gameObject.getYPosition() * sizeX + gameObject.getXPosition();
+        if (cells[cell] == gameObject) {
+            cells[cell] = null;
+            occupied.clear(gameObject.getXPosition(), gameObject.getYPosition());
+        }
+        versions[gameObject.getType().ordinal()]++;
+    }
+
+    /**
+     * Update the cell of an object that moved.
+     *
+     * @param gameObject The object.
+     * @param from       Index of the cell it left.
+     */
+    void moved(GameObject gameObject, int from) {
+        if (cells[from] == gameObject) {
+            cells[from] = null;
+            occupied.clear(from % sizeX, from / sizeX);
+        }
+        add(gameObject);
+    }
+
+    /**
+     * Remove all the objects.
+     */
+    void clear() {
+        Arrays.fill(cells, null);
+        occupied.clearAll();
+        for (int i = 0; i < versions.length; i++) {
+            versions[i]++;
+        }
+    }
+
+    /**
+     * Return the object in a cell; a player is returned before the object under it.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return The object, null for an empty cell.
+     */
+    public GameObject getAt(int x, int y) {
+        Player player = playerAt(x, y);
+        return player != null ? player : cells[y * sizeX + x];
+    }
+
+    /**
+     * Return the object in a cell that is not a player.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return The object, null if there is none.
+     */
+    public GameObject getItemAt(int x, int y) {
+        return cells[y * sizeX + x];
+    }
+
+    /**
+     * Find the objects within a distance of a cell, in steps on the wrap-around board. The players come first,
+     * then the other objects row by row.
+     *
+     * @param x      The x coordinate of the centre.
+     * @param y      The y coordinate of the centre.
+     * @param radius The distance in steps.
+     * @return The objects found.
+     */
+    public List<GameObject> findWithinRadius(int x, int y, int radius) {
+        List<GameObject> result = playersWithinRadius(x, y, radius);
+        if (radius >= 0) {
+            scan(occupied, x, y, radius, result);
+        }
+        return result;
+    }
+
+    /**
+     * Find the objects of a type within a distance of a cell, in steps on the wrap-around board.
+     *
+     * @param x      The x coordinate of the centre.
+     * @param y      The y coordinate of the centre.
+     * @param radius The distance in steps.
+     * @param type   The type of the objects.
+     * @return The objects found, row by row.
+     */
+    public List<GameObject> findWithinRadius(int x, int y, int radius, ObjectName type) {
+        if (type == ObjectName.Player) {
+            return playersWithinRadius(x, y, radius);
+        }
+        List<GameObject> result = new ArrayList<>();
+        if (radius >= 0) {
+            scan(gameLogic.getLayer(type), x, y, radius, result);
+        }
+        return result;
+    }
+
+    /**
+     * Find the first object that stops a projectile (rock, tree, player or monster) along a direction.
+     * The starting cell is not checked; the ray stops after a number of steps or when it went around the board.
+     *
+     * @param x         The x coordinate of the start.
+     * @param y         The y coordinate of the start.
+     * @param direction The direction.
+     * @param maxSteps  Maximum number of steps.
+     * @return The object, null if there is none within the steps.
+     */
+    public GameObject castRay(int x, int y, Direction direction, int maxSteps) {
+        int dx = direction == Direction.EAST ? 1 : direction == Direction.WEST ? -1 : 0;
+        int dy = direction == Direction.SOUTH ? 1 : direction == Direction.NORTH ? -1 : 0;
+        int steps = Math.min(maxSteps, dx != 0 ? sizeX - 1 : sizeY - 1);
+        BitGrid blocking = gameLogic.getBlockingLayer();
+        BitGrid monsters = gameLogic.getLayer(ObjectName.Monster);
+        BitGrid players = gameLogic.getLayer(ObjectName.Player);
+        for (int i = 1; i <= steps; i++) {
+            int cx = Math.floorMod(x + i * dx, sizeX);
+            int cy = Math.floorMod(y + i * dy, sizeY);
+            if (players.get(cx, cy)) {
+                return playerAt(cx, cy);
+            }
+            if (blocking.get(cx, cy) || monsters.get(cx, cy)) {
+                return cells[cy * sizeX + cx];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Count the objects of a type in a rectangle, which wraps around the borders of the board.
+     *
+     * @param type   The type of the objects.
+     * @param x      First column.
+     * @param y      First row.
+     * @param width  Number of columns, at most the board width.
+     * @param height Number of rows, at most the board height.
+     * @return The number of objects.
+     * @throws IllegalArgumentException If the rectangle is larger than the board.
+     */
+    public int count(ObjectName type, int x, int y, int width, int height) {
+        if (width < 0 || height < 0 || width > sizeX || height > sizeY) {
+            throw new IllegalArgumentException("Invalid rectangle: " + width + "x" + height);
+        }
+        x = Math.floorMod(x, sizeX);
+        y = Math.floorMod(y, sizeY);
+        int right = Math.min(x + width, sizeX);
+        int bottom = Math.min(y + height, sizeY);
+        int wrapX = x + width - right;
+        int wrapY = y + height - bottom;
+        return countInside(type, x, y, right, bottom)
+                + countInside(type, 0, y, wrapX, bottom)
+                + countInside(type, x, 0, right, wrapY)
+                + countInside(type, 0, 0, wrapX, wrapY);
+    }
+}
@@ -0,0 +1,360 @@
+package gameEngine;
+
+import gameObjects.Dice;
+import gameObjects.GameObject;
+import gameObjects.Player;
+import general.AsyncOutputStream;
+import general.Direction;
+import general.KeyReader;
+
+import java.io.PrintStream;
+import java.util.SplittableRandom;
+
+/**
+ * Interactive match on a raw terminal: the keys move the player as soon as they are pressed (no Enter) and the
+ * board is drawn again at most a number of times per second, always from the latest state.
+ * The keys pressed faster than the frame rate are applied one after the other and only the result is drawn,
+ * so the cost of drawing doesn't depend on how fast the keys come.
+ * <p>
+ * Keys: {@code w a s d} or the arrows to move, {@code y}/{@code n} to answer, {@code q} to quit.
+ * The players whose controller is a {@link ConsoleController} are played with the keys, the others by their bot.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class TerminalUI {
+
+    //==================== Attributes ===================
+
+    /**
+     * Default maximum number of frames per second.
+     */
+    public static final int DEFAULT_FPS = 30;
+
+    /**
+     * Moves the cursor to the top left corner.
+     */
+    private static final String HOME = "\033[H";
+
+    /**
+     * Clears the screen from the cursor to the end.
+     */
+    private static final String CLEAR_BELOW = "\033[J";
+
+    /**
+     * The game.
+     */
+    private final GameLogic gameLogic;
+
+    /**
+     * Text of the board.
+     */
+    private final GameBoard gameBoard;
+
+    /**
+     * The keys.
+     */
+    private final KeyReader keys;
+
+    /**
+     * Destination of the frames.
+     */
+    private final PrintStream out;
+
+    /**
+     * Minimum time between two frames, in nanoseconds.
+     */
+    private final long frameInterval;
+
+    /**
+     * Random generator of the dice.
+     */
+    private final SplittableRandom dice;
+
+    /**
+     * Line shown under the board (last roll, fight...).
+     */
+    private String status = "";
+
+    /**
+     * Question shown under the status, empty when nothing is asked.
+     */
+    private String prompt = "";
+
+    /**
+     * True if the state changed since the last frame.
+     */
+    private boolean dirty = true;
+
+    /**
+     * Time of the last frame.
+     */
+    private long lastFrame;
+
+    /**
+     * True once the player asked to quit or the input ended.
+     */
+    private boolean quit;
+
+    /**
+     * Number of frames drawn.
+     */
+    private long frames;
+
+    /**
+     * Number of keys applied.
+     */
+    private long keysApplied;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor.
+     *
+     * @param gameLogic The game.
+     * @param keys      The keys, not started yet.
+     * @param out       Destination of the frames.
+     * @param fps       Maximum number of frames per second.
+     */
+    public TerminalUI(GameLogic gameLogic, KeyReader keys, PrintStream out, int fps) {
+        if (fps < 1) {
+            throw new IllegalArgumentException("Invalid frame rate: " + fps);
+        }
+        this.gameLogic = gameLogic;
+        this.gameBoard = new GameBoard(gameLogic);
+        this.keys = keys;
+        this.out = out;
+        this.frameInterval = 1_000_000_000L / fps;
+        this.dice = gameLogic.getRandom().split();
+        gameLogic.setFightResolver(new FightResolver(FightResolver.Mode.FAST, gameLogic.getRandom().split()));
+        KeyController controller = new KeyController();
+        for (int i = 0; i < GameLogic.NUMBER_OF_PLAYERS; i++) {
+            if (gameLogic.getController((Player) gameLogic.getGameObjects().get(i)) instanceof ConsoleController) {
+                gameLogic.setController(i, controller);
+            }
+        }
+        gameLogic.addListener(new GameListener() {
+            @Override
+            public void onChange(GameLogic gameLogic) {
+                dirty = true;
+            }
+
+            @Override
+            public void onFight(GameLogic gameLogic, Player attacker, GameObject defender, FightResult result) {
+                status = result.getEscaped() != null
+                        ? result.getEscaped().getUsername() + " escaped with a gem"
+                        : (result.getWinner() != null ? result.getWinner().getUsername() : "The monster")
+                        + " won the fight" + (result.isPotionUsed() ? " with a potion" : "");
+            }
+        });
+    }
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Get the number of frames drawn.
+     *
+     * @return The number of frames.
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * Get the number of keys applied to the game.
+     *
+     * @return The number of keys.
+     */
+    public long getKeysApplied() {
+        return keysApplied;
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Draw a frame from the current state: the cursor goes home and the old frame is overwritten, without
+     * clearing the whole screen first.
+     */
+    private void draw() {
+        AsyncOutputStream.frame();
+        StringBuilder sb = new StringBuilder(HOME);
+        sb.append(gameBoard.render());
+        sb.append(status).append(CLEAR_BELOW).append('\n');
+        sb.append(prompt).append(CLEAR_BELOW);
+        out.print(sb);
+        out.flush();
+        frames++;
+        dirty = false;
+        lastFrame = System.nanoTime();
+    }
+
+    /**
+     * Wait for the next key, drawing a frame first if the state changed and the frame time came.
+     * The keys that come between two frames are returned at once, without drawing, so a burst of keys
+     * is drawn once per frame; when no key comes, the latest state is drawn as soon as the frame rate allows.
+     *
+     * @return The key, {@link KeyReader#END} if the input ended.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    private int nextKey() throws InterruptedException {
+        while (true) {
+            long wait = lastFrame + frameInterval - System.nanoTime();
+            if (dirty && wait <= 0) {
+                draw();
+            }
+            if (!dirty) {
+                return keys.take();
+            }
+            int key = keys.poll(Math.max(1, (wait + 999_999) / 1_000_000));
+            if (key != KeyReader.NONE) {
+                return key;
+            }
+        }
+    }
+
+    /**
+     * Ask a yes/no question with the keys, shown at the next frame.
+     *
+     * @param question The question.
+     * @return true for yes; false for no, or if the player quits or the input ended.
+     */
+    private boolean ask(String question) {
+        prompt = question + " [y/n] ";
+        try {
+            long wait = lastFrame + frameInterval - System.nanoTime();
+            if (wait > 0) {
+                Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+            }
+            draw();
+            while (true) {
+                int key = keys.take();
+                if (key == 'q' || key == KeyReader.END) {
+                    quit = true;
+                }
+                if (key == 'y' || key == 'n' || quit) {
+                    prompt = "";
+                    dirty = true;
+                    return key == 'y';
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Return the direction of a key.
+     *
+     * @param key The key.
+     * @return The direction, null for other keys.
+     */
+    private static Direction directionOf(int key) {
+        switch (key) {
+            case 'w':
+                return Direction.NORTH;
+            case 's':
+                return Direction.SOUTH;
+            case 'a':
+                return Direction.WEST;
+            case 'd':
+                return Direction.EAST;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Play the steps of a player with the keys. A step into a tree that is not cut down is not counted.
+     *
+     * @param player   The player.
+     * @param movement Number of steps.
+     * @throws InterruptedException If the thread is interrupted while waiting for a key.
+     */
+    private void playSteps(Player player, int movement) throws InterruptedException {
+        int steps = movement;
+        while (steps > 0 && !gameLogic.isGameOver() && gameLogic.getCurrentPlayer() == player) {
+            prompt = player.getUsername() + ": " + steps + " steps left (w a s d, q to quit)";
+            dirty = true;
+            int key = nextKey();
+            if (key == 'q' || key == KeyReader.END) {
+                quit = true;
+                return;
+            }
+            Direction direction = directionOf(key);
+            if (direction == null) {
+                continue;
+            }
+            keysApplied++;
+            GameObject obstacle = gameLogic.movePlayer(player, direction);
+            if (obstacle == null || gameLogic.collide(player, obstacle)) {
+                steps--;
+            }
+            dirty = true;
+        }
+    }
+
+    /**
+     * Play the steps of a bot: the path chosen by its controller, if it is valid (it may be shorter than the dice).
+     *
+     * @param player   The player.
+     * @param movement Number of steps.
+     */
+    private void playBot(Player player, int movement) {
+        Direction[] path = gameLogic.getController(player).choosePath(gameLogic, player, movement);
+        if (path != null && path.length <= movement) {
+            try {
+                gameLogic.applyPath(player, path);
+            } catch (IllegalArgumentException e) {
+                status = e.getMessage();
+            }
+        }
+        dirty = true;
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Play the match until a player wins, the player quits or the input ends. The keys are read from here on.
+     */
+    public void play() {
+        keys.start();
+        try {
+            while (!gameLogic.isGameOver() && !quit) {
+                Player player = gameLogic.getCurrentPlayer();
+                int movement = Dice.roll(dice, gameLogic.getRules().getDiceSides());
+                status = player.getUsername() + " rolled " + movement;
+                if (gameLogic.getController(player) instanceof KeyController) {
+                    playSteps(player, movement);
+                } else {
+                    playBot(player, movement);
+                }
+                if (!quit) {
+                    gameLogic.nextTurn();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        prompt = "";
+        status = gameLogic.isGameOver() ? gameLogic.getWinner().getUsername() + " won!" : "Match stopped";
+        draw();
+        out.println();
+    }
+
+    /**
+     * Controller of the players played with the keys: the decisions of the fights are asked under the board.
+     */
+    private final class KeyController implements PlayerController {
+
+        @Override
+        public boolean useGem(GameLogic gameLogic, Player player) {
+            return ask(player.getUsername() + " use gem to escape?");
+        }
+
+        @Override
+        public boolean usePotion(GameLogic gameLogic, Player player) {
+            return ask(player.getUsername() + " use potion to win?");
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package gameEngine;
+
+import general.BitGrid;
+
+import java.util.Arrays;
+
+/**
+ * Cells seen by every player when the vision is limited (fog of war).
+ * A player sees the cells within the radius of vision that are not hidden by a blocking object (rock or tree);
+ * the blocking cells themselves are seen. The visible cells are computed with recursive shadowcasting on the
+ * eight octants around the player, following the lines of sight across the borders of the wrap-around board.
+ * The cells of a player are computed again only when the player moved or a blocking object was added or removed,
+ * and always in the same grid, so an update does not allocate memory.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class Visibility {
+
+    //==================== Attributes ===================
+
+    /**
+     * Multipliers that map the coordinates of the first octant to the eight octants (xx, xy, yx, yy).
+     */
+    private static final int[][] OCTANTS = {
+            {1, 0, 0, 1}, {0, 1, 1, 0}, {0, -1, 1, 0}, {-1, 0, 0, 1},
+            {-1, 0, 0, -1}, {0, -1, -1, 0}, {0, 1, -1, 0}, {1, 0, 0, -1}
+    };
+
+    /**
+     * Board width.
+     */
+    private final int sizeX;
+
+    /**
+     * Board height.
+     */
+    private final int sizeY;
+
+    /**
+     * Radius of vision.
+     */
+    private final int radius;
+
+    /**
+     * Cells seen by every player.
+     */
+    private final BitGrid[] visible;
+
+    /**
+     * Cell of every player when its visible cells were computed, -1 if never computed.
+     */
+    private final int[] cells;
+
+    /**
+     * Version of the blocking cells when the visible cells of every player were computed.
+     */
+    private final long[] versions;
+
+    /**
+     * Blocking cells used by the computation in progress.
+     */
+    private BitGrid opaque;
+
+    /**
+     * Visible cells written by the computation in progress.
+     */
+    private BitGrid target;
+
+    /**
+     * Position of the player of the computation in progress.
+     */
+    private int originX;
+
+    /**
+     * Position of the player of the computation in progress.
+     */
+    private int originY;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor.
+     *
+     * @param sizeX   Board width.
+     * @param sizeY   Board height.
+     * @param radius  Radius of vision (greater than 0).
+     * @param players Number of players.
+     */
+    public Visibility(int sizeX, int sizeY, int radius, int players) {
+        if (radius <= 0) {
+            throw new IllegalArgumentException("Invalid vision radius: " + radius);
+        }
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.radius = radius;
+        visible = new BitGrid[players];
+        for (int i = 0; i < players; i++) {
+            visible[i] = new BitGrid(sizeX, sizeY);
+        }
+        cells = new int[players];
+        Arrays.fill(cells, -1);
+        versions = new long[players];
+    }
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Get the radius of vision.
+     *
+     * @return The radius of vision.
+     */
+    public int getRadius() {
+        return radius;
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Mark a cell as visible.
+     *
+     * @param dx Distance of the cell from the player on the x axis.
+     * @param dy Distance of the cell from the player on the y axis.
+     */
+    private void reveal(int dx, int dy) {
+        target.set(Math.floorMod(originX + dx, sizeX), Math.floorMod(originY + dy, sizeY));
+    }
+
+    /**
+     * Check if a cell blocks the line of sight.
+     *
+     * @param dx Distance of the cell from the player on the x axis.
+     * @param dy Distance of the cell from the player on the y axis.
+     * @return true if the cell contains a blocking object.
+     */
+    private boolean isOpaque(int dx, int dy) {
+        return opaque.get(Math.floorMod(originX + dx, sizeX), Math.floorMod(originY + dy, sizeY));
+    }
+
+    /**
+     * Scan the rows of an octant, from a distance, between two slopes.
+     *
+     * @param row   First row (distance from the player).
+     * @param start Slope where the scan starts.
+     * @param end   Slope where the scan ends.
+     * @param xx    Multiplier of the octant.
+     * @param xy    Multiplier of the octant.
+     * @param yx    Multiplier of the octant.
+     * @param yy    Multiplier of the octant.
+     */
+    private void castLight(int row, double start, double end, int xx, int xy, int yx, int yy) {
+        if (start < end) {
+            return;
+        }
+        int radius2 = radius * radius;
+        double newStart = 0;
+        for (int j = row; j <= radius; j++) {
+            int dy = -j;
+            boolean blocked = false;
+            for (int dx = -j; dx <= 0; dx++) {
+                double leftSlope = (dx - 0.5) / (dy + 0.5);
+                double rightSlope = (dx + 0.5) / (dy - 0.5);
+                if (start < rightSlope) {
+                    continue;
+                } else if (end > leftSlope) {
+                    break;
+                }
+                int cellX = dx * xx + dy * xy;
+                int cellY = dx * yx + dy * yy;
+                if (dx * dx + dy * dy <= radius2) {
+                    reveal(cellX, cellY);
+                }
+                boolean wall = isOpaque(cellX, cellY);
+                if (blocked) {
+                    if (wall) {
+                        newStart = rightSlope;
+                    } else {
+                        blocked = false;
+                        start = newStart;
+                    }
+                } else if (wall && j < radius) {
+                    blocked = true;
+                    castLight(j + 1, start, leftSlope, xx, xy, yx, yy);
+                    newStart = rightSlope;
+                }
+            }
+            if (blocked) {
+                return;
+            }
+        }
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Get the cells seen by a player, computing them again if the player moved or the blocking cells changed.
+     * The grid is reused by the next updates and must not be modified.
+     *
+     * @param player   Index of the player.
+     * @param x        Position of the player.
+     * @param y        Position of the player.
+     * @param blocking Cells with a blocking object.
+     * @param version  Version of the blocking cells, changed every time they change.
+     * @return The visible cells.
+     */
+    public BitGrid update(int player, int x, int y, BitGrid blocking, long version) {
+        int cell = y * sizeX + x;
+        if (cells[player] == cell && versions[player] == version) {
+            return visible[player];
+        }
+        target = visible[player];
+        opaque = blocking;
+        originX = x;
+        originY = y;
+        target.clearAll();
+        target.set(x, y);
+        for (int[] octant : OCTANTS) {
+            castLight(1, 1.0, 0.0, octant[0], octant[1], octant[2], octant[3]);
+        }
+        target = null;
+        opaque = null;
+        cells[player] = cell;
+        versions[player] = version;
+        return visible[player];
+    }
+}
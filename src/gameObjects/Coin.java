@@ -32,7 +32,7 @@ public class Coin extends GameObject{
      * @param position The position of the coin.
      */
     public Coin(Point position, boolean useEmoji) {
-        super(position,(useEmoji? COIN_EMOJI : COIN_CHARACTER), COIN_COLOR,false);
+        super(position, useEmoji, false);
     }
 
     /**
@@ -42,7 +42,15 @@ public class Coin extends GameObject{
      * @param y The y coordinate of the coin.
      */
     public Coin(int x, int y){
-        super(new Point(x,y),COIN_CHARACTER,new Color(Color.ANSI_YELLOW),false);
+        super(new Point(x,y), false, false);
+    }
+
+    /**
+     * Copy constructor.
+     * @param other The coin to copy.
+     */
+    private Coin(Coin other) {
+        super(other);
     }
 
     /**
@@ -54,4 +62,12 @@ public class Coin extends GameObject{
         return ObjectName.Coin;
     }
 
+    /**
+     * method used to create an independent copy of the object
+     * @return the copy of the object
+     */
+    @Override
+    public Coin copy() {
+        return new Coin(this);
+    }
 }
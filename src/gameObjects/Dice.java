@@ -2,15 +2,25 @@ package gameObjects;
 
 import general.Util;
 
+import java.util.SplittableRandom;
+
 /**
  * Dice class.
  */
 public class Dice {
+    // ==================== Attributes ===================
+
+    /**
+     * Default number of sides of the dice.
+     */
+    public static final int DEFAULT_SIDES = 6;
+
     // ==================== public methods ====================
 
     /**
      * Rolls the dice and returns the result.
      *
+     * @param max The number of sides of the dice.
      * @return The result of the dice roll.
      */
     public static int throwDice(int max) {
@@ -21,11 +31,14 @@ public class Dice {
         long start = System.currentTimeMillis();
         long end = 0L;
         System.out.print("0");
+        System.out.flush();
         while (end - start < 2000) {
             end = System.currentTimeMillis();
             movement = Util.randomNumber(1, max);
-            if (end % 250 == 0)
+            if (end % 250 == 0) {
                 System.out.print("\b" + movement);
+                System.out.flush();
+            }
         }
         System.out.println("\b" + movement);
         return movement;
@@ -37,6 +50,42 @@ public class Dice {
      * @return The result of the dice roll.
      */
     public static int throwDice() {
-        return throwDice(6);
+        return throwDice(DEFAULT_SIDES);
+    }
+
+    /**
+     * Rolls the dice without showing it.
+     *
+     * @param random The random generator.
+     * @param max The number of sides of the dice.
+     * @return The result of the dice roll.
+     */
+    public static int roll(SplittableRandom random, int max) {
+        if(max <= 1) {
+            return 1;
+        }
+        return random.nextInt(max) + 1;
+    }
+
+    /**
+     * Probability that the first of two dice wins, when a draw is rolled again until there is a winner.
+     *
+     * @param sidesA The number of sides of the first dice.
+     * @param sidesB The number of sides of the second dice.
+     * @return The probability that the first dice wins.
+     */
+    public static double winProbability(int sidesA, int sidesB) {
+        long wins = 0;
+        long losses = 0;
+        for (int i = 1; i <= sidesA; i++) {
+            wins += Math.min(i - 1, sidesB);
+        }
+        for (int i = 1; i <= sidesB; i++) {
+            losses += Math.min(i - 1, sidesA);
+        }
+        if (wins + losses == 0) {
+            return 0.5;
+        }
+        return (double) wins / (wins + losses);
     }
 }
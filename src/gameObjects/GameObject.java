@@ -18,21 +18,25 @@ public abstract class GameObject{
     protected Point position;
 
     /**
-     * The color of the game object.
+     * Flag of the state: the object is drawn with an emoji.
      */
-    private Color color;
+    private static final int EMOJI = 1;
 
     /**
-     * The character representing the game object (is the same who will be printed).
+     * Flag of the state: players collide with the object.
      */
-    private final String character;
+    private static final int COLLIDE = 2;
 
     /**
-     * Possible to collide or not
+     * First bit of the variant in the state.
      */
-    private boolean canCollide;
+    private static final int VARIANT_SHIFT = 2;
 
-    private boolean useEmoji;
+    /**
+     * Emoji and collision flags and variant of the glyph; the glyph itself is shared by all the objects
+     * of the same type and state ({@link Glyph}).
+     */
+    private byte state;
 
     // ==================== Constructors ====================
 
@@ -40,14 +44,22 @@ public abstract class GameObject{
      * Constructor.
      *
      * @param position The initial position of the game object.
-     * @param character The character representing the game object.
-     * @param color The color of the game object.
+     * @param useEmoji True to draw the object with an emoji.
+     * @param canCollide True if the players collide with the object.
      */
-    public GameObject(Point position, String character,Color color,boolean canCollide) {
+    public GameObject(Point position, boolean useEmoji, boolean canCollide) {
         this.position = position;
-        this.character = character;
-        this.color = color;
-        this.canCollide = canCollide;
+        this.state = (byte) ((useEmoji ? EMOJI : 0) | (canCollide ? COLLIDE : 0));
+    }
+
+    /**
+     * Copy constructor, the position is copied so the two objects can move independently.
+     *
+     * @param other The game object to copy.
+     */
+    protected GameObject(GameObject other) {
+        this.position = new Point(other.getXPosition(), other.getYPosition());
+        this.state = other.state;
     }
 
     // ==================== Getters and Setters ====================
@@ -79,13 +91,22 @@ public abstract class GameObject{
         return position.getY();
     }
 
+    /**
+     * Get how the game object is drawn, looked up in the table of the shared glyphs.
+     *
+     * @return The glyph of the game object.
+     */
+    public Glyph getGlyph(){
+        return Glyph.of(getType(), state >>> VARIANT_SHIFT, (state & EMOJI) != 0);
+    }
+
     /**
      * Get the character representing the game object.
      *
      * @return The character representing the game object.
      */
     public String getCharacter(){
-        return character;
+        return getGlyph().getCharacter();
     }
 
     /**
@@ -94,7 +115,7 @@ public abstract class GameObject{
      * @return The color of the game object.
      */
     public Color getColor(){
-        return color;
+        return getGlyph().getColor();
     }
 
     /**
@@ -103,7 +124,7 @@ public abstract class GameObject{
      * @return value of canCollide.
      */
     public boolean canCollide(){
-        return canCollide;
+        return (state & COLLIDE) != 0;
     }
     
     /**
@@ -145,16 +166,22 @@ public abstract class GameObject{
     }
 
     /**
-     * Set the color of the game object.
+     * Set the variant of the glyph, e.g. the color of a tree for its health.
      *
-     * @param color The color of the game object.
+     * @param variant The variant, from 0 to {@link Glyph#VARIANTS} - 1.
      */
-    public void setColor(Color color){
-        this.color = color;
+    protected void setVariant(int variant){
+        state = (byte) ((state & (EMOJI | COLLIDE)) | (variant << VARIANT_SHIFT));
     }
     /**
      * Method used to return the name of the object 
      * @return the name of the object
      */
     public abstract ObjectName getType();
+
+    /**
+     * Method used to create an independent copy of the object
+     * @return the copy of the object
+     */
+    public abstract GameObject copy();
 }
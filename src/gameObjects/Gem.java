@@ -24,7 +24,15 @@ public class Gem extends GameObject {
      * @param position The position of the gem.
      */
     public Gem(Point position, boolean useEmoji) {
-        super(position, (useEmoji? GEM_EMOJI : GEM_CHARACTER), GEM_COLOR,false);
+        super(position, useEmoji, false);
+    }
+
+    /**
+     * Copy constructor.
+     * @param other The gem to copy.
+     */
+    private Gem(Gem other) {
+        super(other);
     }
 
     /**
@@ -36,4 +44,12 @@ public class Gem extends GameObject {
         return ObjectName.Gem;
     }
 
+    /**
+     * method used to create an independent copy of the object
+     * @return the copy of the object
+     */
+    @Override
+    public Gem copy() {
+        return new Gem(this);
+    }
 }
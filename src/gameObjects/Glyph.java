@@ -0,0 +1,158 @@
+package gameObjects;
+
+import general.Color;
+
+/**
+ * How an object is drawn: its character (or emoji) and its color. The glyphs of the items are shared flyweights,
+ * one for every type, variant (e.g. the health of a tree) and character set, so an object keeps only a small code
+ * and the board is drawn by looking the glyphs up in a table by index.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public final class Glyph {
+
+    //==================== Attributes ===================
+
+    /**
+     * Maximum number of variants of a type.
+     */
+    public static final int VARIANTS = Tree.MAX_HEALTH;
+
+    /**
+     * The shared glyphs, indexed by {@link #code(ObjectName, int, boolean)}; null for the types without
+     * a shared glyph (players).
+     */
+    private static final Glyph[] TABLE = new Glyph[ObjectName.values().length * VARIANTS * 2];
+
+    static {
+        register(ObjectName.Coin, Coin.COIN_CHARACTER, Coin.COIN_EMOJI, Coin.COIN_COLOR);
+        register(ObjectName.Gem, Gem.GEM_CHARACTER, Gem.GEM_EMOJI, Gem.GEM_COLOR);
+        register(ObjectName.Potion, Potion.POTION_CHARACTER, Potion.POTION_EMOJI, Potion.POTION_COLOR);
+        register(ObjectName.Rock, Rock.ROCK_CHARACTER, Rock.ROCK_EMOJI, Rock.WALL_COLOR);
+        register(ObjectName.Monster, Monster.MONSTER_CHARACTER, Monster.MONSTER_EMOJI, Monster.MONSTER_COLOR);
+        for (int variant = 0; variant < Tree.TREE_COLORS.length; variant++) {
+            TABLE[code(ObjectName.Tree, variant, false)] = new Glyph(Tree.TREE_CHARACTER, Tree.TREE_COLORS[variant]);
+            TABLE[code(ObjectName.Tree, variant, true)] = new Glyph(Tree.TREE_EMOJI, Tree.TREE_COLORS[variant]);
+        }
+    }
+
+    /**
+     * The character, or emoji, printed on the board.
+     */
+    private final String character;
+
+    /**
+     * The color.
+     */
+    private final Color color;
+
+    /**
+     * The colored character followed by the reset of the color, ready to be printed.
+     */
+    private final String text;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor.
+     *
+     * @param character The character, or emoji, printed on the board.
+     * @param color     The color.
+     */
+    public Glyph(String character, Color color) {
+        this.character = character;
+        this.color = color;
+        this.text = color + character + Color.ANSI_RESET;
+    }
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Get the character printed on the board.
+     *
+     * @return The character or emoji.
+     */
+    public String getCharacter() {
+        return character;
+    }
+
+    /**
+     * Get the color.
+     *
+     * @return The color.
+     */
+    public Color getColor() {
+        return color;
+    }
+
+    /**
+     * Get the colored character, ready to be printed.
+     *
+     * @return The text.
+     */
+    public String getText() {
+        return text;
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Register the glyph of a type with a single variant.
+     *
+     * @param type      The type.
+     * @param character The character.
+     * @param emoji     The emoji.
+     * @param color     The color.
+     */
+    private static void register(ObjectName type, String character, String emoji, Color color) {
+        TABLE[code(type, 0, false)] = new Glyph(character, color);
+        TABLE[code(type, 0, true)] = new Glyph(emoji, color);
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Return the index of a shared glyph.
+     *
+     * @param type    The type of the object.
+     * @param variant The variant, from 0 to {@link #VARIANTS} - 1.
+     * @param emoji   True for the emoji.
+     * @return The index in the table.
+     */
+    public static int code(ObjectName type, int variant, boolean emoji) {
+        return (type.ordinal() * VARIANTS + variant) * 2 + (emoji ? 1 : 0);
+    }
+
+    /**
+     * Return a shared glyph by index.
+     *
+     * @param code The index, see {@link #code(ObjectName, int, boolean)}.
+     * @return The glyph, null if the type has no shared glyph.
+     */
+    public static Glyph of(int code) {
+        return TABLE[code];
+    }
+
+    /**
+     * Return the shared glyph of a type.
+     *
+     * @param type    The type of the object.
+     * @param variant The variant.
+     * @param emoji   True for the emoji.
+     * @return The glyph, null if the type has no shared glyph.
+     */
+    public static Glyph of(ObjectName type, int variant, boolean emoji) {
+        return TABLE[code(type, variant, emoji)];
+    }
+
+    /**
+     * Return the colored character.
+     *
+     * @return The text.
+     */
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,58 @@
+package gameObjects;
+
+import general.*;
+
+/**
+ * Monster class: a non-player character that moves on the board and fights the players it meets.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class Monster extends GameObject {
+
+    /**
+     * Character representing the monster.
+     */
+    public static final String MONSTER_CHARACTER = "M ";
+
+    public static final String MONSTER_EMOJI = "👾";
+
+    /**
+     * Color rappresentation of the monster.
+     */
+    public static final Color MONSTER_COLOR = new Color(Color.ANSI_RED);
+
+    /**
+     * Constructor.
+     * @param position The initial position of the monster.
+     */
+    public Monster(Point position, boolean useEmoji) {
+        super(position, useEmoji, false);
+    }
+
+    /**
+     * Copy constructor.
+     * @param other The monster to copy.
+     */
+    private Monster(Monster other) {
+        super(other);
+    }
+
+    /**
+     * method used to return the name of the object
+     * @return the name of the object
+     */
+    @Override
+    public ObjectName getType() {
+        return ObjectName.Monster;
+    }
+
+    /**
+     * method used to create an independent copy of the object
+     * @return the copy of the object
+     */
+    @Override
+    public Monster copy() {
+        return new Monster(this);
+    }
+}
@@ -4,5 +4,5 @@ package gameObjects;
  * Name of the object enum.
  */
 public enum ObjectName {
-    Coin,Gem,Potion,Rock,Tree,Player
+    Coin,Gem,Potion,Rock,Tree,Player,Monster
 }
@@ -13,6 +13,16 @@ public class Player extends GameObject {
 
     //==================== Attributes ===================
 
+    /**
+     * Color of the players.
+     */
+    public static final Color PLAYER_COLOR = new Color(Color.ANSI_CYAN);
+
+    /**
+     * How the player is drawn: every player has its own marker, so its glyph is not shared.
+     */
+    private final Glyph glyph;
+
     /**
      * The player's username.
      */
@@ -33,11 +43,6 @@ public class Player extends GameObject {
      */
     private int potions = 0;
 
-    /**
-     * The default id for the player if the username is not specified or unacceptable.
-     */
-    private static int defaultId = 100;
-
     // ==================== Constructors ====================
 
     /**
@@ -48,14 +53,29 @@ public class Player extends GameObject {
      * @param marker the player's marker (the character who will be printed on the terminal).
      */
     public Player(Point position, String username, String marker) {
-        super(position,marker,new Color(Color.ANSI_CYAN),false);
+        super(position, false, false);
+        this.glyph = new Glyph(marker, PLAYER_COLOR);
         setUsername(username);
     }
 
+    /**
+     * Copy constructor.
+     * @param other The player to copy.
+     */
+    private Player(Player other) {
+        super(other);
+        this.glyph = other.glyph;
+        this.username = other.username;
+        this.coins = other.coins;
+        this.gems = other.gems;
+        this.potions = other.potions;
+    }
+
     // ==================== Getters and Setters ====================
 
     /**
-     * Sets the player's username, if the username is not acceptable it would be 'player' + defaultId.
+     * Sets the player's username, if the username is not acceptable it would be 'Player' + the marker.
+     * The default name depends only on the player, so matches played at the same time don't share a counter.
      *
      * @param username the player's username.
      */
@@ -63,10 +83,20 @@ public class Player extends GameObject {
         if(username.matches("[a-zA-Z0-9]+")){
             this.username = username;
         }else{
-            this.username = "Player" + defaultId++;
+            this.username = "Player" + getCharacter().trim();
         }
     }
 
+    /**
+     * Get how the player is drawn.
+     *
+     * @return The glyph with the marker of the player.
+     */
+    @Override
+    public Glyph getGlyph() {
+        return glyph;
+    }
+
     /**
      * Returns the number of coins the player has.
      *
@@ -91,6 +121,34 @@ public class Player extends GameObject {
     public int getPotions() {
         return potions;
     }
+
+    /**
+     * Sets the number of coins the player has.
+     *
+     * @param coins the number of coins (not negative).
+     */
+    public void setCoins(int coins) {
+        this.coins = checkCount(coins);
+    }
+
+    /**
+     * Sets the number of gems the player has.
+     *
+     * @param gems the number of gems (not negative).
+     */
+    public void setGems(int gems) {
+        this.gems = checkCount(gems);
+    }
+
+    /**
+     * Sets the number of potions the player has.
+     *
+     * @param potions the number of potions (not negative).
+     */
+    public void setPotions(int potions) {
+        this.potions = checkCount(potions);
+    }
+
     /**
      * Returns the player's username.
      *
@@ -101,6 +159,21 @@ public class Player extends GameObject {
     }
 
     //==================== private methods ====================
+
+    /**
+     * Checks a number of items.
+     *
+     * @param count the number of items.
+     * @return the number of items.
+     * @throws IllegalArgumentException if the number is negative.
+     */
+    private static int checkCount(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Invalid number of items: " + count);
+        }
+        return count;
+    }
+
     //==================== public methods ====================
 
     /**
@@ -175,4 +248,12 @@ public class Player extends GameObject {
         return ObjectName.Player;
     }
 
+    /**
+     * method used to create an independent copy of the object
+     * @return the copy of the object
+     */
+    @Override
+    public Player copy() {
+        return new Player(this);
+    }
 }
@@ -27,7 +27,15 @@ public class Potion extends GameObject{
      * @param position  The initial position of the game object.
      */
     public Potion(Point position, boolean useEmoji){
-        super(position, (useEmoji? POTION_EMOJI : POTION_CHARACTER), POTION_COLOR,false);
+        super(position, useEmoji, false);
+    }
+
+    /**
+     * Copy constructor.
+     * @param other The potion to copy.
+     */
+    private Potion(Potion other) {
+        super(other);
     }
 
     /**
@@ -38,4 +46,13 @@ public class Potion extends GameObject{
     public ObjectName getType() {
         return ObjectName.Potion;
     }
+
+    /**
+     * method used to create an independent copy of the object
+     * @return the copy of the object
+     */
+    @Override
+    public Potion copy() {
+        return new Potion(this);
+    }
 }
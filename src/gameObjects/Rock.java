@@ -25,7 +25,15 @@ public class Rock extends GameObject {
      * The initial position of the game object.
      */
     public Rock(Point position, boolean useEmoji) {
-        super(position, (useEmoji? ROCK_EMOJI : ROCK_CHARACTER), WALL_COLOR,true);
+        super(position, useEmoji, true);
+    }
+
+    /**
+     * Copy constructor.
+     * @param other The rock to copy.
+     */
+    private Rock(Rock other) {
+        super(other);
     }
 
     /**
@@ -36,5 +44,13 @@ public class Rock extends GameObject {
     public ObjectName getType() {
         return ObjectName.Rock;
     }
-    
+
+    /**
+     * method used to create an independent copy of the object
+     * @return the copy of the object
+     */
+    @Override
+    public Rock copy() {
+        return new Rock(this);
+    }
 }
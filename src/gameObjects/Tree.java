@@ -33,8 +33,17 @@ public class Tree extends GameObject {
      * @param position The initial position of the game object.
      */
     public Tree(Point position, boolean useEmoji) {
-        super(position, (useEmoji? TREE_EMOJI : TREE_CHARACTER), TREE_COLORS[TREE_COLORS.length-1],true);
-        this.health = MAX_HEALTH;
+        this(position, useEmoji, MAX_HEALTH);
+    }
+
+    /**
+     * Constructor.
+     * @param position The initial position of the game object.
+     * @param health The initial health of the tree.
+     */
+    public Tree(Point position, boolean useEmoji, int health) {
+        super(position, useEmoji, true);
+        setHealth(health);
     }
 
     /**
@@ -45,13 +54,31 @@ public class Tree extends GameObject {
         return health;
     }
 
+    /**
+     * method used to set tree health, with the matching colour
+     * @param health the new health
+     */
+    public void setHealth(int health) {
+        this.health = health;
+        setVariant(Math.max(1, Math.min(health, TREE_COLORS.length))-1);
+    }
+
     /**
      * method used to hit a tree and take 1 life from it, with life changing colour
      */
     public void hit(){
         this.health--;
         if(health-1>=0)
-            setColor(TREE_COLORS[health-1]);
+            setVariant(Math.min(health, TREE_COLORS.length)-1);
+    }
+
+    /**
+     * Copy constructor.
+     * @param other The tree to copy.
+     */
+    private Tree(Tree other) {
+        super(other);
+        this.health = other.health;
     }
 
     /**
@@ -62,4 +89,13 @@ public class Tree extends GameObject {
     public ObjectName getType() {
         return ObjectName.Tree;
     }
+
+    /**
+     * method used to create an independent copy of the object
+     * @return the copy of the object
+     */
+    @Override
+    public Tree copy() {
+        return new Tree(this);
+    }
 }
@@ -0,0 +1,556 @@
+package general;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Output stream that hands the bytes to a dedicated writer thread, so a slow terminal or pipe never stalls the game.
+ * The game thread fills fixed chunks of a single-producer/single-consumer ring; the writer thread claims the chunks
+ * it finds, copies them into one large buffer and gives them back before writing it to the channel, so the chunks
+ * are never held while the channel is slow. Only one thread may write to the stream.
+ * <p>
+ * The output is split in frames (a frame starts every time the screen is cleared). With {@link Policy#BLOCK}
+ * everything is written and the game thread waits when the ring is full. With {@link Policy#DROP_FRAMES} the writer
+ * skips the whole frames already followed by a newer one, and the game thread never waits for the channel:
+ * when the ring is full it takes back the oldest complete frame not claimed by the writer or, if there is none,
+ * discards the frame it is writing. The output written before the first frame is never dropped.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class AsyncOutputStream extends OutputStream {
+
+    //==================== Attributes ===================
+
+    /**
+     * What the writer does when it is behind the game.
+     */
+    public enum Policy {
+        /**
+         * Write every byte.
+         */
+        BLOCK,
+        /**
+         * Skip the frames replaced by a newer one before they were written.
+         */
+        DROP_FRAMES
+    }
+
+    /**
+     * Default number of chunks of the ring.
+     */
+    public static final int DEFAULT_CHUNKS = 256;
+
+    /**
+     * Default size of a chunk.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 4096;
+
+    /**
+     * Size of the buffer of a single write to the channel.
+     */
+    private static final int WRITE_SIZE = 64 * 1024;
+
+    /**
+     * Time waited by the game thread when the ring is full.
+     */
+    private static final long FULL_WAIT_NANOS = 100_000;
+
+    /**
+     * Stream installed as standard output, null if the output is direct.
+     */
+    private static volatile AsyncOutputStream installed;
+
+    /**
+     * The destination of the bytes.
+     */
+    private final WritableByteChannel channel;
+
+    /**
+     * The policy of the stream.
+     */
+    private final Policy policy;
+
+    /**
+     * The chunks of the ring.
+     */
+    private final byte[][] chunks;
+
+    /**
+     * Number of bytes of each published chunk.
+     */
+    private final int[] lengths;
+
+    /**
+     * True for the chunks that start a frame.
+     */
+    private final boolean[] frameStarts;
+
+    /**
+     * Mask of the index of a chunk (the number of chunks is a power of two).
+     */
+    private final int mask;
+
+    /**
+     * Number of chunks published by the game thread.
+     */
+    private volatile long tail;
+
+    /**
+     * Number of chunks claimed by the writer thread or dropped by the game thread.
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * Number of chunks given back to the game thread; the chunks between this and the head are being copied.
+     */
+    private final AtomicLong released = new AtomicLong();
+
+    /**
+     * Maximum number of chunks claimed by the writer at once.
+     */
+    private final int claim;
+
+    /**
+     * Bytes already written in the chunk being filled.
+     */
+    private int fill;
+
+    /**
+     * True if the chunk being filled starts a frame.
+     */
+    private boolean frameStart;
+
+    /**
+     * True once a frame was started.
+     */
+    private boolean inFrame;
+
+    /**
+     * True while the rest of the current frame is discarded.
+     */
+    private boolean discarding;
+
+    /**
+     * True while the writer thread is waiting for chunks.
+     */
+    private volatile boolean writerParked;
+
+    /**
+     * True once the stream is closed.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Number of frames skipped by the writer or dropped by the game thread.
+     */
+    private final AtomicLong droppedFrames = new AtomicLong();
+
+    /**
+     * First error of the writer, thrown to the game thread.
+     */
+    private volatile IOException error;
+
+    /**
+     * The writer thread.
+     */
+    private final Thread writer;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor, the writer thread is started.
+     *
+     * @param channel   The destination of the bytes.
+     * @param policy    The policy of the stream.
+     * @param chunks    Number of chunks of the ring, rounded up to a power of two.
+     * @param chunkSize Size of a chunk.
+     */
+    public AsyncOutputStream(WritableByteChannel channel, Policy policy, int chunks, int chunkSize) {
+        if (chunks < 2 || chunkSize < 1) {
+            throw new IllegalArgumentException("Invalid ring size");
+        }
+        int size = Integer.highestOneBit(chunks - 1) << 1;
+        this.channel = channel;
+        this.policy = policy;
+        this.chunks = new byte[size][chunkSize];
+        this.lengths = new int[size];
+        this.frameStarts = new boolean[size];
+        this.mask = size - 1;
+        this.claim = Math.max(1, WRITE_SIZE / chunkSize);
+        writer = new Thread(this::writeLoop, "console-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Constructor with the default ring size.
+     *
+     * @param channel The destination of the bytes.
+     * @param policy  The policy of the stream.
+     */
+    public AsyncOutputStream(WritableByteChannel channel, Policy policy) {
+        this(channel, policy, DEFAULT_CHUNKS, DEFAULT_CHUNK_SIZE);
+    }
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Get the policy of the stream.
+     *
+     * @return The policy.
+     */
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Get the number of frames skipped by the writer or dropped by the game thread.
+     *
+     * @return The number of dropped frames.
+     */
+    public long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Check that the stream can be written.
+     *
+     * @throws IOException If the stream is closed or the writer failed.
+     */
+    private void checkOpen() throws IOException {
+        if (error != null) {
+            throw error;
+        }
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    /**
+     * Make the chunk at the tail free. With {@link Policy#DROP_FRAMES}, inside a frame, the game thread only waits
+     * while the writer copies chunks, never while it writes to the channel.
+     *
+     * @return false if the current frame must be discarded instead.
+     */
+    private boolean awaitFreeChunk() {
+        while (tail - released.get() > mask && error == null) {
+            if (policy == Policy.DROP_FRAMES && inFrame) {
+                if (dropOldestFrame()) {
+                    continue;
+                }
+                if (released.get() == head.get()) {
+                    discarding = true;
+                    droppedFrames.incrementAndGet();
+                    return false;
+                }
+            }
+            LockSupport.parkNanos(FULL_WAIT_NANOS);
+        }
+        return true;
+    }
+
+    /**
+     * Take back the oldest frame of the ring if it is complete (a newer frame follows it) and not claimed by the
+     * writer.
+     *
+     * @return true if the frame was dropped.
+     */
+    private boolean dropOldestFrame() {
+        long from = head.get();
+        if (from == tail || released.get() != from || !frameStarts[(int) (from & mask)]) {
+            return false;
+        }
+        long next = -1;
+        for (long i = from + 1; i < tail && next < 0; i++) {
+            if (frameStarts[(int) (i & mask)]) {
+                next = i;
+            }
+        }
+        if (next < 0 && frameStart) {
+            // The chunk being filled starts a newer frame
+            next = tail;
+        }
+        if (next < 0 || !head.compareAndSet(from, next)) {
+            return false;
+        }
+        released.compareAndSet(from, next);
+        droppedFrames.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Discard the bytes of the chunk being filled.
+     */
+    private void discardChunk() {
+        fill = 0;
+        frameStart = false;
+    }
+
+    /**
+     * Publish the chunk being filled, if it isn't empty, to the writer thread.
+     */
+    private void publish() {
+        if (fill == 0 && !frameStart) {
+            return;
+        }
+        if (discarding || !awaitFreeChunk()) {
+            discardChunk();
+            return;
+        }
+        int slot = (int) (tail & mask);
+        lengths[slot] = fill;
+        frameStarts[slot] = frameStart;
+        fill = 0;
+        frameStart = false;
+        tail = tail + 1;
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Write a buffer to the channel.
+     *
+     * @param buffer The buffer, ready to be read.
+     * @throws IOException If the channel can't be written.
+     */
+    private void drain(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Loop of the writer thread.
+     */
+    private void writeLoop() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(claim * chunks[0].length);
+        try {
+            while (true) {
+                long from = head.get();
+                long to = tail;
+                if (from == to) {
+                    if (closed) {
+                        return;
+                    }
+                    writerParked = true;
+                    if (head.get() == tail && !closed) {
+                        LockSupport.park(this);
+                    }
+                    writerParked = false;
+                    continue;
+                }
+                // The chunks [from, prefix) are written, [prefix, start) skipped, [start, end) written
+                long prefix = from;
+                long start = from;
+                int skipped = 0;
+                if (policy == Policy.DROP_FRAMES) {
+                    long first = -1;
+                    long last = -1;
+                    for (long i = from; i < to; i++) {
+                        if (frameStarts[(int) (i & mask)]) {
+                            if (first < 0) {
+                                first = i;
+                            }
+                            last = i;
+                        }
+                    }
+                    // Only whole frames are skipped: the output before the first frame and the rest of a frame
+                    // already started are always written
+                    if (last > first && first - from < claim) {
+                        for (long i = first; i < last; i++) {
+                            if (frameStarts[(int) (i & mask)]) {
+                                skipped++;
+                            }
+                        }
+                        prefix = first;
+                        start = last;
+                    }
+                }
+                long end = Math.min(to, start + claim - (prefix - from));
+                if (!head.compareAndSet(from, end)) {
+                    // The game thread dropped a frame meanwhile
+                    continue;
+                }
+                droppedFrames.addAndGet(skipped);
+                for (long i = from; i < prefix; i++) {
+                    int slot = (int) (i & mask);
+                    buffer.put(chunks[slot], 0, lengths[slot]);
+                }
+                for (long i = start; i < end; i++) {
+                    int slot = (int) (i & mask);
+                    buffer.put(chunks[slot], 0, lengths[slot]);
+                }
+                released.set(end);
+                buffer.flip();
+                drain(buffer);
+                buffer.clear();
+            }
+        } catch (IOException e) {
+            error = e;
+        }
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Write a byte.
+     *
+     * @param b The byte.
+     * @throws IOException If the stream is closed or the writer failed.
+     */
+    @Override
+    public void write(int b) throws IOException {
+        checkOpen();
+        if (discarding) {
+            return;
+        }
+        if (fill == chunks[0].length) {
+            publish();
+        }
+        if (discarding || !awaitFreeChunk()) {
+            discardChunk();
+            return;
+        }
+        chunks[(int) (tail & mask)][fill++] = (byte) b;
+    }
+
+    /**
+     * Write a part of an array.
+     *
+     * @param b   The array.
+     * @param off First byte to write.
+     * @param len Number of bytes.
+     * @throws IOException If the stream is closed or the writer failed.
+     */
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        checkOpen();
+        while (len > 0 && !discarding) {
+            if (fill == chunks[0].length) {
+                publish();
+            }
+            if (discarding || !awaitFreeChunk()) {
+                discardChunk();
+                return;
+            }
+            int length = Math.min(len, chunks[0].length - fill);
+            System.arraycopy(b, off, chunks[(int) (tail & mask)], fill, length);
+            fill += length;
+            off += length;
+            len -= length;
+        }
+    }
+
+    /**
+     * Hand the buffered bytes to the writer thread (without waiting for them to be written).
+     *
+     * @throws IOException If the writer failed.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (error != null) {
+            throw error;
+        }
+        publish();
+    }
+
+    /**
+     * Start a new frame: what was written before may be skipped if this frame is ready before it is written.
+     */
+    public void beginFrame() {
+        publish();
+        discarding = false;
+        inFrame = true;
+        frameStart = true;
+    }
+
+    /**
+     * Write all the remaining bytes and stop the writer thread.
+     *
+     * @throws IOException If the writer failed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        publish();
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Replace the standard output with an asynchronous stream, written by a writer thread to the file descriptor
+     * of the console. The remaining bytes are written when the program exits.
+     *
+     * @param policy The policy of the stream.
+     * @return The installed stream.
+     */
+    public static synchronized AsyncOutputStream install(Policy policy) {
+        if (installed != null) {
+            return installed;
+        }
+        AsyncOutputStream stream = new AsyncOutputStream(
+                new FileOutputStream(FileDescriptor.out).getChannel(), policy);
+        try {
+            System.setOut(new PrintStream(stream, true, "UTF-8"));
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.flush();
+            try {
+                stream.close();
+            } catch (IOException e) {
+                // Nothing left to write to
+            }
+        }));
+        installed = stream;
+        return stream;
+    }
+
+    /**
+     * Install the stream selected by the system property {@code game.output}:
+     * {@code block} or {@code drop} ({@link Policy#DROP_FRAMES}); any other value keeps the direct output.
+     */
+    public static void installFromProperty() {
+        String value = System.getProperty("game.output", "direct");
+        if ("block".equalsIgnoreCase(value)) {
+            install(Policy.BLOCK);
+        } else if ("drop".equalsIgnoreCase(value)) {
+            install(Policy.DROP_FRAMES);
+        }
+    }
+
+    /**
+     * Mark the start of a new frame on the standard output, if it is asynchronous.
+     */
+    public static void frame() {
+        AsyncOutputStream stream = installed;
+        if (stream != null) {
+            System.out.flush();
+            stream.beginFrame();
+        }
+    }
+}
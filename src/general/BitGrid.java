@@ -0,0 +1,439 @@
+package general;
+
+import java.util.Arrays;
+
+/**
+ * Set of cells of a wrap-around grid stored as bits, one row after the other in {@code long} words.
+ * Operations on the whole grid work on 64 cells at a time.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class BitGrid {
+
+    //==================== Attributes ===================
+
+    /**
+     * Grid width.
+     */
+    private final int sizeX;
+
+    /**
+     * Grid height.
+     */
+    private final int sizeY;
+
+    /**
+     * Number of words used by a row.
+     */
+    private final int rowWords;
+
+    /**
+     * Mask of the valid bits of the last word of a row.
+     */
+    private final long lastMask;
+
+    /**
+     * The bits, row by row.
+     */
+    private final long[] words;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor, all the cells are empty.
+     *
+     * @param sizeX Grid width.
+     * @param sizeY Grid height.
+     */
+    public BitGrid(int sizeX, int sizeY) {
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.rowWords = (sizeX + 63) >>> 6;
+        this.lastMask = (sizeX & 63) == 0 ? -1L : (1L << (sizeX & 63)) - 1;
+        this.words = new long[rowWords * sizeY];
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param other The grid to copy.
+     */
+    public BitGrid(BitGrid other) {
+        this.sizeX = other.sizeX;
+        this.sizeY = other.sizeY;
+        this.rowWords = other.rowWords;
+        this.lastMask = other.lastMask;
+        this.words = other.words.clone();
+    }
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Get the grid width.
+     *
+     * @return The grid width.
+     */
+    public int getSizeX() {
+        return sizeX;
+    }
+
+    /**
+     * Get the grid height.
+     *
+     * @return The grid height.
+     */
+    public int getSizeY() {
+        return sizeY;
+    }
+
+    /**
+     * Check if a cell is set.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return true if the cell is set.
+     */
+    public boolean get(int x, int y) {
+        return (words[y * rowWords + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    /**
+     * Set a cell.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     */
+    public void set(int x, int y) {
+        words[y * rowWords + (x >>> 6)] |= 1L << x;
+    }
+
+    /**
+     * Clear a cell.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     */
+    public void clear(int x, int y) {
+        words[y * rowWords + (x >>> 6)] &= ~(1L << x);
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Check that another grid has the same size.
+     *
+     * @param other The other grid.
+     */
+    private void checkSize(BitGrid other) {
+        if (other.sizeX != sizeX || other.sizeY != sizeY) {
+            throw new IllegalArgumentException("Grids of different size");
+        }
+    }
+
+    /**
+     * Write a row moved one cell east (x + 1), the last cell wraps to the first one.
+     *
+     * @param source Words of the source.
+     * @param from   First word of the source row.
+     * @param target Words of the target.
+     * @param to     First word of the target row.
+     */
+    private void rotateEast(long[] source, int from, long[] target, int to) {
+        long carry = 0;
+        for (int w = 0; w < rowWords; w++) {
+            long value = source[from + w];
+            target[to + w] = (value << 1) | carry;
+            carry = value >>> 63;
+        }
+        long wrapped;
+        if ((sizeX & 63) == 0) {
+            wrapped = carry;
+        } else {
+            wrapped = (target[to + rowWords - 1] >>> (sizeX & 63)) & 1L;
+            target[to + rowWords - 1] &= lastMask;
+        }
+        target[to] |= wrapped;
+    }
+
+    /**
+     * Write a row moved one cell west (x - 1), the first cell wraps to the last one.
+     *
+     * @param source Words of the source.
+     * @param from   First word of the source row.
+     * @param target Words of the target.
+     * @param to     First word of the target row.
+     */
+    private void rotateWest(long[] source, int from, long[] target, int to) {
+        long wrapped = source[from] & 1L;
+        for (int w = 0; w < rowWords; w++) {
+            long next = w + 1 < rowWords ? source[from + w + 1] : 0;
+            target[to + w] = (source[from + w] >>> 1) | (next << 63);
+        }
+        target[to + rowWords - 1] |= wrapped << ((sizeX - 1) & 63);
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Clear all the cells.
+     */
+    public void clearAll() {
+        Arrays.fill(words, 0);
+    }
+
+    /**
+     * Set all the cells.
+     */
+    public void setAll() {
+        Arrays.fill(words, -1L);
+        for (int y = 0; y < sizeY; y++) {
+            words[y * rowWords + rowWords - 1] &= lastMask;
+        }
+    }
+
+    /**
+     * Invert the grid: set cells are cleared and empty cells are set.
+     */
+    public void invert() {
+        for (int i = 0; i < words.length; i++) {
+            words[i] = ~words[i];
+        }
+        for (int y = 0; y < sizeY; y++) {
+            words[y * rowWords + rowWords - 1] &= lastMask;
+        }
+    }
+
+    /**
+     * Copy the cells of another grid of the same size.
+     *
+     * @param other The grid to copy.
+     */
+    public void copyFrom(BitGrid other) {
+        checkSize(other);
+        System.arraycopy(other.words, 0, words, 0, words.length);
+    }
+
+    /**
+     * Add the cells of another grid.
+     *
+     * @param other The other grid.
+     */
+    public void or(BitGrid other) {
+        checkSize(other);
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= other.words[i];
+        }
+    }
+
+    /**
+     * Keep only the cells that are also in another grid.
+     *
+     * @param other The other grid.
+     */
+    public void and(BitGrid other) {
+        checkSize(other);
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= other.words[i];
+        }
+    }
+
+    /**
+     * Remove the cells of another grid.
+     *
+     * @param other The other grid.
+     */
+    public void andNot(BitGrid other) {
+        checkSize(other);
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= ~other.words[i];
+        }
+    }
+
+    /**
+     * Check if the grid has a cell in common with another grid.
+     *
+     * @param other The other grid.
+     * @return true if a cell is set in both grids.
+     */
+    public boolean intersects(BitGrid other) {
+        checkSize(other);
+        for (int i = 0; i < words.length; i++) {
+            if ((words[i] & other.words[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Count the cells that are set.
+     *
+     * @return The number of cells set.
+     */
+    public int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Count the cells set in both this grid and another one.
+     *
+     * @param other The other grid.
+     * @return The number of common cells.
+     */
+    public int andCardinality(BitGrid other) {
+        checkSize(other);
+        int count = 0;
+        for (int i = 0; i < words.length; i++) {
+            count += Long.bitCount(words[i] & other.words[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Check if no cell is set.
+     *
+     * @return true if the grid is empty.
+     */
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Add to the grid the four neighbours (north, south, east, west) of every cell, wrapping around the borders.
+     *
+     * @param buffer Grid of the same size used as work area (its content is lost).
+     */
+    public void dilate(BitGrid buffer) {
+        checkSize(buffer);
+        long[] tmp = buffer.words;
+        for (int y = 0; y < sizeY; y++) {
+            int row = y * rowWords;
+            int north = ((y + sizeY - 1) % sizeY) * rowWords;
+            int south = ((y + 1) % sizeY) * rowWords;
+            rotateEast(words, row, tmp, row);
+            for (int w = 0; w < rowWords; w++) {
+                tmp[row + w] |= words[row + w] | words[north + w] | words[south + w];
+            }
+        }
+        for (int y = 0; y < sizeY; y++) {
+            int row = y * rowWords;
+            rotateWest(words, row, words, row);
+            for (int w = 0; w < rowWords; w++) {
+                words[row + w] |= tmp[row + w];
+            }
+        }
+    }
+
+    /**
+     * Expand the grid to all the cells reachable through the passable cells (flood fill).
+     *
+     * @param passable The cells that can be crossed.
+     * @param buffer   Grid of the same size used as work area (its content is lost).
+     */
+    public void fill(BitGrid passable, BitGrid buffer) {
+        int count = cardinality();
+        while (true) {
+            dilate(buffer);
+            and(passable);
+            int next = cardinality();
+            if (next == count) {
+                return;
+            }
+            count = next;
+        }
+    }
+
+    /**
+     * Return the index (y * sizeX + x) of the first cell set starting from an index.
+     *
+     * @param from The index to start from.
+     * @return The index of the cell, -1 if there are no more cells.
+     */
+    public int nextSetBit(int from) {
+        if (from < 0) {
+            from = 0;
+        }
+        int y = from / sizeX;
+        int x = from % sizeX;
+        while (y < sizeY) {
+            int w = x >>> 6;
+            long word = words[y * rowWords + w] & (-1L << x);
+            while (true) {
+                if (word != 0) {
+                    return y * sizeX + (w << 6) + Long.numberOfTrailingZeros(word);
+                }
+                if (++w == rowWords) {
+                    break;
+                }
+                word = words[y * rowWords + w];
+            }
+            y++;
+            x = 0;
+        }
+        return -1;
+    }
+
+    /**
+     * Count the cells set in a part of a row, without wrapping around.
+     *
+     * @param y    The row.
+     * @param from First column, included.
+     * @param to   Last column, excluded.
+     * @return The number of cells set.
+     */
+    public int countRow(int y, int from, int to) {
+        if (from >= to) {
+            return 0;
+        }
+        int row = y * rowWords;
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastWordMask = -1L >>> (63 - ((to - 1) & 63));
+        if (first == last) {
+            return Long.bitCount(words[row + first] & firstMask & lastWordMask);
+        }
+        int count = Long.bitCount(words[row + first] & firstMask);
+        for (int w = first + 1; w < last; w++) {
+            count += Long.bitCount(words[row + w]);
+        }
+        return count + Long.bitCount(words[row + last] & lastWordMask);
+    }
+
+    /**
+     * Return the first cell set in a part of a row, without wrapping around.
+     *
+     * @param y    The row.
+     * @param from First column, included.
+     * @param to   Last column, excluded.
+     * @return The column of the cell, -1 if no cell is set.
+     */
+    public int nextSetBitInRow(int y, int from, int to) {
+        if (from >= to) {
+            return -1;
+        }
+        int row = y * rowWords;
+        int w = from >>> 6;
+        long word = words[row + w] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                int x = (w << 6) + Long.numberOfTrailingZeros(word);
+                return x < to ? x : -1;
+            }
+            if (++w > (to - 1) >>> 6) {
+                return -1;
+            }
+            word = words[row + w];
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package general;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the keys from an input stream on a dedicated thread, so the game never blocks on the input and can take
+ * all the keys pressed since the last frame at once. Enter is ignored and the arrow keys are turned into
+ * {@code w}, {@code a}, {@code s} and {@code d}.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class KeyReader {
+
+    //==================== Attributes ===================
+
+    /**
+     * Returned when no key was pressed in time.
+     */
+    public static final int NONE = -1;
+
+    /**
+     * Returned, from then on, when the input ended.
+     */
+    public static final int END = -2;
+
+    /**
+     * The escape key, which starts the sequences of the arrow keys.
+     */
+    private static final int ESCAPE = 27;
+
+    /**
+     * The source of the keys.
+     */
+    private final InputStream in;
+
+    /**
+     * Keys read and not taken yet.
+     */
+    private final BlockingQueue<Integer> keys = new LinkedBlockingQueue<>();
+
+    /**
+     * The thread that reads the keys.
+     */
+    private final Thread thread;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor.
+     *
+     * @param in The source of the keys, e.g. the standard input of a raw terminal or a pipe.
+     */
+    public KeyReader(InputStream in) {
+        this.in = in;
+        this.thread = new Thread(this::read, "key-reader");
+        this.thread.setDaemon(true);
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Loop of the thread: read the keys until the input ends.
+     */
+    private void read() {
+        try {
+            int b;
+            while ((b = in.read()) >= 0) {
+                if (b == ESCAPE) {
+                    b = arrow();
+                }
+                if (b > 0 && b != '\r' && b != '\n') {
+                    keys.add(b);
+                }
+            }
+        } catch (IOException e) {
+            // The input is closed like at its end
+        }
+        keys.add(END);
+    }
+
+    /**
+     * Read the rest of an escape sequence.
+     *
+     * @return The key of the arrow, 0 for other sequences.
+     * @throws IOException If the input can't be read.
+     */
+    private int arrow() throws IOException {
+        if (in.read() != '[') {
+            return 0;
+        }
+        switch (in.read()) {
+            case 'A':
+                return 'w';
+            case 'B':
+                return 's';
+            case 'C':
+                return 'd';
+            case 'D':
+                return 'a';
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Turn a key taken from the queue into the result, keeping the end of the input for the next calls.
+     *
+     * @param key The key, null if there was none.
+     * @return The key, {@link #NONE} or {@link #END}.
+     */
+    private int result(Integer key) {
+        if (key == null) {
+            return NONE;
+        }
+        if (key == END) {
+            keys.add(END);
+        }
+        return key;
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Start reading the keys.
+     */
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Take the next key, waiting at most a time.
+     *
+     * @param timeout Maximum wait in milliseconds, 0 to return at once.
+     * @return The key, {@link #NONE} if no key was pressed in time, {@link #END} if the input ended.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public int poll(long timeout) throws InterruptedException {
+        return result(timeout > 0 ? keys.poll(timeout, TimeUnit.MILLISECONDS) : keys.poll());
+    }
+
+    /**
+     * Take the next key, waiting until one is pressed.
+     *
+     * @return The key, {@link #END} if the input ended.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public int take() throws InterruptedException {
+        return result(keys.take());
+    }
+}
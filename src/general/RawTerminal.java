@@ -0,0 +1,129 @@
+package general;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Puts the terminal in raw mode, so every key is read as soon as it is pressed, without waiting for Enter and
+ * without echo. The mode is changed with {@code stty} on {@code /dev/tty} and restored when the terminal is closed
+ * or the program ends. Without a terminal (e.g. piped input) nothing is changed and the input is read as it comes.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class RawTerminal implements Closeable {
+
+    //==================== Attributes ===================
+
+    /**
+     * The terminal device.
+     */
+    private static final File TTY = new File("/dev/tty");
+
+    /**
+     * Settings of the terminal before raw mode, null if it was not changed.
+     */
+    private final String saved;
+
+    /**
+     * Hook that restores the terminal if the program ends without closing it.
+     */
+    private final Thread restoreHook;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor.
+     *
+     * @param saved Settings to restore, null if the terminal was not changed.
+     */
+    private RawTerminal(String saved) {
+        this.saved = saved;
+        if (saved != null) {
+            restoreHook = new Thread(() -> stty(saved), "raw-terminal-restore");
+            Runtime.getRuntime().addShutdownHook(restoreHook);
+        } else {
+            restoreHook = null;
+        }
+    }
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Check if the terminal is in raw mode.
+     *
+     * @return false if there is no terminal or it couldn't be changed.
+     */
+    public boolean isRaw() {
+        return saved != null;
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Run {@code stty} on the terminal.
+     *
+     * @param args The arguments.
+     * @return The output, null if the command failed.
+     */
+    private static String stty(String... args) {
+        if (!TTY.exists()) {
+            return null;
+        }
+        List<String> command = new ArrayList<>();
+        command.add("stty");
+        command.addAll(Arrays.asList(args));
+        try {
+            Process process = new ProcessBuilder(command)
+                    .redirectInput(TTY)
+                    .redirectError(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (InputStream in = process.getInputStream()) {
+                in.transferTo(out);
+            }
+            return process.waitFor() == 0 ? out.toString().trim() : null;
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Put the terminal in raw mode (no line buffering, no echo; Ctrl-C still ends the program).
+     *
+     * @return The terminal, to be closed to restore it.
+     */
+    public static RawTerminal enable() {
+        String saved = stty("-g");
+        if (saved != null && stty("-icanon", "-echo", "min", "1") == null) {
+            saved = null;
+        }
+        return new RawTerminal(saved);
+    }
+
+    /**
+     * Restore the settings of the terminal.
+     */
+    @Override
+    public void close() {
+        if (saved != null) {
+            stty(saved);
+            try {
+                Runtime.getRuntime().removeShutdownHook(restoreHook);
+            } catch (IllegalStateException e) {
+                // The program is already ending, the hook restores the terminal
+            }
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package general;
+
+import java.io.Closeable;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hashed timing wheel: runs short tasks after a delay, with the precision of a tick.
+ * <p>
+ * The timeouts are kept in a ring of buckets, one per tick; a timeout further than a turn of the ring stays in its
+ * bucket for the turns still to wait. Scheduling and cancelling only add the timeout to a queue, so they cost the
+ * same with one or thousands of timeouts pending, and a single thread moves the new timeouts into the buckets and
+ * expires one bucket per tick. The tasks run on that thread and must not block.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class TimingWheel implements Closeable {
+
+    //==================== Attributes ===================
+
+    /**
+     * Default duration of a tick, in milliseconds.
+     */
+    public static final long DEFAULT_TICK_MILLIS = 10;
+
+    /**
+     * Default number of buckets.
+     */
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    /**
+     * Duration of a tick, in nanoseconds.
+     */
+    private final long tickNanos;
+
+    /**
+     * The buckets, each one the head of a list of timeouts.
+     */
+    private final Timeout[] buckets;
+
+    /**
+     * Number of buckets minus one, the number of buckets being a power of two.
+     */
+    private final int mask;
+
+    /**
+     * Timeouts scheduled and not in a bucket yet.
+     */
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Timeouts cancelled and maybe still in a bucket.
+     */
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Time of the start of the wheel.
+     */
+    private final long start;
+
+    /**
+     * Number of timeouts scheduled and neither expired nor cancelled.
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * The thread that moves the wheel.
+     */
+    private final Thread thread;
+
+    /**
+     * Number of ticks done, used only by the thread of the wheel.
+     */
+    private long tick;
+
+    /**
+     * True once the wheel is closed.
+     */
+    private volatile boolean closed;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor with a tick of {@value #DEFAULT_TICK_MILLIS} ms and {@value #DEFAULT_WHEEL_SIZE} buckets.
+     */
+    public TimingWheel() {
+        this(DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE);
+    }
+
+    /**
+     * Constructor, the wheel starts at once.
+     *
+     * @param tickMillis Duration of a tick, in milliseconds.
+     * @param wheelSize  Number of buckets, rounded up to a power of two.
+     * @throws IllegalArgumentException If the tick or the number of buckets are not positive.
+     */
+    public TimingWheel(long tickMillis, int wheelSize) {
+        if (tickMillis < 1) {
+            throw new IllegalArgumentException("Invalid tick: " + tickMillis);
+        }
+        if (wheelSize < 1 || wheelSize > 1 << 30) {
+            throw new IllegalArgumentException("Invalid wheel size: " + wheelSize);
+        }
+        int size = Integer.highestOneBit(wheelSize);
+        if (size < wheelSize) {
+            size <<= 1;
+        }
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.buckets = new Timeout[size];
+        this.mask = size - 1;
+        this.start = System.nanoTime();
+        this.thread = new Thread(this::run, "timing-wheel");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Get the number of timeouts waiting.
+     *
+     * @return The number of timeouts neither expired nor cancelled.
+     */
+    public int getPending() {
+        return pending.get();
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Loop of the thread: at every tick add the new timeouts, remove the cancelled ones and expire a bucket.
+     */
+    private void run() {
+        while (!closed) {
+            long wait = start + (tick + 1) * tickNanos - System.nanoTime();
+            if (wait > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } catch (InterruptedException e) {
+                    if (closed) {
+                        break;
+                    }
+                }
+                continue;
+            }
+            Timeout timeout;
+            while ((timeout = cancelled.poll()) != null) {
+                unlink(timeout);
+            }
+            while ((timeout = scheduled.poll()) != null) {
+                if (timeout.state.get() == Timeout.PENDING) {
+                    link(timeout);
+                }
+            }
+            expire(buckets[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    /**
+     * Put a timeout in the bucket of its deadline; a timeout already late goes in the current bucket.
+     *
+     * @param timeout The timeout.
+     */
+    private void link(Timeout timeout) {
+        long ticks = Math.max(tick, (timeout.deadline - start) / tickNanos);
+        timeout.rounds = (ticks - tick) >> Integer.numberOfTrailingZeros(buckets.length);
+        int index = (int) (ticks & mask);
+        timeout.bucket = index;
+        timeout.next = buckets[index];
+        if (timeout.next != null) {
+            timeout.next.prev = timeout;
+        }
+        buckets[index] = timeout;
+    }
+
+    /**
+     * Remove a timeout from its bucket, if it is in one.
+     *
+     * @param timeout The timeout.
+     */
+    private void unlink(Timeout timeout) {
+        if (timeout.bucket < 0) {
+            return;
+        }
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            buckets[timeout.bucket] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.bucket = -1;
+    }
+
+    /**
+     * Run the timeouts of a bucket whose turn came; the others wait one turn less.
+     *
+     * @param head The first timeout of the bucket.
+     */
+    private void expire(Timeout head) {
+        Timeout timeout = head;
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            if (timeout.rounds <= 0) {
+                unlink(timeout);
+                if (timeout.state.compareAndSet(Timeout.PENDING, Timeout.EXPIRED)) {
+                    pending.decrementAndGet();
+                    try {
+                        timeout.task.run();
+                    } catch (RuntimeException e) {
+                        System.err.println("Timeout task failed: " + e);
+                    }
+                }
+            } else {
+                timeout.rounds--;
+            }
+            timeout = next;
+        }
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Run a task after a delay, on the thread of the wheel.
+     *
+     * @param task        The task, short and not blocking.
+     * @param delayMillis The delay in milliseconds; the task runs at the end of the tick of the deadline.
+     * @return The timeout, to cancel it.
+     * @throws IllegalStateException If the wheel is closed.
+     */
+    public Timeout schedule(Runnable task, long delayMillis) {
+        if (closed) {
+            throw new IllegalStateException("The timing wheel is closed");
+        }
+        Timeout timeout = new Timeout(this, task,
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis)));
+        pending.incrementAndGet();
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Stop the wheel; the timeouts still pending never run.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        thread.interrupt();
+    }
+
+    /**
+     * A task scheduled on the wheel.
+     */
+    public static final class Timeout {
+
+        /**
+         * Waiting.
+         */
+        private static final int PENDING = 0;
+
+        /**
+         * Cancelled before its deadline.
+         */
+        private static final int CANCELLED = 1;
+
+        /**
+         * Run.
+         */
+        private static final int EXPIRED = 2;
+
+        /**
+         * The wheel.
+         */
+        private final TimingWheel wheel;
+
+        /**
+         * The task.
+         */
+        private final Runnable task;
+
+        /**
+         * Deadline, as {@link System#nanoTime()}.
+         */
+        private final long deadline;
+
+        /**
+         * State of the timeout.
+         */
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        /**
+         * Turns of the wheel still to wait, used only by the thread of the wheel.
+         */
+        private long rounds;
+
+        /**
+         * Index of the bucket, -1 when not in a bucket.
+         */
+        private int bucket = -1;
+
+        /**
+         * Previous timeout of the bucket.
+         */
+        private Timeout prev;
+
+        /**
+         * Next timeout of the bucket.
+         */
+        private Timeout next;
+
+        /**
+         * Constructor.
+         *
+         * @param wheel    The wheel.
+         * @param task     The task.
+         * @param deadline Deadline, as {@link System#nanoTime()}.
+         */
+        private Timeout(TimingWheel wheel, Runnable task, long deadline) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Check if the task was run.
+         *
+         * @return true if the timeout expired.
+         */
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        /**
+         * Check if the timeout was cancelled.
+         *
+         * @return true if it was cancelled.
+         */
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        /**
+         * Cancel the timeout, if the task was not run yet.
+         *
+         * @return true if the timeout was cancelled, false if it had already expired or been cancelled.
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(PENDING, CANCELLED)) {
+                return false;
+            }
+            wheel.pending.decrementAndGet();
+            wheel.cancelled.add(this);
+            return true;
+        }
+    }
+}
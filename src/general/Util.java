@@ -25,6 +25,7 @@ public class Util {
      * Clear the console.
      */
     public static void clearScreen() {  
+        AsyncOutputStream.frame();
         System.out.print("\033[H\033[2J");  
         System.out.flush();  
     }  
@@ -0,0 +1,128 @@
+package launcher;
+
+import ai.ExpectimaxSearch;
+import gameEngine.BoardSnapshot;
+import gameEngine.DeltaEncoder;
+import gameEngine.FightResolver;
+import gameEngine.GameLogic;
+import gameEngine.GameRules;
+import gameEngine.HeadlessMatch;
+import gameEngine.RandomWalkController;
+import gameObjects.GameObject;
+import gameObjects.Player;
+import general.Direction;
+import general.Point;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+/**
+ * Times the main operations of the engine on the rules of the options and prints the time of one operation.
+ * Every benchmark runs a fifth of its iterations to warm up the JIT before the timed ones.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class BenchMode implements LaunchMode {
+
+    /**
+     * An operation to time.
+     */
+    private interface Workload {
+
+        /**
+         * Run the operation once.
+         *
+         * @param i Index of the iteration.
+         * @return A value depending on the result, so the operation can't be optimized away.
+         */
+        long run(int i);
+    }
+
+    //==================== Attributes ===================
+
+    /**
+     * Sum of the results of the operations.
+     */
+    private long checksum;
+
+    //==================== private methods ====================
+
+    /**
+     * Create a silent game whose players are random bots.
+     *
+     * @param rules Rules of the game.
+     * @param seed  Seed of the game.
+     * @return The game.
+     */
+    private static GameLogic newGame(GameRules rules, long seed) {
+        GameLogic gameLogic = new GameLogic(rules.getColumns(), rules.getRows(), false, rules, seed);
+        SplittableRandom random = new SplittableRandom(seed);
+        gameLogic.setFightResolver(new FightResolver(FightResolver.Mode.FAST, random.split()));
+        for (int i = 0; i < GameLogic.NUMBER_OF_PLAYERS; i++) {
+            gameLogic.setController(i, new RandomWalkController(random.split()));
+        }
+        return gameLogic;
+    }
+
+    /**
+     * Time a benchmark and print the result.
+     *
+     * @param name       Name of the benchmark.
+     * @param iterations Timed iterations.
+     * @param workload   The operation.
+     */
+    private void time(String name, int iterations, Workload workload) {
+        for (int i = 0; i < Math.max(1, iterations / 5); i++) {
+            checksum += workload.run(i);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            checksum += workload.run(i);
+        }
+        double nanos = (double) (System.nanoTime() - start) / iterations;
+        System.out.printf("%-24s %10d %14.1f%n", name, iterations, nanos / 1000);
+    }
+
+    //==================== public methods ====================
+
+    @Override
+    public void run(LaunchOptions options) throws IOException {
+        GameRules rules = options.getRules();
+        long seed = options.getSeed() != null ? options.getSeed() : 1;
+        int iterations = options.getIterations();
+        GameLogic game = newGame(rules, seed);
+        SplittableRandom random = new SplittableRandom(seed);
+        Direction[] directions = Direction.values();
+        System.out.printf("%-24s %10s %14s%n", "benchmark", "iterations", "us/op");
+
+        time("headless match", Math.max(1, iterations / 10), i ->
+                new HeadlessMatch(rules, seed + i, options.getTurns()).play(null) ? 1 : 0);
+        time("copy", iterations, i -> game.copy().getGameObjects().size());
+        time("snapshot", iterations, i -> BoardSnapshot.of(game).getCellCount());
+        DeltaEncoder encoder = new DeltaEncoder(64);
+        time("step + delta frame", iterations * 10, i -> {
+            Player player = game.getCurrentPlayer();
+            GameObject obstacle = game.movePlayer(player, directions[random.nextInt(directions.length)]);
+            if (obstacle != null) {
+                game.collide(player, obstacle);
+            }
+            if (i % 4 == 3) {
+                game.nextTurn();
+            }
+            return encoder.encode(BoardSnapshot.of(game)).length;
+        });
+        time("reachable cells", iterations, i ->
+                game.getReachableCells(new Point(i % game.getSizeX(), i / game.getSizeX() % game.getSizeY()))
+                        .cardinality());
+        ExpectimaxSearch search = new ExpectimaxSearch(seed);
+        try {
+            GameLogic state = newGame(rules, seed + 1);
+            time("expectimax (3 steps)", Math.max(1, iterations / 20), i ->
+                    search.search(state, 3).getDirection().ordinal());
+        } finally {
+            search.shutdown();
+        }
+        System.out.println("checksum " + checksum);
+    }
+}
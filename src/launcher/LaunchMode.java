@@ -0,0 +1,20 @@
+package launcher;
+
+import java.io.IOException;
+
+/**
+ * Something the program can do, selected with {@code --mode}.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public interface LaunchMode {
+
+    /**
+     * Run the mode.
+     *
+     * @param options Options of the command line.
+     * @throws IOException If a file or the network can't be used.
+     */
+    void run(LaunchOptions options) throws IOException;
+}
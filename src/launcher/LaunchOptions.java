@@ -0,0 +1,583 @@
+package launcher;
+
+import gameEngine.GameRules;
+import gameEngine.RemoteController;
+import gameEngine.TerminalUI;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Options of the command line.
+ * <ul>
+ * <li>{@code --mode play|simulate|serve|replay|bench}: what the program does (default play).</li>
+ * <li>{@code --size CxR}, {@code --rules file}: board size and rules file of the matches.</li>
+ * <li>{@code --seed s}: seed of the match (of the first headless match).</li>
+ * <li>{@code --players a,b}: controllers of the two players of an interactive match, {@code console}
+ * or {@code random}; in the served matches a {@code remote} player is played over HTTP by a client
+ * ({@link server.SpectatorServer}) and the other players by random bots.</li>
+ * <li>{@code --turn-time ms}, {@code --step-time ms}: time limits of a remote player for a whole turn
+ * and for every step or answer.</li>
+ * <li>{@code --timeout-action skip|random}: what a remote player does with the steps not sent in time
+ * (default skip).</li>
+ * <li>{@code --emoji on|off}: draw the board with emoji, asked when not given.</li>
+ * <li>{@code --no-splash}: don't show the splash screen (it is never shown without a console).</li>
+ * <li>{@code --tui}, {@code --fps n}: play on a raw terminal, one key per step, drawing at most n frames
+ * per second.</li>
+ * <li>{@code --matches n}, {@code --turns n}, {@code --journals dir}, {@code --threads n}: number of headless
+ * matches (0 for no limit on the server), their maximum number of turns, the directory of their journals
+ * and the threads that play them.</li>
+ * <li>{@code --heatmap file}: count the visits, pickups and fights of every cell of the simulated matches,
+ * show the visits and write the counts to the CSV file.</li>
+ * <li>{@code --port p}: port of the spectator server.</li>
+ * <li>{@code --journal file}: journal shown by the replay.</li>
+ * <li>{@code --delay ms}: pause between two turns of the server and the replay.</li>
+ * <li>{@code --iterations n}: timed iterations of every benchmark.</li>
+ * <li>{@code --jmx}: publish the state of the interactive match and of the served matches as MBeans
+ * ({@link gameEngine.MatchMonitor}).</li>
+ * </ul>
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class LaunchOptions {
+
+    /**
+     * What the program does.
+     */
+    public enum Mode {
+        /**
+         * Interactive match on the console.
+         */
+        PLAY,
+        /**
+         * Headless matches played by bots.
+         */
+        SIMULATE,
+        /**
+         * Headless matches shown by the spectator server.
+         */
+        SERVE,
+        /**
+         * A match journal shown on the console.
+         */
+        REPLAY,
+        /**
+         * Timing of the main operations of the engine.
+         */
+        BENCH
+    }
+
+    //==================== Attributes ===================
+
+    /**
+     * Usage of the command line.
+     */
+    public static final String USAGE = "Usage: [--mode play|simulate|serve|replay|bench] [--size CxR] [--rules file]"
+            + " [--seed s] [--players console|random|remote,console|random|remote] [--emoji on|off] [--no-splash] [--tui]"
+            + " [--fps n] [--matches n] [--turns n] [--journals dir] [--heatmap file] [--threads n] [--port p] [--journal file] [--delay ms]"
+            + " [--iterations n] [--jmx] [--turn-time ms] [--step-time ms] [--timeout-action skip|random]";
+
+    /**
+     * Name of the controller that asks the player on the console.
+     */
+    public static final String CONSOLE = "console";
+
+    /**
+     * Name of the random bot.
+     */
+    public static final String RANDOM = "random";
+
+    /**
+     * Name of the player who plays over HTTP, only in the served matches.
+     */
+    public static final String REMOTE = "remote";
+
+    /**
+     * What the program does.
+     */
+    private Mode mode = Mode.PLAY;
+
+    /**
+     * Board columns, 0 to use the rules.
+     */
+    private int columns;
+
+    /**
+     * Board rows, 0 to use the rules.
+     */
+    private int rows;
+
+    /**
+     * Rules file, null for the default rules.
+     */
+    private String rulesFile;
+
+    /**
+     * Seed of the match, null for a random one.
+     */
+    private Long seed;
+
+    /**
+     * Controllers of the players of an interactive match.
+     */
+    private String[] players = {CONSOLE, CONSOLE};
+
+    /**
+     * True or false to draw the board with emoji, null to ask.
+     */
+    private Boolean emoji;
+
+    /**
+     * True to show the splash screen.
+     */
+    private boolean splash = true;
+
+    /**
+     * True to play on a raw terminal.
+     */
+    private boolean tui;
+
+    /**
+     * Maximum number of frames per second of the raw terminal.
+     */
+    private int fps = TerminalUI.DEFAULT_FPS;
+
+    /**
+     * Number of headless matches, 0 for no limit.
+     */
+    private int matches = 100;
+
+    /**
+     * Maximum number of turns of a headless match.
+     */
+    private int turns = 2000;
+
+    /**
+     * Directory of the journals of the headless matches, null for none.
+     */
+    private String journals;
+
+    /**
+     * CSV file of the heatmap of the headless matches, null for none.
+     */
+    private String heatmap;
+
+    /**
+     * Threads that play the headless matches.
+     */
+    private int threads = 1;
+
+    /**
+     * Port of the spectator server.
+     */
+    private int port = 8080;
+
+    /**
+     * Journal shown by the replay.
+     */
+    private String journal;
+
+    /**
+     * Pause between two turns, in milliseconds.
+     */
+    private int delay = 200;
+
+    /**
+     * Timed iterations of every benchmark.
+     */
+    private int iterations = 200;
+
+    /**
+     * True to publish the matches as MBeans.
+     */
+    private boolean jmx;
+
+    /**
+     * Time limit of a turn of a remote player, in milliseconds.
+     */
+    private int turnTime = 60_000;
+
+    /**
+     * Time limit of a step or an answer of a remote player, in milliseconds.
+     */
+    private int stepTime = 15_000;
+
+    /**
+     * What a remote player does with the steps not sent in time.
+     */
+    private RemoteController.DefaultAction timeoutAction = RemoteController.DefaultAction.SKIP;
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Get what the program does.
+     *
+     * @return The mode.
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Get the seed of the match.
+     *
+     * @return The seed, null for a random one.
+     */
+    public Long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Get the controller of a player of an interactive match.
+     *
+     * @param player Index of the player.
+     * @return {@link #CONSOLE}, {@link #RANDOM} or {@link #REMOTE}.
+     */
+    public String getPlayer(int player) {
+        return players[player];
+    }
+
+    /**
+     * Check if the board is drawn with emoji.
+     *
+     * @return true or false, null to ask the player.
+     */
+    public Boolean getEmoji() {
+        return emoji;
+    }
+
+    /**
+     * Check if the splash screen is shown.
+     *
+     * @return true if it is shown.
+     */
+    public boolean isSplash() {
+        return splash;
+    }
+
+    /**
+     * Check if the match is played on a raw terminal.
+     *
+     * @return true for the raw terminal, false for the menus.
+     */
+    public boolean isTui() {
+        return tui;
+    }
+
+    /**
+     * Get the maximum number of frames per second of the raw terminal.
+     *
+     * @return The frame rate.
+     */
+    public int getFps() {
+        return fps;
+    }
+
+    /**
+     * Get the number of headless matches.
+     *
+     * @return The number of matches, 0 for no limit.
+     */
+    public int getMatches() {
+        return matches;
+    }
+
+    /**
+     * Get the maximum number of turns of a headless match.
+     *
+     * @return The number of turns.
+     */
+    public int getTurns() {
+        return turns;
+    }
+
+    /**
+     * Get the directory of the journals.
+     *
+     * @return The directory, null for none.
+     */
+    public String getJournals() {
+        return journals;
+    }
+
+    /**
+     * Get the CSV file of the heatmap.
+     *
+     * @return The path of the file, null for no heatmap.
+     */
+    public String getHeatmap() {
+        return heatmap;
+    }
+
+    /**
+     * Get the number of threads that play the headless matches.
+     *
+     * @return The number of threads.
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Get the port of the spectator server.
+     *
+     * @return The port.
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * Get the journal shown by the replay.
+     *
+     * @return The path of the journal, null if not given.
+     */
+    public String getJournal() {
+        return journal;
+    }
+
+    /**
+     * Get the pause between two turns.
+     *
+     * @return The pause in milliseconds.
+     */
+    public int getDelay() {
+        return delay;
+    }
+
+    /**
+     * Get the timed iterations of every benchmark.
+     *
+     * @return The number of iterations.
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Check if the matches are published as MBeans.
+     *
+     * @return true to publish them.
+     */
+    public boolean isJmx() {
+        return jmx;
+    }
+
+    /**
+     * Get the time limit of a turn of a remote player.
+     *
+     * @return The limit in milliseconds.
+     */
+    public int getTurnTime() {
+        return turnTime;
+    }
+
+    /**
+     * Get the time limit of a step or an answer of a remote player.
+     *
+     * @return The limit in milliseconds.
+     */
+    public int getStepTime() {
+        return stepTime;
+    }
+
+    /**
+     * Get what a remote player does with the steps not sent in time.
+     *
+     * @return The action.
+     */
+    public RemoteController.DefaultAction getTimeoutAction() {
+        return timeoutAction;
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Return the value of an option.
+     *
+     * @param args The arguments.
+     * @param i    Index of the option.
+     * @return The value.
+     * @throws IllegalArgumentException If the value is missing.
+     */
+    private static String value(String[] args, int i) {
+        if (i + 1 >= args.length) {
+            throw new IllegalArgumentException("Missing value of " + args[i]);
+        }
+        return args[i + 1];
+    }
+
+    /**
+     * Parse a number not below a minimum.
+     *
+     * @param option Name of the option.
+     * @param value  The value.
+     * @param min    The minimum.
+     * @return The number.
+     * @throws IllegalArgumentException If the value is not a valid number.
+     */
+    private static int number(String option, String value, int min) {
+        try {
+            int number = Integer.parseInt(value);
+            if (number >= min) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid value of " + option + ": " + value);
+    }
+
+    /**
+     * Parse the controllers of the players.
+     *
+     * @param value The names separated by a comma.
+     * @return The names.
+     * @throws IllegalArgumentException If a name is unknown or there aren't two names.
+     */
+    private static String[] players(String value) {
+        String[] names = value.toLowerCase(Locale.ROOT).split(",");
+        if (names.length != 2) {
+            throw new IllegalArgumentException("--players needs two controllers: " + value);
+        }
+        for (String name : names) {
+            if (!CONSOLE.equals(name) && !RANDOM.equals(name) && !REMOTE.equals(name)) {
+                throw new IllegalArgumentException("Unknown controller: " + name);
+            }
+        }
+        return names;
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Build the rules of the matches: the rules file, or the default rules, with the board size of the options.
+     *
+     * @return The rules.
+     * @throws IOException If the rules file can't be read.
+     */
+    public GameRules getRules() throws IOException {
+        GameRules rules = rulesFile != null ? GameRules.load(Paths.get(rulesFile)) : GameRules.DEFAULT;
+        if (columns > 0) {
+            rules = rules.toBuilder().boardSize(columns, rows).build();
+        }
+        return rules;
+    }
+
+    /**
+     * Parse the command line.
+     *
+     * @param args The arguments.
+     * @return The options.
+     * @throws IllegalArgumentException If an option is unknown or has an invalid value.
+     */
+    public static LaunchOptions parse(String[] args) {
+        LaunchOptions options = new LaunchOptions();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--no-splash":
+                    options.splash = false;
+                    continue;
+                case "--tui":
+                    options.tui = true;
+                    continue;
+                case "--jmx":
+                    options.jmx = true;
+                    continue;
+                case "--mode":
+                    try {
+                        options.mode = Mode.valueOf(value(args, i).toUpperCase(Locale.ROOT));
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Unknown mode: " + value(args, i));
+                    }
+                    break;
+                case "--size":
+                    String[] size = value(args, i).toLowerCase(Locale.ROOT).split("x");
+                    if (size.length != 2) {
+                        throw new IllegalArgumentException("Invalid value of --size: " + value(args, i));
+                    }
+                    options.columns = number(args[i], size[0], 1);
+                    options.rows = number(args[i], size[1], 1);
+                    break;
+                case "--rules":
+                    options.rulesFile = value(args, i);
+                    break;
+                case "--seed":
+                    try {
+                        options.seed = Long.parseLong(value(args, i));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid value of --seed: " + value(args, i));
+                    }
+                    break;
+                case "--players":
+                    options.players = players(value(args, i));
+                    break;
+                case "--emoji":
+                    if (!"on".equalsIgnoreCase(value(args, i)) && !"off".equalsIgnoreCase(value(args, i))) {
+                        throw new IllegalArgumentException("Invalid value of --emoji: " + value(args, i));
+                    }
+                    options.emoji = "on".equalsIgnoreCase(value(args, i));
+                    break;
+                case "--fps":
+                    options.fps = number(args[i], value(args, i), 1);
+                    break;
+                case "--matches":
+                    options.matches = number(args[i], value(args, i), 0);
+                    break;
+                case "--turns":
+                    options.turns = number(args[i], value(args, i), 1);
+                    break;
+                case "--journals":
+                    options.journals = value(args, i);
+                    break;
+                case "--heatmap":
+                    options.heatmap = value(args, i);
+                    break;
+                case "--threads":
+                    options.threads = number(args[i], value(args, i), 1);
+                    break;
+                case "--port":
+                    options.port = number(args[i], value(args, i), 0);
+                    break;
+                case "--journal":
+                    options.journal = value(args, i);
+                    break;
+                case "--delay":
+                    options.delay = number(args[i], value(args, i), 0);
+                    break;
+                case "--iterations":
+                    options.iterations = number(args[i], value(args, i), 1);
+                    break;
+                case "--turn-time":
+                    options.turnTime = number(args[i], value(args, i), 1);
+                    break;
+                case "--step-time":
+                    options.stepTime = number(args[i], value(args, i), 1);
+                    break;
+                case "--timeout-action":
+                    try {
+                        options.timeoutAction = RemoteController.DefaultAction.valueOf(
+                                value(args, i).toUpperCase(Locale.ROOT));
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Invalid value of --timeout-action: " + value(args, i));
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+            i++;
+        }
+        if (options.mode == Mode.REPLAY && options.journal == null) {
+            throw new IllegalArgumentException("The replay needs --journal");
+        }
+        if (options.mode != Mode.SERVE && (REMOTE.equals(options.players[0]) || REMOTE.equals(options.players[1]))) {
+            throw new IllegalArgumentException("Remote players are only hosted by --mode serve");
+        }
+        if (System.console() == null) {
+            options.splash = false;
+        }
+        return options;
+    }
+}
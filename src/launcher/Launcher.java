@@ -0,0 +1,55 @@
+package launcher;
+
+import java.io.IOException;
+
+/**
+ * Entry point of the program: parses the command line ({@link LaunchOptions}) and runs the selected mode.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class Launcher {
+
+    //==================== public methods ====================
+
+    /**
+     * Return the implementation of a mode.
+     *
+     * @param mode The mode.
+     * @return The implementation.
+     */
+    public static LaunchMode of(LaunchOptions.Mode mode) {
+        switch (mode) {
+            case SIMULATE:
+                return new SimulateMode();
+            case SERVE:
+                return new ServeMode();
+            case REPLAY:
+                return new ReplayMode();
+            case BENCH:
+                return new BenchMode();
+            default:
+                return new PlayMode();
+        }
+    }
+
+    /**
+     * Run the program.
+     *
+     * @param args The command line.
+     * @throws IOException If a file or the network can't be used.
+     */
+    public static void main(String[] args) throws IOException {
+        LaunchOptions options;
+        try {
+            options = LaunchOptions.parse(args);
+            options.getRules();
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LaunchOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+        of(options.getMode()).run(options);
+    }
+}
@@ -0,0 +1,70 @@
+package launcher;
+
+import gameEngine.ConsoleController;
+import gameEngine.GameLogic;
+import gameEngine.Match;
+import gameEngine.MatchMonitor;
+import gameEngine.RandomWalkController;
+import gameEngine.SplashScreen;
+import gameEngine.TerminalUI;
+import general.AsyncOutputStream;
+import general.KeyReader;
+import general.RawTerminal;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+/**
+ * Interactive match on the console, with the menus or on a raw terminal ({@code --tui}); on the raw terminal
+ * the emoji are used only if asked with {@code --emoji on}, since the menus can't be used.
+ * With {@code --jmx} the match is published as the MBean {@code game:type=Match,name=play}.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class PlayMode implements LaunchMode {
+
+    @Override
+    public void run(LaunchOptions options) throws IOException {
+        AsyncOutputStream.installFromProperty();
+        if (options.isSplash()) {
+            SplashScreen.print();
+        }
+        boolean useEmoji;
+        if (options.getEmoji() != null) {
+            useEmoji = options.getEmoji();
+        } else {
+            useEmoji = !options.isTui() && Match.askEmoji();
+        }
+        long seed = options.getSeed() != null ? options.getSeed() : new SplittableRandom().nextLong();
+        GameLogic gameLogic = new GameLogic(options.getRules().getColumns(), options.getRules().getRows(), useEmoji,
+                options.getRules(), seed);
+        SplittableRandom bots = new SplittableRandom(seed).split();
+        for (int i = 0; i < GameLogic.NUMBER_OF_PLAYERS; i++) {
+            gameLogic.setController(i, LaunchOptions.RANDOM.equals(options.getPlayer(i))
+                    ? new RandomWalkController(bots.split())
+                    : new ConsoleController());
+        }
+        MatchMonitor monitor = null;
+        if (options.isJmx()) {
+            monitor = new MatchMonitor(gameLogic);
+            monitor.register("play");
+        }
+        try {
+            if (options.isTui()) {
+                try (RawTerminal terminal = RawTerminal.enable()) {
+                    if (!terminal.isRaw()) {
+                        System.err.println("The terminal can't be put in raw mode: press Enter after the keys");
+                    }
+                    new TerminalUI(gameLogic, new KeyReader(System.in), System.out, options.getFps()).play();
+                }
+            } else {
+                new Match(gameLogic).play();
+            }
+        } finally {
+            if (monitor != null) {
+                monitor.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package launcher;
+
+import gameEngine.BoardSnapshot;
+import gameEngine.GameBoard;
+import gameEngine.GameLogic;
+import gameEngine.GameRules;
+import gameEngine.JournalReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * A match journal shown on the console, the board at the end of every turn.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class ReplayMode implements LaunchMode {
+
+    //==================== Attributes ===================
+
+    /**
+     * Board of the replay, created at the first state.
+     */
+    private GameBoard board;
+
+    //==================== private methods ====================
+
+    /**
+     * Show a state of the match.
+     *
+     * @param snapshot The state.
+     * @param seed     Seed of the match.
+     * @param emoji    True to draw the board with emoji.
+     * @param delay    Pause after the board, in milliseconds.
+     */
+    private void show(BoardSnapshot snapshot, long seed, boolean emoji, int delay) {
+        if (snapshot == null) {
+            return;
+        }
+        if (board == null) {
+            board = new GameBoard(new GameLogic(snapshot.getSizeX(), snapshot.getSizeY(), emoji,
+                    GameRules.DEFAULT, seed));
+        }
+        board.getGameLogic().restore(snapshot);
+        board.show();
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //==================== public methods ====================
+
+    @Override
+    public void run(LaunchOptions options) throws IOException {
+        boolean emoji = Boolean.TRUE.equals(options.getEmoji());
+        try (InputStream in = Files.newInputStream(Paths.get(options.getJournal()))) {
+            JournalReader reader = new JournalReader(in);
+            reader.readAll(new JournalReader.Handler() {
+                @Override
+                public void onTurn(int turn, int player) {
+                    show(reader.getSnapshot(), reader.getSeed(), emoji, options.getDelay());
+                }
+
+                @Override
+                public void onEnd(int turns, int winner) {
+                    show(reader.getSnapshot(), reader.getSeed(), emoji, 0);
+                    System.out.println(winner >= 0 ? "Player" + winner + " won after " + turns + " turns"
+                            : "Stopped after " + turns + " turns");
+                }
+            });
+        }
+    }
+}
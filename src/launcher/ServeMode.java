@@ -0,0 +1,77 @@
+package launcher;
+
+import gameEngine.GameLogic;
+import gameEngine.GameRules;
+import gameEngine.HeadlessMatch;
+import gameEngine.MatchMonitor;
+import gameEngine.RemoteController;
+import general.TimingWheel;
+import server.SpectatorServer;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+/**
+ * Headless matches played one after the other, at the pace of {@code --delay}, and shown by the spectator server.
+ * With {@code --jmx} every match is also published as the MBean {@code game:type=Match,name=<number>} while it is played.
+ * The players named {@code remote} by {@code --players} are played over HTTP, within the time limits of
+ * {@code --turn-time} and {@code --step-time} kept by a single {@link TimingWheel}, with the steps not sent in time
+ * done as chosen by {@code --timeout-action}; the others are random bots. The secret of every remote player is
+ * printed on the console, for the operator to give it to the client of the player.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class ServeMode implements LaunchMode {
+
+    @Override
+    public void run(LaunchOptions options) throws IOException {
+        GameRules rules = options.getRules();
+        SpectatorServer server = new SpectatorServer(options.getPort());
+        server.start();
+        System.out.println("Spectator server on port " + server.getPort());
+        long seed = options.getSeed() != null ? options.getSeed() : new SplittableRandom().nextLong();
+        TimingWheel wheel = new TimingWheel();
+        try {
+            for (int i = 0; options.getMatches() == 0 || i < options.getMatches(); i++) {
+                HeadlessMatch match = new HeadlessMatch(rules, seed + i, options.getTurns());
+                match.setTurnDelay(options.getDelay());
+                String id = String.valueOf(i);
+                RemoteController[] remotes = new RemoteController[GameLogic.NUMBER_OF_PLAYERS];
+                SplittableRandom random = new SplittableRandom(match.getSeed());
+                for (int p = 0; p < remotes.length; p++) {
+                    if (LaunchOptions.REMOTE.equals(options.getPlayer(p))) {
+                        remotes[p] = new RemoteController(wheel, options.getTurnTime(), options.getStepTime(),
+                                options.getTimeoutAction(), random.split());
+                        match.getGameLogic().setController(p, remotes[p]);
+                    }
+                }
+                server.register(id, match.getGameLogic(), remotes);
+                for (int p = 0; p < remotes.length; p++) {
+                    if (remotes[p] != null) {
+                        System.out.println("Match " + id + ": player " + p + " at /matches/" + id + "/players/" + p
+                                + ", secret " + server.getSecret(id, p));
+                    }
+                }
+                MatchMonitor monitor = options.isJmx() ? new MatchMonitor(match.getGameLogic()) : null;
+                try {
+                    if (monitor != null) {
+                        monitor.register(id);
+                    }
+                    match.play(null);
+                } finally {
+                    if (monitor != null) {
+                        monitor.close();
+                    }
+                }
+                server.unregister(id);
+                if (Thread.currentThread().isInterrupted()) {
+                    break;
+                }
+            }
+        } finally {
+            server.stop();
+            wheel.close();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package launcher;
+
+import analytics.MatchStatistics;
+import analytics.ParallelSimulation;
+import gameEngine.HeatmapCollector;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+
+/**
+ * Headless matches played by bots on any number of threads, optionally writing their journals and their heatmap.
+ * The statistics depend only on the seed, not on the number of threads.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class SimulateMode implements LaunchMode {
+
+    //==================== public methods ====================
+
+    @Override
+    public void run(LaunchOptions options) throws IOException {
+        long seed = options.getSeed() != null ? options.getSeed() : new SplittableRandom().nextLong();
+        ParallelSimulation simulation = new ParallelSimulation(options.getRules(), seed, options.getTurns());
+        if (options.getJournals() != null) {
+            simulation.setJournals(Files.createDirectories(Paths.get(options.getJournals())));
+        }
+        HeatmapCollector heatmap = null;
+        if (options.getHeatmap() != null) {
+            heatmap = new HeatmapCollector(options.getRules().getColumns(), options.getRules().getRows());
+            simulation.setHeatmap(heatmap);
+        }
+        long start = System.nanoTime();
+        MatchStatistics statistics;
+        try {
+            statistics = simulation.run(options.getMatches(), options.getThreads());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println(statistics.getMatches() + " matches from seed " + seed + ": "
+                + statistics.getFinishedMatches() + " won in " + statistics.getAverageTurns()
+                + " turns on average, " + millis + " ms");
+        System.out.println(statistics.toJson());
+        if (heatmap != null) {
+            System.out.println("Visits of every cell:");
+            System.out.print(heatmap.render(HeatmapCollector.Kind.VISITS));
+            try (Writer out = Files.newBufferedWriter(Paths.get(options.getHeatmap()))) {
+                heatmap.writeCsv(out);
+            }
+        }
+    }
+}
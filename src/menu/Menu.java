@@ -14,11 +14,6 @@ public class Menu {
 
     // ==================== Attributes ===================
 
-    /**
-     * The scanner used for the user input.
-     */
-    public static Scanner scanner;
-
     /**
      * The list of the options.
      */
@@ -34,11 +29,33 @@ public class Menu {
      */
     private final String title;
 
-    // ==================== Constructors ====================
+    /**
+     * Beginning of the error message.
+     */
+    private static final String ERROR_PREFIX = Color.ANSI_RED + "Error: " + Color.ANSI_RESET + "\'";
 
-    static {
-        scanner = new Scanner(System.in);
-    }
+    /**
+     * Index of the option selected by every ASCII key, -1 for none.
+     */
+    private final int[] dispatch = new int[128];
+
+    /**
+     * The text of the menu, ready to be printed.
+     */
+    private byte[] prompt;
+
+    /**
+     * End of the error message, after the wrong value.
+     */
+    private String errorSuffix;
+
+    /**
+     * True if the dispatch table and the texts match the options; the menu is compiled again
+     * when an option is added or removed (the names of the options are read at that moment).
+     */
+    private boolean compiled;
+
+    // ==================== Constructors ====================
 
     /**
      * Constructor.
@@ -62,45 +79,86 @@ public class Menu {
     }
 
     // ==================== Getters and Setters ====================
+
+    /**
+     * Get the scanner used for the user input, created the first time a menu asks something
+     * (so the programs that never ask don't read the standard input).
+     *
+     * @return The scanner.
+     */
+    public static Scanner getScanner() {
+        return Input.SCANNER;
+    }
     // ==================== private methods ====================
 
     /**
-     * Prints the menu on the console.
+     * Builds the text of the menu.
+     *
+     * @return the text printed before asking the choice.
      */
-    private void printMenu() {
+    private String renderMenu() {
+        StringBuilder sb = new StringBuilder();
         if (!inline) {
-            if(!title.equals(""))System.out.println(title);
+            if(!title.equals(""))sb.append(title).append(System.lineSeparator());
             for (int i = 0; i < menuItems.size(); i++) {
                 if (menuItems.get(i).getKeyOption() != 0) {
-                    System.out.println(Color.ANSI_PURPLE + menuItems.get(i).getKeyOption() + Color.ANSI_RESET + ":\t" + menuItems.get(i).toString());
+                    sb.append(Color.ANSI_PURPLE).append(menuItems.get(i).getKeyOption()).append(Color.ANSI_RESET).append(":\t").append(menuItems.get(i)).append(System.lineSeparator());
                 } else {
-                    System.out.println(Color.ANSI_PURPLE + i + Color.ANSI_RESET + ":\t" + menuItems.get(i).toString());
+                    sb.append(Color.ANSI_PURPLE).append(i).append(Color.ANSI_RESET).append(":\t").append(menuItems.get(i)).append(System.lineSeparator());
                 }
             }
-            System.out.print("Choose: ");
+            sb.append("Choose: ");
         } else {
-            if(!title.equals(""))System.out.println(title);
-            System.out.print("Choose an option: ");
+            if(!title.equals(""))sb.append(title).append(System.lineSeparator());
+            sb.append("Choose an option: ");
             for (int i = 0; i < menuItems.size(); i++) {
                 if (i == 0)
-                    System.out.print("[");
-                if (i < menuItems.size() - 1){
-                    if (menuItems.get(i).getKeyOption() != 0) {
-                        System.out.print(Color.ANSI_PURPLE + menuItems.get(i).getKeyOption() + Color.ANSI_RESET + ": " + menuItems.get(i) + ", ");
-                    }else{
-                        System.out.print(Color.ANSI_PURPLE + i + Color.ANSI_RESET + ": " + menuItems.get(i) + ", ");
-                    }
-                }
-                if (i == menuItems.size() - 1){
-                    if (menuItems.get(i).getKeyOption() != 0) {
-                        System.out.print(Color.ANSI_PURPLE + menuItems.get(i).getKeyOption() + Color.ANSI_RESET + ": " + menuItems.get(i) + "]: ");
-                    }else{
-                        System.out.print(Color.ANSI_PURPLE + i + Color.ANSI_RESET + ": " + menuItems.get(i) + "]: ");
-                    }
-                    
+                    sb.append("[");
+                String separator = i < menuItems.size() - 1 ? ", " : "]: ";
+                if (menuItems.get(i).getKeyOption() != 0) {
+                    sb.append(Color.ANSI_PURPLE).append(menuItems.get(i).getKeyOption()).append(Color.ANSI_RESET).append(": ").append(menuItems.get(i)).append(separator);
+                }else{
+                    sb.append(Color.ANSI_PURPLE).append(i).append(Color.ANSI_RESET).append(": ").append(menuItems.get(i)).append(separator);
                 }
             }
         }
+        return sb.toString();
+    }
+
+    /**
+     * Builds the dispatch table, the text of the menu and the end of the error message.
+     * The digit with code {@code '0' + i} selects the option i, the other keys the first option that uses them.
+     */
+    private void compile() {
+        Arrays.fill(dispatch, -1);
+        for (int i = menuItems.size() - 1; i >= 0; i--) {
+            char key = menuItems.get(i).getKeyOption();
+            if (key != 0 && key < dispatch.length) {
+                dispatch[key] = i;
+            }
+        }
+        for (int i = 0; i < menuItems.size() && '0' + i < dispatch.length; i++) {
+            dispatch['0' + i] = i;
+        }
+        prompt = renderMenu().getBytes();
+        String error = "\' is not a valid option. Choose between [";
+        for(int i =0; i<menuItems.size();i++){
+            if(menuItems.get(i).getKeyOption() != 0){
+                error += Color.ANSI_PURPLE+menuItems.get(i).getKeyOption()+Color.ANSI_RESET + (i == menuItems.size()-1 ? "]" : ", ");
+            }else{
+                error += Color.ANSI_PURPLE+i+Color.ANSI_RESET + (i == menuItems.size()-1 ? "]" : ",");
+            }
+        }
+        errorSuffix = error;
+        compiled = true;
+    }
+
+    /**
+     * Prints the menu on the console.
+     */
+    private void printMenu() {
+        System.out.write(prompt, 0, prompt.length);
+        System.out.flush();
     }
 
     /**
@@ -118,15 +176,7 @@ public class Menu {
      * @return the correnct error message
      */
     private String getError(final String value){
-        String error = Color.ANSI_RED+"Error: "+Color.ANSI_RESET+"\'"+value+"\' is not a valid option. Choose between [";
-        for(int i =0; i<menuItems.size();i++){
-            if(menuItems.get(i).getKeyOption() != 0){
-                error += Color.ANSI_PURPLE+menuItems.get(i).getKeyOption()+Color.ANSI_RESET + (i == menuItems.size()-1 ? "]" : ", ");
-            }else{
-                error += Color.ANSI_PURPLE+i+Color.ANSI_RESET + (i == menuItems.size()-1 ? "]" : ",");
-            }
-        }
-        return error;
+        return ERROR_PREFIX + value + errorSuffix;
     }
 
     /**
@@ -135,9 +185,8 @@ public class Menu {
      * @return index of the choice
      */
     private int getOptionIndex(final int choice){
-        //check if value is a char number
-        if(choice-48>=0 && choice-48<menuItems.size()){
-            return choice-48;
+        if (choice < dispatch.length) {
+            return dispatch[choice];
         }
         for(int i = 0; i < menuItems.size();i++){
             if(menuItems.get(i).getKeyOption() == choice){
@@ -152,23 +201,26 @@ public class Menu {
      * Prints the menu on the console.
      */
     public int ask() {
+        if (!compiled) {
+            compile();
+        }
         int choice = -1;
         while (choice != 0) {
             printMenu();
-            String input = scanner.next();
+            String input = getScanner().next();
             while(!isChar(input)){
                 System.out.println(getError(input));
                 printMenu();
-                input = scanner.next();
+                input = getScanner().next();
             }
             choice = input.charAt(0);
-            scanner.nextLine();
+            getScanner().nextLine();
             int optionIndex = getOptionIndex(choice);
             if (optionIndex != -1) {
                 menuItems.get(optionIndex).execute(optionIndex);
                 return optionIndex;
             } else {
-                System.out.println(getError(""+(char)choice));
+                System.out.println(getError(String.valueOf((char) choice)));
             }
         }
         Util.clearScreen();
@@ -182,6 +234,7 @@ public class Menu {
      */
     public void addMenu(ExecuteOption menuItem) {
         menuItems.add(menuItem);
+        compiled = false;
     }
 
     /**
@@ -190,6 +243,19 @@ public class Menu {
      * @param menuItem the option to remove.
      */
     public void removeMenu(ExecuteOption menuItem) {
-        menuItems.remove(menuItem);
+        if (menuItems.remove(menuItem)) {
+            compiled = false;
+        }
+    }
+
+    /**
+     * Holder of the scanner, loaded when the scanner is first used.
+     */
+    private static final class Input {
+
+        /**
+         * The scanner used for the user input.
+         */
+        private static final Scanner SCANNER = new Scanner(System.in);
     }
 }
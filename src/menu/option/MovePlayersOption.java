@@ -13,6 +13,13 @@ import menu.Menu;
  */
 public class MovePlayersOption extends Option {
 
+	// ==================== Attributes ====================
+
+	/**
+	 * The menu used to choose the direction, built once and reused at every step.
+	 */
+	private final Menu menu;
+
 	// ==================== Constructors ====================
 
 	/**
@@ -22,22 +29,32 @@ public class MovePlayersOption extends Option {
 	 */
 	public MovePlayersOption(GameBoard board) {
 		super(board);
+		menu = new Menu(true);
+		menu.addMenu(new GenericOption("North", 'w', () -> move(Direction.NORTH)));
+		menu.addMenu(new GenericOption("South", 's', () -> move(Direction.SOUTH)));
+		menu.addMenu(new GenericOption("West", 'a', () -> move(Direction.WEST)));
+		menu.addMenu(new GenericOption("East", 'd', () -> move(Direction.EAST)));
 	}
 
 	// ==================== private methods ====================
+
+	/**
+	 * Moves the current player one step.
+	 *
+	 * @param direction the direction of the step.
+	 */
+	private void move(Direction direction) {
+		GameObject obj = board.getGameLogic().movePlayer(board.getGameLogic().getCurrentPlayer(), direction);
+		moveAction(obj);
+	}
+
 	/**
 	 * Method called at the end of each movement
 	 * @param movingObj the object into which the player moved or tried to move
-	 * @param menu the menu
 	 */
-	private void moveAction(GameObject movingObj, Menu menu) {
+	private void moveAction(GameObject movingObj) {
 		if (movingObj != null) {
-			if (movingObj.getType() == ObjectName.Tree) {
-				((Tree) movingObj).hit();
-				if (((Tree) movingObj).getHealth() == 0) {
-					board.getGameLogic().getGameObjects().remove(movingObj);
-				}
-			} else {
+			if (!board.getGameLogic().collide(board.getGameLogic().getCurrentPlayer(), movingObj)) {
 				board.show();
 				menu.ask();
 			}
@@ -56,36 +73,18 @@ public class MovePlayersOption extends Option {
 	@Override
 	public void execute(int choice) {
 		System.out.print(board.getGameLogic().getCurrentPlayer().getUsername() + " roll the dice: ");
-		int movement = Dice.throwDice();
-		Menu menu = new Menu(true);
-		GenericOption north = new GenericOption("North", 'w',
-				() -> {
-					GameObject obj = board.getGameLogic().movePlayer(board.getGameLogic().getCurrentPlayer(),
-							Direction.NORTH);
-					moveAction(obj, menu);
-				});
-		GenericOption south = new GenericOption("South", 's',
-				() -> {
-					GameObject obj = board.getGameLogic().movePlayer(board.getGameLogic().getCurrentPlayer(),
-							Direction.SOUTH);
-					moveAction(obj, menu);
-				});
-		GenericOption west = new GenericOption("West", 'a',
-				() -> {
-					GameObject obj = board.getGameLogic().movePlayer(board.getGameLogic().getCurrentPlayer(),
-							Direction.WEST);
-					moveAction(obj, menu);
-				});
-		GenericOption east = new GenericOption("East", 'd',
-				() -> {
-					GameObject obj = board.getGameLogic().movePlayer(board.getGameLogic().getCurrentPlayer(),
-							Direction.EAST);
-					moveAction(obj, menu);
-				});
-		menu.addMenu(north);
-		menu.addMenu(south);
-		menu.addMenu(west);
-		menu.addMenu(east);
+		int movement = Dice.throwDice(board.getGameLogic().getRules().getDiceSides());
+		Player player = board.getGameLogic().getCurrentPlayer();
+		Direction[] path = board.getGameLogic().getController(player).choosePath(board.getGameLogic(), player, movement);
+		if (path != null && path.length <= movement) {
+			try {
+				board.getGameLogic().applyPath(player, path);
+				board.show();
+				movement = 0;
+			} catch (IllegalArgumentException e) {
+				System.out.println(e.getMessage());
+			}
+		}
 		for (int j = 0; j < movement; j++) {
 			if (!board.isGameOver()) {
 				menu.ask();
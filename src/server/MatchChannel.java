@@ -0,0 +1,491 @@
+package server;
+
+import gameEngine.BoardDelta;
+import gameEngine.BoardSnapshot;
+import gameEngine.DeltaEncoder;
+import gameEngine.GameListener;
+import gameEngine.GameLogic;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Stream of the changes of one match for its spectators.
+ * Every change is turned into a delta and serialized once on the game thread and put in a bounded queue; a dedicated
+ * thread hands the same bytes to the bounded queue of every spectator, which is written by a thread of a shared pool.
+ * So a slow spectator only delays itself and the memory used doesn't grow with the delay of the spectators:
+ * a spectator whose queue is full gets a keyframe of the latest state in place of the frames it missed, and is
+ * disconnected if it can't even take that. Frames dropped because the shared queue is full are recovered the same way.
+ * Spectators receive either server-sent events with JSON deltas or the binary frames of {@link DeltaEncoder},
+ * each preceded by its length as a varint.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class MatchChannel implements GameListener {
+
+    //==================== Attributes ===================
+
+    /**
+     * Item of the queue that stops the dispatcher thread.
+     */
+    private static final Object CLOSE = new Object();
+
+    /**
+     * Number of binary frames between two keyframes.
+     */
+    private static final int KEYFRAME_INTERVAL = 64;
+
+    /**
+     * Maximum number of frames waiting for the dispatcher thread.
+     */
+    private static final int QUEUE_CAPACITY = 256;
+
+    /**
+     * Maximum number of frames waiting to be written to a spectator.
+     */
+    private static final int SPECTATOR_CAPACITY = 64;
+
+    /**
+     * Threads that write to the spectators, shared by all the matches; a thread is used only while a spectator
+     * has something to write.
+     */
+    private static final ExecutorService WRITERS = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "spectator-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Id of the match.
+     */
+    private final String id;
+
+    /**
+     * The game.
+     */
+    private final GameLogic gameLogic;
+
+    /**
+     * Last snapshot taken on the game thread, with the number of its delta.
+     */
+    private volatile State state;
+
+    /**
+     * Encoder of the binary frames.
+     */
+    private final DeltaEncoder encoder = new DeltaEncoder(KEYFRAME_INTERVAL);
+
+    /**
+     * Frames, new spectators and the end of the channel, waiting for the dispatcher thread.
+     */
+    private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    /**
+     * Thread that hands the frames to the spectators.
+     */
+    private final Thread dispatcher;
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor, the channel starts listening to the game.
+     *
+     * @param id        Id of the match.
+     * @param gameLogic The game.
+     */
+    public MatchChannel(String id, GameLogic gameLogic) {
+        this.id = id;
+        this.gameLogic = gameLogic;
+        this.state = new State(BoardSnapshot.of(gameLogic), 0);
+        encoder.encode(state.snapshot);
+        dispatcher = new Thread(this::dispatchLoop, "spectators-" + id);
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+        gameLogic.addListener(this);
+    }
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Get the id of the match.
+     *
+     * @return The id of the match.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Get the last state of the match.
+     *
+     * @return The last snapshot.
+     */
+    public BoardSnapshot getState() {
+        return state.snapshot;
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Build a server-sent event.
+     *
+     * @param event Name of the event.
+     * @param id    Id of the event, negative for none.
+     * @param data  Data of the event.
+     * @return The bytes of the event.
+     */
+    private static byte[] event(String event, long id, String data) {
+        String text = (id >= 0 ? "id: " + id + "\n" : "") + "event: " + event + "\ndata: " + data + "\n\n";
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Prefix a binary frame with its length.
+     *
+     * @param frame The frame.
+     * @return The bytes to send.
+     */
+    private static byte[] lengthPrefixed(byte[] frame) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(frame.length + 2);
+        DeltaEncoder.writeVarInt(out, frame.length);
+        out.write(frame, 0, frame.length);
+        return out.toByteArray();
+    }
+
+    /**
+     * Close a stream ignoring errors.
+     *
+     * @param out The stream.
+     */
+    private static void close(OutputStream out) {
+        try {
+            out.close();
+        } catch (IOException e) {
+            // Already closed by the spectator
+        }
+    }
+
+    /**
+     * Loop of the dispatcher thread. It never writes to a spectator, so it never waits for one.
+     */
+    private void dispatchLoop() {
+        List<Spectator> spectators = new ArrayList<>();
+        long dispatched = 0;
+        try {
+            while (true) {
+                Object item = queue.take();
+                if (item == CLOSE) {
+                    break;
+                } else if (item instanceof Frame) {
+                    Frame frame = (Frame) item;
+                    boolean gap = frame.sequence != dispatched + 1;
+                    dispatched = frame.sequence;
+                    spectators.removeIf(spectator -> spectator.closed);
+                    for (Spectator spectator : spectators) {
+                        if (gap) {
+                            // Frames were dropped by the game thread, the spectators start again from a keyframe
+                            spectator.resync();
+                        } else {
+                            spectator.send(frame);
+                        }
+                    }
+                } else {
+                    Spectator spectator = (Spectator) item;
+                    spectators.add(spectator);
+                    spectator.resync();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Spectator spectator : spectators) {
+            spectator.disconnect();
+        }
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Called on the game thread when the match changes: the delta is serialized and queued for the spectators.
+     * If the queue is full the frame is dropped and the spectators get a keyframe later.
+     *
+     * @param gameLogic The game that changed.
+     */
+    @Override
+    public void onChange(GameLogic gameLogic) {
+        BoardSnapshot snapshot = BoardSnapshot.of(gameLogic);
+        BoardDelta delta = BoardDelta.between(state.snapshot, snapshot);
+        if (delta.isEmpty()) {
+            return;
+        }
+        long sequence = state.sequence + 1;
+        state = new State(snapshot, sequence);
+        queue.offer(new Frame(sequence, event("delta", sequence, delta.toJson()),
+                lengthPrefixed(encoder.encode(snapshot))));
+    }
+
+    /**
+     * Add a spectator: it receives the current state followed by every delta.
+     *
+     * @param out The stream of the spectator.
+     */
+    public void subscribe(OutputStream out) {
+        subscribe(out, false);
+    }
+
+    /**
+     * Add a spectator.
+     *
+     * @param out    The stream of the spectator.
+     * @param binary True for binary frames (a keyframe followed by the frames of the encoder),
+     *               false for server-sent events.
+     */
+    public void subscribe(OutputStream out, boolean binary) {
+        try {
+            queue.put(new Spectator(out, binary));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close(out);
+        }
+    }
+
+    /**
+     * Stop listening to the match and disconnect the spectators.
+     */
+    public void close() {
+        gameLogic.removeListener(this);
+        try {
+            queue.put(CLOSE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            dispatcher.interrupt();
+        }
+    }
+
+    /**
+     * Snapshot of the game with the number of the delta that led to it.
+     */
+    private static final class State {
+
+        /**
+         * The snapshot.
+         */
+        private final BoardSnapshot snapshot;
+
+        /**
+         * Number of the delta, 0 for the first state.
+         */
+        private final long sequence;
+
+        /**
+         * Constructor.
+         *
+         * @param snapshot The snapshot.
+         * @param sequence Number of the delta.
+         */
+        private State(BoardSnapshot snapshot, long sequence) {
+            this.snapshot = snapshot;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Delta serialized for the spectators.
+     */
+    private static final class Frame {
+
+        /**
+         * Number of the delta.
+         */
+        private final long sequence;
+
+        /**
+         * Serialized event.
+         */
+        private final byte[] bytes;
+
+        /**
+         * Binary frame, preceded by its length.
+         */
+        private final byte[] binary;
+
+        /**
+         * Constructor.
+         *
+         * @param sequence Number of the delta.
+         * @param bytes    Serialized event.
+         * @param binary   Binary frame, preceded by its length.
+         */
+        private Frame(long sequence, byte[] bytes, byte[] binary) {
+            this.sequence = sequence;
+            this.bytes = bytes;
+            this.binary = binary;
+        }
+    }
+
+    /**
+     * A spectator with its bounded queue of bytes to write, written by a thread of {@link #WRITERS}.
+     */
+    private final class Spectator implements Runnable {
+
+        /**
+         * The stream of the spectator.
+         */
+        private final OutputStream out;
+
+        /**
+         * True for binary frames.
+         */
+        private final boolean binary;
+
+        /**
+         * Bytes waiting to be written.
+         */
+        private final ArrayDeque<byte[]> pending = new ArrayDeque<>();
+
+        /**
+         * Keyframe waiting to be written, null if none.
+         */
+        private byte[] keyframe;
+
+        /**
+         * True while a writer thread works for the spectator.
+         */
+        private boolean writing;
+
+        /**
+         * Frames up to this number are already in the last keyframe, used only by the dispatcher thread.
+         */
+        private long skipUntil = -1;
+
+        /**
+         * True once the spectator is disconnected.
+         */
+        private volatile boolean closed;
+
+        /**
+         * Constructor.
+         *
+         * @param out    The stream of the spectator.
+         * @param binary True for binary frames.
+         */
+        private Spectator(OutputStream out, boolean binary) {
+            this.out = out;
+            this.binary = binary;
+        }
+
+        /**
+         * Queue a frame; a spectator whose queue is full is resynchronized, or disconnected if it didn't even
+         * write its last keyframe. Called on the dispatcher thread.
+         *
+         * @param frame The frame.
+         */
+        private void send(Frame frame) {
+            if (frame.sequence <= skipUntil) {
+                return;
+            }
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (pending.size() >= SPECTATOR_CAPACITY) {
+                    if (keyframe != null) {
+                        disconnect();
+                    } else {
+                        resync();
+                    }
+                    return;
+                }
+                pending.add(binary ? frame.binary : frame.bytes);
+                schedule();
+            }
+        }
+
+        /**
+         * Replace the frames waiting with a keyframe of the latest state. Called on the dispatcher thread.
+         */
+        private synchronized void resync() {
+            if (closed) {
+                return;
+            }
+            State current = state;
+            skipUntil = current.sequence;
+            keyframe = binary
+                    ? lengthPrefixed(DeltaEncoder.keyframe(current.snapshot))
+                    : event("state", current.sequence, current.snapshot.toJson());
+            pending.clear();
+            pending.add(keyframe);
+            schedule();
+        }
+
+        /**
+         * Disconnect the spectator; the stream is closed by the writer thread, which may be waiting for it.
+         */
+        private synchronized void disconnect() {
+            closed = true;
+            pending.clear();
+            keyframe = null;
+            schedule();
+        }
+
+        /**
+         * Start a writer thread if none is working for the spectator. Called holding the lock.
+         */
+        private void schedule() {
+            if (!writing) {
+                writing = true;
+                WRITERS.execute(this);
+            }
+        }
+
+        /**
+         * Write the bytes waiting, flushing when the queue is empty.
+         */
+        @Override
+        public void run() {
+            while (true) {
+                byte[] bytes;
+                boolean last;
+                synchronized (this) {
+                    bytes = closed ? null : pending.poll();
+                    if (bytes == null) {
+                        writing = false;
+                        break;
+                    }
+                    last = pending.isEmpty();
+                }
+                try {
+                    out.write(bytes);
+                    if (last) {
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    synchronized (this) {
+                        closed = true;
+                        pending.clear();
+                        writing = false;
+                    }
+                    break;
+                }
+                synchronized (this) {
+                    if (keyframe == bytes) {
+                        keyframe = null;
+                    }
+                }
+            }
+            if (closed) {
+                close(out);
+            }
+        }
+    }
+}
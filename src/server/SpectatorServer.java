@@ -0,0 +1,378 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import gameEngine.GameLogic;
+import gameEngine.RemoteController;
+import general.Direction;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Embedded HTTP server for the spectators of the matches, and for the clients of the players who play over HTTP.
+ * <ul>
+ * <li>{@code GET /matches}: ids of the matches.</li>
+ * <li>{@code GET /matches/<id>}: state of a match.</li>
+ * <li>{@code GET /matches/<id>/events}: server-sent events, the state followed by a delta for every change.</li>
+ * <li>{@code GET /matches/<id>/stream}: binary frames of {@link gameEngine.DeltaEncoder}, each preceded by its length.</li>
+ * <li>{@code GET /matches/<id>/players/<n>}: what is asked to a remote player, with its timeouts and refused steps.</li>
+ * <li>{@code POST /matches/<id>/players/<n>/step?direction=north|south|west|east}: next step of a remote player.</li>
+ * <li>{@code POST /matches/<id>/players/<n>/answer?use=true|false}: use or not the gem or the potion asked.</li>
+ * </ul>
+ * Every remote player gets a secret when the match is registered ({@link #getSecret(String, int)}); a step or an
+ * answer without the secret of the player in the {@value #SECRET_HEADER} header gets 403, one that is not expected
+ * gets 409.
+ *
+ * @author Matteo Arena
+ * @author Carlo Pezzotti
+ */
+public class SpectatorServer {
+
+    //==================== Attributes ===================
+
+    /**
+     * Prefix of the paths of the matches.
+     */
+    private static final String MATCHES = "/matches";
+
+    /**
+     * Header with the secret of a remote player.
+     */
+    public static final String SECRET_HEADER = "X-Player-Secret";
+
+    /**
+     * Generator of the secrets of the remote players.
+     */
+    private static final SecureRandom SECRETS = new SecureRandom();
+
+    /**
+     * The HTTP server.
+     */
+    private final HttpServer server;
+
+    /**
+     * Threads of the HTTP server.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Channels of the matches, by id.
+     */
+    private final Map<String, MatchChannel> channels = new ConcurrentHashMap<>();
+
+    /**
+     * Remote players of the matches, by id; null for the players not played over HTTP.
+     */
+    private final Map<String, RemotePlayer[]> remotes = new ConcurrentHashMap<>();
+
+    // ==================== Constructors ====================
+
+    /**
+     * Constructor.
+     *
+     * @param port Port of the server, 0 for any free port.
+     * @throws IOException If the port can't be opened.
+     */
+    public SpectatorServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        executor = Executors.newFixedThreadPool(4, r -> {
+            Thread thread = new Thread(r, "spectator-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext(MATCHES, this::handle);
+    }
+
+    // ==================== Getters and Setters ====================
+
+    /**
+     * Get the port of the server.
+     *
+     * @return The port.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    //==================== private methods ====================
+
+    /**
+     * Send a complete response.
+     *
+     * @param exchange The exchange.
+     * @param status   The status code.
+     * @param body     The body (JSON).
+     * @throws IOException If the response can't be sent.
+     */
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Return a parameter of the query of a request.
+     *
+     * @param exchange The exchange.
+     * @param name     Name of the parameter.
+     * @return The value, null if missing.
+     */
+    private static String parameter(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0 && name.equals(pair.substring(0, equals))) {
+                return pair.substring(equals + 1);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Create the secret of a remote player.
+     *
+     * @return 128 random bits as hexadecimal.
+     */
+    private static String newSecret() {
+        byte[] bytes = new byte[16];
+        SECRETS.nextBytes(bytes);
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0x0F, 16)).append(Character.forDigit(b & 0x0F, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Return a remote player.
+     *
+     * @param id     Id of the match.
+     * @param player Index of the player.
+     * @return The player, null if the player is not played over HTTP.
+     */
+    private RemotePlayer remote(String id, String player) {
+        RemotePlayer[] players = remotes.get(id);
+        if (players == null) {
+            return null;
+        }
+        try {
+            int index = Integer.parseInt(player);
+            return index >= 0 && index < players.length ? players[index] : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Handle a request of the client of a remote player.
+     *
+     * @param exchange The exchange.
+     * @param parts    Parts of the path after {@link #MATCHES}.
+     * @throws IOException If the response can't be sent.
+     */
+    private void handlePlayer(HttpExchange exchange, String[] parts) throws IOException {
+        RemotePlayer player = remote(parts[1], parts[3]);
+        String action = parts.length == 5 ? parts[4] : null;
+        if (player == null || parts.length > 5 || (action != null && !"step".equals(action) && !"answer".equals(action))) {
+            send(exchange, 404, "{\"error\":\"not found\"}");
+            return;
+        }
+        if (!(action == null ? "GET" : "POST").equals(exchange.getRequestMethod())) {
+            send(exchange, 405, "{\"error\":\"method not allowed\"}");
+            return;
+        }
+        RemoteController remote = player.controller;
+        if (action == null) {
+            send(exchange, 200, "{\"request\":\"" + remote.getRequest() + "\",\"timeouts\":" + remote.getTimeouts()
+                    + ",\"refused\":" + remote.getRefused() + "}");
+            return;
+        }
+        String secret = exchange.getRequestHeaders().getFirst(SECRET_HEADER);
+        if (secret == null || !MessageDigest.isEqual(secret.getBytes(StandardCharsets.UTF_8),
+                player.secret.getBytes(StandardCharsets.UTF_8))) {
+            send(exchange, 403, "{\"error\":\"forbidden\"}");
+            return;
+        }
+        String value = parameter(exchange, "step".equals(action) ? "direction" : "use");
+        boolean accepted;
+        if ("step".equals(action)) {
+            Direction direction;
+            try {
+                direction = Direction.valueOf(String.valueOf(value).toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                send(exchange, 400, "{\"error\":\"invalid direction\"}");
+                return;
+            }
+            accepted = remote.submitStep(direction);
+        } else if ("true".equals(value) || "false".equals(value)) {
+            accepted = remote.submitAnswer(Boolean.parseBoolean(value));
+        } else {
+            send(exchange, 400, "{\"error\":\"invalid answer\"}");
+            return;
+        }
+        send(exchange, accepted ? 200 : 409, "{\"accepted\":" + accepted + "}");
+    }
+
+    /**
+     * Handle a request.
+     *
+     * @param exchange The exchange.
+     * @throws IOException If the response can't be sent.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        String[] parts = exchange.getRequestURI().getPath().substring(MATCHES.length()).split("/");
+        if (parts.length >= 4 && "players".equals(parts[2])) {
+            handlePlayer(exchange, parts);
+            return;
+        }
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            send(exchange, 405, "{\"error\":\"method not allowed\"}");
+            return;
+        }
+        if (parts.length <= 1) {
+            StringBuilder sb = new StringBuilder("[");
+            for (String id : channels.keySet()) {
+                sb.append(sb.length() > 1 ? "," : "").append('"').append(id).append('"');
+            }
+            send(exchange, 200, sb.append(']').toString());
+            return;
+        }
+        MatchChannel channel = channels.get(parts[1]);
+        if (channel == null || parts.length > 3 || (parts.length == 3 && !"events".equals(parts[2]) && !"stream".equals(parts[2]))) {
+            send(exchange, 404, "{\"error\":\"not found\"}");
+        } else if (parts.length == 2) {
+            send(exchange, 200, channel.getState().toJson());
+        } else if ("stream".equals(parts[2])) {
+            exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+            exchange.sendResponseHeaders(200, 0);
+            channel.subscribe(exchange.getResponseBody(), true);
+        } else {
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            exchange.sendResponseHeaders(200, 0);
+            channel.subscribe(exchange.getResponseBody());
+        }
+    }
+
+    //==================== public methods ====================
+
+    /**
+     * Start the server.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stop the server and disconnect all the spectators.
+     */
+    public void stop() {
+        for (MatchChannel channel : channels.values()) {
+            channel.close();
+        }
+        channels.clear();
+        remotes.clear();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Publish a match; every remote player gets a new secret.
+     *
+     * @param id        Id of the match (letters, digits, '-' and '_').
+     * @param gameLogic The game.
+     * @param players   Controllers of the players played over HTTP, by index of the player; null for the others.
+     * @return The channel of the match.
+     */
+    public MatchChannel register(String id, GameLogic gameLogic, RemoteController... players) {
+        if (!id.matches("[a-zA-Z0-9_-]+")) {
+            throw new IllegalArgumentException("Invalid match id: " + id);
+        }
+        if (players.length > 0) {
+            RemotePlayer[] remote = new RemotePlayer[players.length];
+            for (int i = 0; i < players.length; i++) {
+                if (players[i] != null) {
+                    remote[i] = new RemotePlayer(players[i], newSecret());
+                }
+            }
+            remotes.put(id, remote);
+        } else {
+            remotes.remove(id);
+        }
+        MatchChannel channel = new MatchChannel(id, gameLogic);
+        MatchChannel old = channels.put(id, channel);
+        if (old != null) {
+            old.close();
+        }
+        return channel;
+    }
+
+    /**
+     * Remove a match.
+     *
+     * @param id Id of the match.
+     */
+    public void unregister(String id) {
+        remotes.remove(id);
+        MatchChannel channel = channels.remove(id);
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Get the secret a client must send to play a remote player.
+     *
+     * @param id     Id of the match.
+     * @param player Index of the player.
+     * @return The secret, null if the player is not played over HTTP.
+     */
+    public String getSecret(String id, int player) {
+        RemotePlayer remote = remote(id, String.valueOf(player));
+        return remote != null ? remote.secret : null;
+    }
+
+    /**
+     * A player played over HTTP, with its secret.
+     */
+    private static final class RemotePlayer {
+
+        /**
+         * The controller of the player.
+         */
+        private final RemoteController controller;
+
+        /**
+         * Secret the client sends with its steps and answers.
+         */
+        private final String secret;
+
+        /**
+         * Constructor.
+         *
+         * @param controller The controller of the player.
+         * @param secret     The secret.
+         */
+        private RemotePlayer(RemoteController controller, String secret) {
+            this.controller = controller;
+            this.secret = secret;
+        }
+    }
+}